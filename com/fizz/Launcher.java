@@ -1,13 +1,27 @@
 package com.fizz;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
 import java.util.List;
 
 import com.fizz.lexer.Lexer;
-import com.fizz.lexer.token.Token;
 import com.fizz.parser.Parser;
+import com.fizz.parser.node.Node;
+import com.fizz.interpreter.Engine;
 import com.fizz.interpreter.Interpreter;
+import com.fizz.interpreter.closure.ClosureCompiler;
+import com.fizz.interpreter.vm.BytecodeCompiler;
+import com.fizz.interpreter.vm.VM;
+import com.fizz.interpreter.jit.JitCompiler;
+import com.fizz.optimizer.Optimizer;
+import com.fizz.resolver.Resolver;
 import com.fizz.util.Constants;
+import com.fizz.util.Output;
+import com.fizz.util.ScriptCache;
+import com.fizz.util.Source;
+import com.fizz.util.function.TFunc;
 import com.fizz.util.result.ParseResult;
 import com.fizz.util.result.RuntimeResult;
 import com.fizz.util.context.*;
@@ -19,9 +33,28 @@ import com.fizz.util.context.*;
  * @author Noah James Rathman
  */
 public final class Launcher {
+  private static Engine engine = Engine.TREE;
+  private static Thread runner;
+
   //Launcher should never be instanced.
   private Launcher() {}
 
+  /**
+   * Sets the Engine used to execute programs passed to {@link #run}.
+   * @param _engine New Engine
+   */
+  public static void setEngine(Engine _engine) {
+    engine = _engine;
+  }
+
+  /**
+   * Returns the Engine used to execute programs passed to {@link #run}.
+   * @return Current Engine
+   */
+  public static Engine getEngine() {
+    return engine;
+  }
+
   /**
    * Creates the Fizz shell.
    */
@@ -38,6 +71,21 @@ public final class Launcher {
       else if(input.startsWith("/help")) {
         helpDialog(input.replace("/help", ""));
         continue;
+      } else if(input.startsWith("/engine")) {
+        engineDialog(input.replace("/engine", ""));
+        continue;
+      } else if(input.startsWith("/jit")) {
+        jitDialog(input.replace("/jit", ""));
+        continue;
+      } else if(input.startsWith("/depth")) {
+        depthDialog(input.replace("/depth", ""));
+        continue;
+      } else if(input.startsWith("/cache")) {
+        cacheDialog(input.replace("/cache", ""));
+        continue;
+      } else if(input.startsWith("/calls")) {
+        callsDialog(input.replace("/calls", ""));
+        continue;
       } else if(input.equals("")) {continue;}
 
       run("<shell>", input, Constants.PROGRAM);
@@ -66,6 +114,135 @@ public final class Launcher {
     System.out.println(repr);
   }
 
+  private static void engineDialog(String name) {
+    String id = name.replace(" ", "");
+
+    if(id.equals("")) {
+      System.out.println("Current engine is " + engine + ".");
+      return;
+    }
+
+    Engine e = Engine.getMatchingEngine(id);
+    if(e == null) {
+      System.out.println("Illegal engine \"" + id + "\".");
+      return;
+    }
+
+    engine = e;
+    System.out.println("Engine set to " + engine + ".");
+  }
+
+  private static void jitDialog(String threshold) {
+    String id = threshold.replace(" ", "");
+
+    if(id.equals("")) {
+      System.out.println("---------------------------------------------");
+      System.out.println("Compiled functions:");
+      for(String f : JitCompiler.getCompiled()) {
+        System.out.println("  " + f);
+      }
+
+      System.out.println("Rejected functions:");
+      for(String f : JitCompiler.getRejected()) {
+        System.out.println("  " + f);
+      }
+
+      int t = JitCompiler.getThreshold();
+      System.out.println(t > 0 ? "Functions are compiled after " + t + " calls." : "Compiling is disabled.");
+      return;
+    }
+
+    int t;
+    try {
+      t = Integer.parseInt(id);
+    } catch(NumberFormatException e) {
+      t = -1;
+    }
+
+    if(t < 0) {
+      System.out.println("Illegal threshold \"" + id + "\".");
+      return;
+    }
+
+    JitCompiler.setThreshold(t);
+    System.out.println(t > 0 ? "Threshold set to " + t + "." : "Compiling disabled.");
+  }
+
+  private static void depthDialog(String depth) {
+    String id = depth.replace(" ", "");
+
+    if(id.equals("")) {
+      System.out.println("Maximum call depth is " + Context.getMaxDepth() + ".");
+      return;
+    }
+
+    int d;
+    try {
+      d = Integer.parseInt(id);
+    } catch(NumberFormatException e) {
+      d = -1;
+    }
+
+    if(d < 1) {
+      System.out.println("Illegal depth \"" + id + "\".");
+      return;
+    }
+
+    Context.setMaxDepth(d);
+    System.out.println("Maximum call depth set to " + d + ".");
+  }
+
+  private static void callsDialog(String command) {
+    String id = command.replace(" ", "");
+
+    if(id.equals("reset")) {
+      Interpreter.resetCallCounts();
+      System.out.println("Call counts reset.");
+      return;
+    } else if(!id.equals("")) {
+      System.out.println("Illegal calls command \"" + id + "\".");
+      return;
+    }
+
+    long hits = Interpreter.getCallHits(), total = hits + Interpreter.getCallMisses();
+    System.out.println("---------------------------------------------");
+    System.out.println("Call site cache hits: " + hits + " of " + total + " calls.");
+    if(total > 0) {
+      System.out.println("Hit rate: " + (hits * 100 / total) + "%.");
+    }
+  }
+
+  private static void cacheDialog(String command) {
+    String id = command.replace(" ", "");
+
+    if(id.equals("clear")) {
+      ScriptCache.clear();
+      System.out.println("Script cache cleared.");
+      return;
+    } else if(!id.equals("")) {
+      int c;
+      try {
+        c = Integer.parseInt(id);
+      } catch(NumberFormatException e) {
+        c = -1;
+      }
+
+      if(c < 0) {
+        System.out.println("Illegal cache command \"" + id + "\".");
+        return;
+      }
+
+      ScriptCache.setCapacity(c);
+      System.out.println(c > 0 ? "Script cache capacity set to " + c + "." : "Script cache disabled.");
+      return;
+    }
+
+    System.out.println("---------------------------------------------");
+    System.out.println("Cached scripts: " + ScriptCache.getSize() + " of " + ScriptCache.getCapacity() + ".");
+    System.out.println("Hits: " + ScriptCache.getHits() + ", misses: " + ScriptCache.getMisses()
+      + ", evictions: " + ScriptCache.getEvictions() + ".");
+  }
+
   private static String sysSymbols() {
     List<String> displays = SymbolTable.createGST().getDisplayList();
     String repr = "";
@@ -84,30 +261,143 @@ public final class Launcher {
    * @param context Base context of program
    */
   public static void run(String fName, String fText, Context context) {
-    //Lexer
-    Lexer.init(fName, fText.replace("\r", ""));
-    List<Token> tokens = Lexer.createTokenList();
-    if(Lexer.hasError()) {
-      System.out.println("\n" + Lexer.getError() + "\n");
-      return;
+    run(ScriptCache.textKey(fName, fText), () -> parse(fName, fText), context);
+  }
+
+  /**
+   * Optimizes and executes a parsed Fizz program, unless a program
+   * with the same key is cached, in which case it's executed straight away.
+   * @param key Key of code in the {@link ScriptCache}
+   * @param tree Supplies the parsed tree of the program if it isn't cached
+   * @param context Base context of program
+   * @throws com.fizz.util.error.Failure If the tree can't be supplied
+   */
+  public static void run(List<Object> key, TFunc tree, Context context) {
+    try {
+      runSteps(key, tree, context);
+    } finally {
+      Output.flush();
     }
+  }
 
-    //Parser
-    Parser.init(tokens);
-    ParseResult pRes = Parser.parse();
-    if(pRes.hasError()) {
-      System.out.println("\n" + pRes.getError() + "\n");
-      return;
+  private static void runSteps(List<Object> key, TFunc tree, Context context) {
+    final SymbolTable globals = context.getSymbolTable();
+
+    Node ast = ScriptCache.get(key, globals);
+    if(ast == null) {
+      ast = tree.run();
+      if(ast == null) {return;}
+
+      //Optimizer
+      ast = Optimizer.optimize(ast, globals);
+      ScriptCache.put(key, ast, globals, Optimizer.isPortable());
     }
 
     //Interpreter
-    RuntimeResult iRes = Interpreter.visit(pRes.getValue(), context);
+    RuntimeResult iRes = execute(ast, context);
     if(iRes.hasError()) {
-      System.out.println("\n" + iRes.getError() + "\n");
+      Output.println("\n" + iRes.getError() + "\n");
       return;
     }
 
-    System.out.print("\n");
+    Output.print("\n");
+  }
+
+  /**
+   * Lexes and parses the passed Fizz code, displaying any Error found.
+   * @param fName Name of Fizz file
+   * @param fText Content of Fizz file
+   * @return Root Node of the parsed tree, or null if the code has an Error
+   */
+  public static Node parse(String fName, String fText) {
+    Lexer.init(fName, fText);
+    return parse();
+  }
+
+  /**
+   * Lexes and parses the code of the passed Source as it's read,
+   * displaying any Error found. Only the chunk of code being lexed is
+   * held in memory, rather than the whole text.
+   * @param source Source of Fizz code
+   * @return Root Node of the parsed tree, or null if the code has an Error
+   * @throws IOException If the code can't be read
+   */
+  public static Node parse(Source source) throws IOException {
+    try(Reader reader = source.open()) {
+      Lexer.init(source, reader);
+      return parse();
+    } catch(UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static Node parse() {
+    //Parser, which reads Tokens from the Lexer as it needs them
+    Parser.init();
+    ParseResult pRes = Parser.parse();
+    if(pRes.hasError()) {
+      Output.println("\n" + pRes.getError() + "\n");
+      return null;
+    }
+
+    return pRes.getValue();
+  }
+
+  //Programs run on a thread with room for the maximum call depth, so that depth is what ends runaway recursion.
+  private static RuntimeResult execute(Node ast, Context context) {
+    if(Thread.currentThread() == runner) {
+      return executeSteps(ast, context);
+    }
+
+    RuntimeResult[] result = new RuntimeResult[1];
+    Throwable[] thrown = new Throwable[1];
+
+    runner = new Thread(null, () -> {
+      try {
+        result[0] = executeSteps(ast, context);
+      } catch(Throwable e) {
+        thrown[0] = e;
+      }
+    }, "Fizz", engine.getStackSize(Context.getMaxDepth()));
+
+    try {
+      runner.start();
+
+      boolean interrupted = false;
+      while(true) {
+        try {
+          runner.join();
+          break;
+        } catch(InterruptedException e) {
+          interrupted = true;
+        }
+      }
+
+      if(interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    } finally {
+      runner = null;
+    }
+
+    if(thrown[0] instanceof RuntimeException) {throw (RuntimeException) thrown[0];}
+    if(thrown[0] instanceof Error) {throw (Error) thrown[0];}
+
+    return result[0];
+  }
+
+  private static RuntimeResult executeSteps(Node ast, Context context) {
+    switch(engine) {
+      case CLOSURE:
+        Resolver.resolve(ast, context.getSymbolTable());
+        return ClosureCompiler.run(ClosureCompiler.compileProgram(ast, context.getSymbolTable()), new Frame(context));
+      case VM:
+        Resolver.resolve(ast, context.getSymbolTable());
+        JitCompiler.startRun();
+        return VM.execute(BytecodeCompiler.compileProgram(ast, context.getSymbolTable()), new Frame(context));
+      default:
+        return Interpreter.run(ast, context);
+    }
   }
 
   public static void main(String[] args) {
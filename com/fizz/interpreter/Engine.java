@@ -0,0 +1,50 @@
+package com.fizz.interpreter;
+
+/**
+ * Identifies the ways a parsed Fizz program can be executed.
+ * @author Noah James Rathman
+ */
+public enum Engine {
+  /** Walks the Abstract Syntax Tree using the {@link Interpreter}. */
+  TREE(8 << 10),
+  /** Runs the tree of closures built by the {@link com.fizz.interpreter.closure.ClosureCompiler}. */
+  CLOSURE(4 << 10),
+  /** Runs the bytecode built by the {@link com.fizz.interpreter.vm.BytecodeCompiler} on the {@link com.fizz.interpreter.vm.VM}. */
+  VM(1 << 10);
+
+  //Java stack needed by anything the Engine does outside of calls.
+  private static final long BASE_STACK = 4 << 20;
+
+  private final long stackPerCall;
+
+  private Engine(long stackPerCall) {
+    this.stackPerCall = stackPerCall;
+  }
+
+  /**
+   * Returns the size of Java stack a program needs to reach the passed
+   * call depth on this Engine. The TREE and CLOSURE Engines recurse in
+   * Java for every call, while the VM only does so for compiled code.
+   * @param maxDepth Maximum call depth
+   * @return Stack size in bytes
+   */
+  public long getStackSize(int maxDepth) {
+    return BASE_STACK + maxDepth * stackPerCall;
+  }
+
+  /**
+   * Returns the Engine with the passed name, ignoring case.
+   * @param name Name of Engine
+   * @return Engine with the passed name. If none match that name,
+   * {@code null} is returned.
+   */
+  public static Engine getMatchingEngine(String name) {
+    for(Engine e : values()) {
+      if(e.name().equalsIgnoreCase(name)) {
+        return e;
+      }
+    }
+
+    return null;
+  }
+}
@@ -6,15 +6,20 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.fizz.lexer.token.*;
 import com.fizz.parser.node.*;
 import com.fizz.interpreter.value.*;
 import com.fizz.util.Constants;
+import com.fizz.util.Output;
+import com.fizz.util.Position;
 import com.fizz.util.context.*;
+import com.fizz.util.result.Completion;
 import com.fizz.util.result.RuntimeResult;
 import com.fizz.util.function.IFunc;
 import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -25,6 +30,39 @@ import com.fizz.util.error.RuntimeError;
 public class Interpreter {
   private static Map<String, IFunc> FUNCTIONS;
   private static boolean inLoop = false;
+  private static Completion completion = Completion.NORMAL;
+
+  //Specialized operations of BinOpNodes, each returning null when its guard fails.
+  private static final VFunc GENERIC = (l, r, start, end, context) -> null;
+  private static final VFunc NUM_ADD = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Num.valueOf(((Num) l).getValue() + ((Num) r).getValue()) : null;
+  private static final VFunc NUM_SUB = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Num.valueOf(((Num) l).getValue() - ((Num) r).getValue()) : null;
+  private static final VFunc NUM_MUL = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Num.valueOf(((Num) l).getValue() * ((Num) r).getValue()) : null;
+  //Division by 0 fails the guard, leaving the Error to the generic operation.
+  private static final VFunc NUM_DIV = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num && ((Num) r).getValue() != 0 ? Num.valueOf(((Num) l).getValue() / ((Num) r).getValue()) : null;
+  private static final VFunc NUM_LT = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() < ((Num) r).getValue()) : null;
+  private static final VFunc NUM_GT = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() > ((Num) r).getValue()) : null;
+  private static final VFunc NUM_LTE = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() <= ((Num) r).getValue()) : null;
+  private static final VFunc NUM_GTE = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() >= ((Num) r).getValue()) : null;
+  private static final VFunc NUM_EE = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() == ((Num) r).getValue()) : null;
+  private static final VFunc NUM_NE = (l, r, start, end, context) ->
+    l instanceof Num && r instanceof Num ? Bool.valueOf(((Num) l).getValue() != ((Num) r).getValue()) : null;
+
+  //Call left by a return in tail position, run by the function which made it.
+  private static UserFunc tailFunc;
+  private static List<Val> tailArgs;
+  private static Position tailStart, tailEnd;
+
+  //Calls which found their function in their call site's cache, and calls which looked it up.
+  private static long callHits = 0, callMisses = 0;
 
   //Interpreter should never be instanced.
   private Interpreter() {}
@@ -37,6 +75,7 @@ public class Interpreter {
     FUNCTIONS = new HashMap<String, IFunc>();
 
     FUNCTIONS.put("ValueNode",          Interpreter::visitValueNode);
+    FUNCTIONS.put("ConstNode",          Interpreter::visitConstNode);
     FUNCTIONS.put("UnaryOpNode",        Interpreter::visitUnaryOpNode);
     FUNCTIONS.put("BinOpNode",          Interpreter::visitBinOpNode);
     FUNCTIONS.put("VarAccessNode",      Interpreter::visitVarAccessNode);
@@ -53,14 +92,107 @@ public class Interpreter {
     FUNCTIONS.put("ForNode",            Interpreter::visitForNode);
   }
 
+  /**
+   * Visits the passed Abstract Syntax Tree as a program. Visits return
+   * their values directly and leave through a Failure when they run into
+   * an Error, which is only caught here.
+   * @param ast Root Node of the program
+   * @param context Base Context of the program
+   * @return Result of the program
+   */
+  public static RuntimeResult run(Node ast, Context context) {
+    RuntimeResult res = new RuntimeResult();
+
+    try {
+      return res.success(visit(ast, context));
+    } catch(Failure f) {
+      return res.failure(f.getError());
+    } finally {
+      completion = Completion.NORMAL;
+      tailFunc = null;
+      tailArgs = null;
+    }
+  }
+
+  /**
+   * Returns the number of calls which found their function in the
+   * cache of their call site.
+   * @return Number of cache hits
+   */
+  public static long getCallHits() {
+    return callHits;
+  }
+
+  /**
+   * Returns the number of calls which had to look up their function.
+   * @return Number of cache misses
+   */
+  public static long getCallMisses() {
+    return callMisses;
+  }
+
+  /**
+   * Sets both call counts back to 0.
+   */
+  public static void resetCallCounts() {
+    callHits = 0;
+    callMisses = 0;
+  }
+
+  /**
+   * Visits the statement of a function called with the passed Context.
+   * When the statement returns a call in tail position, the called
+   * function is run here in place of the function which called it,
+   * reusing its SymbolTable, so tail calls never grow the Java stack.
+   * @param statement Statement of function
+   * @param context Context of the call
+   * @return Returned value, or void if the function returns nothing
+   * @throws Failure If the function runs into an Error
+   */
+  public static Val visitBody(Node statement, Context context) {
+    Node body = statement;
+    Context fContext = context;
+
+    while(true) {
+      //Calls and loops are where held output is flushed once it's been held too long.
+      Output.poll();
+      Val result = visit(body, fContext);
+
+      //Whatever left the statement stops at the function.
+      Completion c = completion;
+      completion = Completion.NORMAL;
+
+      if(tailFunc == null) {
+        return c == Completion.RETURN ? result : Val.VOID;
+      }
+
+      UserFunc func = tailFunc;
+      tailFunc = null;
+
+      func.reuseArgs(tailArgs, fContext.getSymbolTable(), tailStart, tailEnd, fContext);
+      tailArgs = null;
+
+      //A function calling itself keeps its Context, otherwise the new function replaces it.
+      if(func.getStatement() != body) {
+        Context next = func.createContext(fContext.getSymbolTable(), fContext.getParent(), tailStart);
+        next.countTailCalls(fContext.getTailCalls() + 1);
+
+        fContext = next;
+        body = func.getStatement();
+      } else {
+        fContext.countTailCalls(1);
+      }
+    }
+  }
+
   /**
    * Visits the passed Node using the passed Context.
    * @param node Node to be visited
    * @param context Context used while visiting Node
-   * @return Result of visitation
+   * @return Resulting value
+   * @throws Failure If the Node runs into an Error
    */
-  public static RuntimeResult visit(Node node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  public static Val visit(Node node, Context context) {
     final String className = node.getClass().getSimpleName();
 
     IFunc func = FUNCTIONS.get(className);
@@ -68,479 +200,566 @@ public class Interpreter {
       return func.run(node, context);
     }
 
-    return res.failure(new RuntimeError(
+    throw new Failure(new RuntimeError(
       "Node Visit",
       "No visit method defined for \"" + className + "\".",
       node.getStart(), node.getEnd(), context
     ));
   }
 
-  private static RuntimeResult visitValueNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitValueNode(Node _node, Context context) {
     final ValueNode node = (ValueNode) _node;
 
     Val result = null;
     if(node.getValue().isType(Type.INT, Type.FLOAT)) {
-      result = new Num(Double.parseDouble(node.getValue().getValue()));
+      result = Num.valueOf(Double.parseDouble(node.getValue().getValue()));
     } else if(node.getValue().isType(Type.STR)) {
       result = new Str(node.getValue().getValue());
     }
 
-    result.setPosition(node.getStart(), node.getEnd());
-    result.setContext(context);
+    return result;
+  }
 
-    return res.success(result);
+  private static Val visitConstNode(Node _node, Context context) {
+    final ConstNode node = (ConstNode) _node;
+    return node.getValue();
   }
 
-  private static RuntimeResult visitUnaryOpNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitUnaryOpNode(Node _node, Context context) {
     final UnaryOpNode node = (UnaryOpNode) _node;
 
-    Val value = res.register(visit(node.getNode(), context));
-    if(res.hasError()) {return res;}
+    Val value = visit(node.getNode(), context);
 
-    Val result = null;
-    if(value.isType("Number")) {
+    //Once a type has been seen, values of that type skip straight to their operation.
+    ValType spec = node.getSpecialization();
+    if(spec != null && value.isType(spec)) {
+      return spec == ValType.NUMBER ? Num.valueOf(((Num) value).getValue() * -1) : ((Bool) value).not();
+    }
+
+    if(value.isType(ValType.NUMBER)) {
       if(!node.getOp().isType(Type.SUB)) {
-        return res.failure(unexpectedOperation("Number", node.getOp(), context));
+        throw new Failure(unexpectedOperation("Number", node.getOp(), context));
       }
 
       VFunc func = Num.getFunction(Type.MUL);
-      result = res.register(func.run(value, new Num(-1)));
-      if(res.hasError()) {return res;}
-    } else if(value.isType("Boolean")) {
+      Val result = func.run(value, Num.valueOf(-1), node.getStart(), node.getEnd(), context);
+
+      if(spec == null) {node.setSpecialization(ValType.NUMBER);}
+      return result;
+    } else if(value.isType(ValType.BOOLEAN)) {
       Bool bVal = (Bool) value;
-      result = bVal.not();
-    } else {
-      return res.failure(illegalOperation("unary", value));
-    }
 
-    result.setPosition(node.getStart(), node.getEnd());
-    result.setContext(context);
+      if(spec == null) {node.setSpecialization(ValType.BOOLEAN);}
+      return bVal.not();
+    }
 
-    return res.success(result);
+    throw new Failure(illegalOperation("unary", value, node.getNode().getStart(), node.getNode().getEnd(), context));
   }
 
-  private static RuntimeResult visitBinOpNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitBinOpNode(Node _node, Context context) {
     final BinOpNode node = (BinOpNode) _node;
+    final Node lNode = node.getLeftNode(), rNode = node.getRightNode();
 
-    Val lVal = res.register(visit(node.getLeftNode(), context));
-    if(res.hasError()) {return res;}
-
-    Val rVal = res.register(visit(node.getRightNode(), context));
-    if(res.hasError()) {return res;}
+    Val lVal = visit(lNode, context);
+    Val rVal = visit(rNode, context);
 
-    Val result = null;
-    if(lVal.isType("Number")) {
-      VFunc func = Num.getFunction(node.getOp().getType());
-      if(func == null) {
-        return res.failure(unexpectedOperation("Number", node.getOp(), context));
+    //The specialized operation runs when its guard passes, otherwise the Node stays generic.
+    VFunc spec = node.getSpecialization();
+    if(spec != null) {
+      Val result = spec.run(lVal, rVal, rNode.getStart(), rNode.getEnd(), context);
+      if(result != null) {
+        return result;
       }
 
-      result = res.register(func.run(lVal, rVal));
-      if(res.hasError()) {return res;}
-    } else if(lVal.isType("String")) {
-      VFunc func = Str.getFunction(node.getOp().getType());
-      if(func == null) {
-        return res.failure(unexpectedOperation("String", node.getOp(), context));
-      }
+      node.setSpecialization(GENERIC);
+    }
 
-      result = res.register(func.run(lVal, rVal));
-      if(res.hasError()) {return res;}
-    } else if(lVal.isType("Boolean")) {
-      VFunc func = Bool.getFunction(node.getOp().getType());
-      if(func == null) {
-        return res.failure(unexpectedOperation("Boolean", node.getOp(), context));
-      }
+    VFunc func = null;
+    if(lVal.isType(ValType.NUMBER)) {
+      func = Num.getFunction(node.getOp().getType());
+    } else if(lVal.isType(ValType.STRING)) {
+      func = Str.getFunction(node.getOp().getType());
+    } else if(lVal.isType(ValType.BOOLEAN)) {
+      func = Bool.getFunction(node.getOp().getType());
+    } else if(lVal.isType(ValType.ARRAY)) {
+      func = Array.getFunction(node.getOp().getType());
+    } else {
+      throw new Failure(illegalOperation("binary", lVal, lNode.getStart(), lNode.getEnd(), context));
+    }
 
-      result = res.register(func.run(lVal, rVal));
-    } else if(lVal.isType("Array")) {
-      VFunc func = Array.getFunction(node.getOp().getType());
-      if(func == null) {
-        return res.failure(unexpectedOperation("Array", node.getOp(), context));
-      }
+    if(func == null) {
+      throw new Failure(unexpectedOperation(lVal.getType().toString(), node.getOp(), context));
+    }
 
-      result = res.register(func.run(lVal, rVal));
-    } else {
-      return res.failure(illegalOperation("binary", lVal));
+    if(spec == null) {
+      node.setSpecialization(specialize(node.getOp().getType(), lVal, rVal, func));
     }
 
-    if(res.hasError()) {return res;}
+    return func.run(lVal, rVal, rNode.getStart(), rNode.getEnd(), context);
+  }
 
-    result.setPosition(node.getStart(), node.getEnd());
-    result.setContext(context);
+  /*
+   * Picks the operation a BinOpNode specializes to after seeing its first
+   * values. Numbers get operations which work on their doubles directly,
+   * while other values keep the function found for their type.
+   */
+  private static VFunc specialize(Type op, Val lVal, Val rVal, VFunc func) {
+    if(lVal.isType(ValType.NUMBER) && rVal.isType(ValType.NUMBER)) {
+      switch(op) {
+        case ADD: return NUM_ADD;
+        case SUB: return NUM_SUB;
+        case MUL: return NUM_MUL;
+        case DIV: return NUM_DIV;
+        case LT:  return NUM_LT;
+        case GT:  return NUM_GT;
+        case LTE: return NUM_LTE;
+        case GTE: return NUM_GTE;
+        case EE:  return NUM_EE;
+        case NE:  return NUM_NE;
+        default:  break;
+      }
+    }
 
-    return res.success(result);
+    final ValType type = lVal.getType();
+    return (l, r, start, end, context) -> l.isType(type) ? func.run(l, r, start, end, context) : null;
   }
 
-  private static RuntimeResult visitVarAccessNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitVarAccessNode(Node _node, Context context) {
     final VarAccessNode node = (VarAccessNode) _node;
 
     final String ID = node.getName().getValue();
     Symbol sym = context.getSymbolTable().get(ID);
     if(sym == null) {
-      return res.failure(undefinedSymbol(ID, node.getName(), context));
+      throw new Failure(undefinedSymbol(ID, node.getName(), context));
     }
 
-    Val symVal = sym.getValue();
-    symVal.setPosition(node.getStart(), node.getEnd());
-    symVal.setContext(context);
-
-    return res.success(symVal);
+    return sym.getValue();
   }
 
-  private static RuntimeResult visitVarAssignNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitVarAssignNode(Node _node, Context context) {
     final VarAssignNode node = (VarAssignNode) _node;
 
     String symID = node.getName().getValue();
     Symbol sym = context.getSymbolTable().get(symID);
     if(node.getType() == 1 && sym == null) {
-      return res.failure(
-        undefinedSymbol(symID, node.getName(), context)
-      );
+      throw new Failure(undefinedSymbol(symID, node.getName(), context));
     }
 
     if(sym != null && sym.isConstant()) {
-      return res.failure(illegalAssign(symID, node, context));
+      throw new Failure(illegalAssign(symID, node, context));
     }
 
-    Val symVal = res.register(visit(node.getExpr(), context));
-    if(res.hasError()) {return res;}
+    Val symVal = visit(node.getExpr(), context);
 
-    if(symVal.isType("void")) {
-      return res.failure(voidValue(node, context));
+    if(symVal.isType(ValType.VOID)) {
+      throw new Failure(voidValue(node, context));
     }
 
     context.getSymbolTable().set(symID, symVal, node.isConstant());
-    return res.success(Val.createVoid(node.getStart(), node.getEnd(), context));
+    return Val.VOID;
   }
 
-  private static RuntimeResult visitCallNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitCallNode(Node _node, Context context) {
     final CallNode node = (CallNode) _node;
 
+    BaseFunc func = callee(node, context);
+    Val[] argValues = arguments(node, context);
+
+    if(func instanceof SysFunc) {
+      return ((SysFunc) func).call(argValues, node.getStart(), node.getEnd(), context);
+    }
+
+    return func.execute(Arrays.asList(argValues), node.getStart(), node.getEnd(), context);
+  }
+
+  private static BaseFunc callee(CallNode node, Context context) {
     final String ID = node.getName().getValue();
-    Symbol sym = context.getSymbolTable().get(ID);
-    if(sym == null) {
-      return res.failure(undefinedSymbol(ID, node.getName(), context));
+
+    //A cached global Symbol stays valid until something shadows or removes a Symbol.
+    Symbol sym = node.getCache();
+    if(sym != null && node.getCacheVersion() == SymbolTable.getVersion()) {
+      callHits++;
+    } else {
+      callMisses++;
+
+      SymbolTable table = context.getSymbolTable();
+      sym = table.get(ID);
+      if(sym == null) {
+        throw new Failure(undefinedSymbol(ID, node.getName(), context));
+      }
+
+      if(sym == table.getRoot().get(ID)) {
+        SymbolTable.watch(ID);
+        node.setCache(sym, SymbolTable.getVersion());
+      } else {
+        node.setCache(null, 0);
+      }
     }
 
     Val sVal = sym.getValue();
-    if(!sVal.isType("Function")) {
-      return res.failure(new RuntimeError(
+    if(!sVal.isType(ValType.FUNCTION)) {
+      throw new Failure(new RuntimeError(
         "Symbol Access",
         "\"" + ID + "\" is not a Function.",
         node.getStart(), node.getEnd(), context
       ));
     }
 
-    BaseFunc func = (BaseFunc) sVal;
-    func.setPosition(node.getStart(), node.getEnd());
-
-    List<Val> argValues = new ArrayList<Val>();
-    for(Node aNode : node.getArgValues()) {
-      Val argValue = res.register(visit(aNode, context));
-      if(res.hasError()) {return res;}
+    return (BaseFunc) sVal;
+  }
 
-      if(argValue.isType("void")) {
-        return res.failure(voidValue(aNode, context));
-      }
-      argValues.add(argValue);
-    }
+  private static Val[] arguments(CallNode node, Context context) {
+    final List<Node> argNodes = node.getArgValues();
 
-    Val result = res.register(func.execute(argValues, context));
-    if(res.hasError()) {return res;}
+    Val[] argValues = new Val[argNodes.size()];
+    for(int i = 0; i < argValues.length; i++) {
+      Node aNode = argNodes.get(i);
+      Val argValue = visit(aNode, context);
 
-    if(!result.getAttribute().equals("returned")) {
-      result = Val.createVoid(node.getStart(), node.getEnd(), context);
+      if(argValue.isType(ValType.VOID)) {
+        throw new Failure(voidValue(aNode, context));
+      }
+      argValues[i] = argValue;
     }
 
-    result.setPosition(node.getStart(), node.getEnd());
-    result.setContext(context);
-    result.setAttribute("none");
-
-    return res.success(result);
+    return argValues;
   }
 
-  private static RuntimeResult visitFuncDefNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitFuncDefNode(Node _node, Context context) {
     final FuncDefNode node = (FuncDefNode) _node;
 
     String id = node.getName();
     UserFunc func = new UserFunc(id, node.getArgNames(), node.getStatement());
 
     if(!context.getSymbolTable().set(id, func, true)) {
-      return res.failure(illegalAssign(id, node, context));
+      throw new Failure(illegalAssign(id, node, context));
     }
 
-    return res.success(Val.createNull(node.getStart(), node.getEnd(), context));
+    return Val.NULL;
   }
 
-  private static RuntimeResult visitStatementNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitStatementNode(Node _node, Context context) {
     final StatementNode node = (StatementNode) _node;
 
-    Val result = Val.createVoid(node.getStart(), node.getEnd(), context);
     for(Node n : node.getStatements()) {
-      Val value = res.register(visit(n, context));
-      if(res.hasError()) {return res;}
+      Val value = visit(n, context);
 
-      String attrb = value.getAttribute();
-      if(!attrb.equals("none")) {
-        result = value;
-        break;
+      if(completion != Completion.NORMAL) {
+        return value;
       }
     }
 
-    return res.success(result);
+    return Val.VOID;
   }
 
-  private static RuntimeResult visitReturnNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitReturnNode(Node _node, Context context) {
     final ReturnNode node = (ReturnNode) _node;
 
-    if(!context.getName().startsWith("<Function ")) {
-      return res.failure(new RuntimeError(
+    if(context.getFunction() == null) {
+      throw new Failure(new RuntimeError(
         "Illegal Return",
         "\"return\" can not be called outside of a function.",
         node.getStart(), node.getEnd(), context
       ));
     }
 
-    Val result = res.register(visit(node.getExpression(), context));
-    if(res.hasError()) {return res;}
+    if(node.isTailCall()) {
+      return visitTailCall((CallNode) node.getExpression(), context);
+    }
+
+    Val result = visit(node.getExpression(), context);
 
-    result.setAttribute("returned");
-    return res.success(result);
+    completion = Completion.RETURN;
+    return result;
   }
 
-  private static RuntimeResult visitArrayNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  /*
+   * Leaves a returned user function call to be run by visitBody once the
+   * current function ends. The SymbolTable of the current function can
+   * only be taken over if it holds no constants, as those could keep the
+   * called function from assigning its own names.
+   */
+  private static Val visitTailCall(CallNode node, Context context) {
+    BaseFunc func = callee(node, context);
+    List<Val> argValues = Arrays.asList(arguments(node, context));
+
+    if(!(func instanceof UserFunc) || context.getSymbolTable().holdsConstants()) {
+      Val result = func.execute(argValues, node.getStart(), node.getEnd(), context);
+
+      completion = Completion.RETURN;
+      return result;
+    }
+
+    tailFunc = (UserFunc) func;
+    tailArgs = argValues;
+    tailStart = node.getStart();
+    tailEnd = node.getEnd();
+
+    completion = Completion.RETURN;
+    return Val.VOID;
+  }
+
+  private static Val visitArrayNode(Node _node, Context context) {
     final ArrayNode node = (ArrayNode) _node;
 
     List<Val> values = new ArrayList<Val>();
-    String valType = null;
+    ValType valType = null;
     if(node.getValues() != null) {
       for(Node nVal : node.getValues()) {
-        Val value = res.register(visit(nVal, context));
-        if(res.hasError()) {return res;}
+        Val value = visit(nVal, context);
 
         if(valType == null) {
-          if(value.isType("void")) {
-            return res.failure(voidValue(nVal, context));
-          } else if(!value.isType("null")) {
+          if(value.isType(ValType.VOID)) {
+            throw new Failure(voidValue(nVal, context));
+          } else if(!value.isType(ValType.NULL)) {
             valType = value.getType();
           }
         } else if(!value.isType(valType)) {
-          return res.failure(unexpectedType(valType, value));
+          throw new Failure(unexpectedType(valType.toString(), value, nVal.getStart(), nVal.getEnd(), context));
         }
 
         values.add(value);
       }
     }
 
-    Array arr = new Array(valType, values);
-    arr.setPosition(node.getStart(), node.getEnd());
-    arr.setContext(context);
-
-    return res.success(arr);
+    return new Array(valType, values);
   }
 
-  private static RuntimeResult visitCastNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitCastNode(Node _node, Context context) {
     final CastNode node = (CastNode) _node;
 
-    final String cast = node.getCast().getValue();
-    if(!Val.typeExists(cast)) {
-      return res.failure(new RuntimeError(
-        "Casting",
-        "Type \"" + cast + "\" does not exist.",
-        node.getCast().getStart(), node.getCast().getEnd(), context
-      ));
+    ValType cast = node.getTarget();
+    if(cast == null) {
+      cast = ValType.fromName(node.getCast().getValue());
+
+      if(cast == null) {
+        throw new Failure(new RuntimeError(
+          "Casting",
+          "Type \"" + node.getCast().getValue() + "\" does not exist.",
+          node.getCast().getStart(), node.getCast().getEnd(), context
+        ));
+      }
+      node.setTarget(cast);
     }
 
-    Val oVal = res.register(visit(node.getExpression(), context));
-    if(res.hasError()) {return res;}
+    Val oVal = visit(node.getExpression(), context);
+
+    //Only Numbers, Strings and Booleans cast to their own type, giving back the same value.
+    if(node.isIdentity() && oVal.isType(cast)) {
+      return oVal;
+    }
 
     Val nVal = oVal.castTo(cast);
     if(nVal == null) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "Casting",
         "Cast from " + oVal.getType() + " to " + cast + " failed.",
         node.getStart(), node.getEnd(), context
       ));
     }
 
-    nVal.setPosition(node.getStart(), node.getEnd());
-    nVal.setContext(context);
+    if(nVal == oVal) {
+      node.setIdentity(true);
+    }
 
-    return res.success(nVal);
+    return nVal;
   }
 
-  private static RuntimeResult visitIfNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitIfNode(Node _node, Context context) {
     final IfNode node = (IfNode) _node;
 
-    Val result = null;
     int idx = 0;
     for(; idx < node.getConditions().size(); idx++) {
       Node cond = node.getConditions().get(idx);
-      Val cRes = res.register(visit(cond, context));
-      if(res.hasError()) {return res;}
+      Val cRes = visit(cond, context);
 
-      if(!cRes.isType("Boolean")) {
-        return res.failure(unexpectedType("Boolean", cRes));
+      if(!cRes.isType(ValType.BOOLEAN)) {
+        throw new Failure(unexpectedType("Boolean", cRes, cond.getStart(), cond.getEnd(), context));
       } else if(((Bool) cRes).getValue()) {
         break;
       }
     }
 
+    //The Completion of the branch is left for the statement around it.
     if(idx == node.getConditions().size()) {
-      if(node.getElseCase() != null) {
-        result = res.register(visit(node.getElseCase(), context));
-        if(res.hasError()) {return res;}
-      } else {
-        result = Val.createVoid(node.getStart(), node.getEnd(), context);
+      if(node.getElseCase() == null) {
+        return Val.VOID;
       }
-    } else {
-      result = res.register(visit(node.getExpressions().get(idx), context));
-      if(res.hasError()) {return res;}
+
+      return visit(node.getElseCase(), context);
     }
 
-    return res.success(result);
+    return visit(node.getExpressions().get(idx), context);
   }
 
-  private static RuntimeResult visitWhileNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitWhileNode(Node _node, Context context) {
     final WhileNode node = (WhileNode) _node;
+    final Node cond = node.getCondition();
 
-    Val cVal = res.register(visit(node.getCondition(), context));
-    if(res.hasError()) {return res;}
+    Val cVal = visit(cond, context);
 
-    if(!cVal.isType("Boolean")) {
-      return res.failure(unexpectedType("Boolean", cVal));
+    if(!cVal.isType(ValType.BOOLEAN)) {
+      throw new Failure(unexpectedType("Boolean", cVal, cond.getStart(), cond.getEnd(), context));
     }
 
     boolean il = inLoop;
     inLoop = true;
-    Val result = Val.createVoid(node.getStart(), node.getEnd(), context);
+    Val result = Val.VOID;
 
     while(((Bool) cVal).getValue()) {
-      Val eVal = res.register(visit(node.getExpression(), context));
-      if(res.hasError()) {return res;}
+      Output.poll();
+      Val eVal = visit(node.getExpression(), context);
 
-      if(eVal.getAttribute().equals("returned")) {
+      if(completion == Completion.RETURN) {
         result = eVal;
         break;
-      } else if(eVal.getAttribute().equals("break")) {
+      } else if(completion == Completion.BREAK) {
+        completion = Completion.NORMAL;
         break;
       } else {
-        cVal = res.register(visit(node.getCondition(), context));
-        if(res.hasError()) {return res;}
+        completion = Completion.NORMAL;
+        cVal = visit(cond, context);
 
-        if(!cVal.isType("Boolean")) {
-          return res.failure(unexpectedType("Boolean", cVal));
+        if(!cVal.isType(ValType.BOOLEAN)) {
+          throw new Failure(unexpectedType("Boolean", cVal, cond.getStart(), cond.getEnd(), context));
         }
       }
     }
 
     inLoop = il;
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult visitControlNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitControlNode(Node _node, Context context) {
     final ControlNode node = (ControlNode) _node;
 
     if(!inLoop) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "Illegal Control Call",
         "\"" + node.getType() + "\" can not be called outside of a loop.",
         node.getStart(), node.getEnd(), context
       ));
     }
 
-    Val result = Val.createVoid(node.getStart(), node.getEnd(), context);
-    result.setAttribute(node.getType());
-
-    return res.success(result);
+    completion = node.getType().equals("break") ? Completion.BREAK : Completion.CONTINUE;
+    return Val.VOID;
   }
 
-  private static RuntimeResult visitForNode(Node _node, Context context) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val visitForNode(Node _node, Context context) {
     final ForNode node = (ForNode) _node;
 
     VarAssignNode iter = (VarAssignNode) node.getIterator();
     final String iName = iter.getName().getValue();
 
-    res.register(visit(iter, context));
-    if(res.hasError()) {return res;}
+    visit(iter, context);
+    boolean il = inLoop;
 
-    Symbol iSym = context.getSymbolTable().get(iName);
-    if(!iSym.getValue().isType("Number")) {
-      context.getSymbolTable().remove(iName);
-      return res.failure(unexpectedType("Number", iSym.getValue()));
-    }
+    //Once assigned, the iterator is removed however the loop ends.
+    try {
+      Symbol iSym = context.getSymbolTable().get(iName);
+      if(!iSym.getValue().isType(ValType.NUMBER)) {
+        throw new Failure(unexpectedType("Number", iSym.getValue(), iter.getExpr().getStart(), iter.getExpr().getEnd(), context));
+      }
 
-    Val cond = res.register(visit(node.getCondition(), context));
-    if(res.hasError()) {
-      context.getSymbolTable().remove(iName);
-      return res;
-    } else if(!cond.isType("Boolean")) {
-      context.getSymbolTable().remove(iName);
-      return res.failure(unexpectedType("Boolean", cond));
-    }
-
-    Num step = new Num(1);
-    if(node.getStep() != null) {
-      Val sVal = res.register(visit(node.getStep(), context));
-      if(res.hasError()) {
-        context.getSymbolTable().remove(iName);
-        return res;
-      } else if(!sVal.isType("Number")) {
-        context.getSymbolTable().remove(iName);
-        return res.failure(unexpectedType("Number", sVal));
+      Val cond = visit(node.getCondition(), context);
+      if(!cond.isType(ValType.BOOLEAN)) {
+        throw new Failure(unexpectedType("Boolean", cond, node.getCondition().getStart(), node.getCondition().getEnd(), context));
       }
 
-      step = (Num) sVal;
-    }
+      Num step = Num.valueOf(1);
+      if(node.getStep() != null) {
+        Val sVal = visit(node.getStep(), context);
+        if(!sVal.isType(ValType.NUMBER)) {
+          throw new Failure(unexpectedType("Number", sVal, node.getStep().getStart(), node.getStep().getEnd(), context));
+        }
 
-    Val result = Val.createVoid(node.getStart(), node.getEnd(), context);
-    final VFunc func = Num.getFunction(Type.ADD);
-    while(((Bool) cond).getValue()) {
-      Val eVal = res.register(visit(node.getExpression(), context));
-      if(res.hasError()) {
-        context.getSymbolTable().remove(iName);
-        return res;
+        step = (Num) sVal;
       }
 
-      if(eVal.getAttribute().equals("returned")) {
-        result = eVal;
-        break;
-      } else if(eVal.getAttribute().equals("break")) {
+      inLoop = true;
+      if(node.isCounted()) {
+        return count(node, iName, ((Num) iSym.getValue()).getValue(), step.getValue(), (Bool) cond, context);
+      }
+
+      //The loop counts from its own value, so assignments to the iterator only last one pass.
+      Val result = Val.VOID;
+      Val iVal = iSym.getValue();
+      final VFunc func = Num.getFunction(Type.ADD);
+      while(((Bool) cond).getValue()) {
+        Output.poll();
+        Val eVal = visit(node.getExpression(), context);
+
+        if(completion == Completion.RETURN) {
+          result = eVal;
+          break;
+        } else if(completion == Completion.BREAK) {
+          completion = Completion.NORMAL;
+          break;
+        }
+
+        completion = Completion.NORMAL;
+        iVal = func.run(iVal, step, node.getStart(), node.getEnd(), context);
+        context.getSymbolTable().set(iName, iVal, false);
+
+        cond = visit(node.getCondition(), context);
+      }
+
+      return result;
+    } finally {
+      inLoop = il;
+      context.getSymbolTable().remove(iName);
+    }
+  }
+
+  /*
+   * Runs a loop marked as counting by the Optimizer. The iterator is
+   * kept as a double, and its Symbol is only given a new Num when
+   * something other than the condition may read it.
+   */
+  private static Val count(ForNode node, String iName, double i, double step, Bool cond, Context context) {
+    final SymbolTable table = context.getSymbolTable();
+    final int slot = table.slotOf(iName);
+    final BinOpNode cNode = (BinOpNode) node.getCondition();
+    final Node rNode = cNode.getRightNode();
+    final Type op = cNode.getOp().getType();
+    final boolean read = node.isIteratorRead();
+
+    boolean going = cond.getValue();
+    while(going) {
+      Output.poll();
+      Val eVal = visit(node.getExpression(), context);
+
+      if(completion == Completion.RETURN) {
+        return eVal;
+      } else if(completion == Completion.BREAK) {
+        completion = Completion.NORMAL;
         break;
       }
 
-      Val nIVal = res.register(func.run(iSym.getValue(), step));
-      if(res.hasError()) {
-        context.getSymbolTable().remove(iName);
-        return res;
+      completion = Completion.NORMAL;
+      i += step;
+      if(read) {
+        table.setSlot(slot, Num.valueOf(i), false);
       }
 
-      context.getSymbolTable().set(iName, nIVal, false);
-      iSym = context.getSymbolTable().get(iName);
+      Val rVal = visit(rNode, context);
+      if(!rVal.isType(ValType.NUMBER)) {
+        VFunc func = Num.getFunction(op);
+        going = ((Bool) func.run(Num.valueOf(i), rVal, rNode.getStart(), rNode.getEnd(), context)).getValue();
+        continue;
+      }
 
-      cond = res.register(visit(node.getCondition(), context));
-      if(res.hasError()) {
-        context.getSymbolTable().remove(iName);
-        return res;
+      double r = ((Num) rVal).getValue();
+      switch(op) {
+        case LT: going = i < r; break;
+        case GT: going = i > r; break;
+        case LTE: going = i <= r; break;
+        case GTE: going = i >= r; break;
+        case EE: going = i == r; break;
+        default: going = i != r; break;
       }
     }
 
-    context.getSymbolTable().remove(iName);
-    return res.success(result);
+    return Val.VOID;
   }
 }
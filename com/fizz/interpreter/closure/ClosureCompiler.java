@@ -0,0 +1,678 @@
+package com.fizz.interpreter.closure;
+
+import static com.fizz.util.error.RuntimeError.*;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.fizz.lexer.token.*;
+import com.fizz.parser.node.*;
+import com.fizz.interpreter.value.*;
+import com.fizz.resolver.Address;
+import com.fizz.resolver.Ref;
+import com.fizz.resolver.Scope;
+import com.fizz.util.Output;
+import com.fizz.util.Position;
+import com.fizz.util.context.*;
+import com.fizz.util.result.Completion;
+import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.function.CFunc;
+import com.fizz.util.function.EFunc;
+import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
+import com.fizz.util.error.RuntimeError;
+
+/**
+ * Converts the Abstract Syntax Tree into a tree of closures once, so
+ * executing a Node needs no lookup of how to run it. Every closure
+ * behaves like its matching visit method in the
+ * {@link com.fizz.interpreter.Interpreter}, except that names are found
+ * through the Addresses given by the {@link com.fizz.resolver.Resolver}.
+ * @author Noah James Rathman
+ */
+public final class ClosureCompiler {
+  private static Map<String, CFunc> FUNCTIONS;
+  private static int loopDepth = 0;
+  private static boolean inFunc = false;
+  private static SymbolTable globals;
+
+  //ClosureCompiler should never be instanced.
+  private ClosureCompiler() {}
+
+  /**
+   * Initializes the ClosureCompiler by putting all compile methods
+   * into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, CFunc>();
+
+    FUNCTIONS.put("ValueNode",          ClosureCompiler::compileValueNode);
+    FUNCTIONS.put("ConstNode",          ClosureCompiler::compileConstNode);
+    FUNCTIONS.put("UnaryOpNode",        ClosureCompiler::compileUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          ClosureCompiler::compileBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      ClosureCompiler::compileVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      ClosureCompiler::compileVarAssignNode);
+    FUNCTIONS.put("CallNode",           ClosureCompiler::compileCallNode);
+    FUNCTIONS.put("FuncDefNode",        ClosureCompiler::compileFuncDefNode);
+    FUNCTIONS.put("StatementNode",      ClosureCompiler::compileStatementNode);
+    FUNCTIONS.put("ReturnNode",         ClosureCompiler::compileReturnNode);
+    FUNCTIONS.put("ArrayNode",          ClosureCompiler::compileArrayNode);
+    FUNCTIONS.put("CastNode",           ClosureCompiler::compileCastNode);
+    FUNCTIONS.put("IfNode",             ClosureCompiler::compileIfNode);
+    FUNCTIONS.put("WhileNode",          ClosureCompiler::compileWhileNode);
+    FUNCTIONS.put("ControlNode",        ClosureCompiler::compileControlNode);
+    FUNCTIONS.put("ForNode",            ClosureCompiler::compileForNode);
+  }
+
+  /**
+   * Compiles the passed resolved Abstract Syntax Tree into a closure
+   * which can be run with a program's base Frame.
+   * @param node Root Node of the tree
+   * @param _globals SymbolTable of the program the tree will run in
+   * @return Compiled tree
+   */
+  public static EFunc compileProgram(Node node, SymbolTable _globals) {
+    loopDepth = 0;
+    inFunc = false;
+    globals = _globals;
+
+    return compile(node);
+  }
+
+  /**
+   * Runs a program compiled by {@link #compileProgram}. Closures return
+   * their values directly and leave through a Failure when they run into
+   * an Error, which is only caught here.
+   * @param program Compiled program
+   * @param frame Base Frame of the program
+   * @return Result of the program
+   */
+  public static RuntimeResult run(EFunc program, Frame frame) {
+    RuntimeResult res = new RuntimeResult();
+
+    try {
+      return res.success(program.run(frame));
+    } catch(Failure f) {
+      return res.failure(f.getError());
+    } finally {
+      ClosureFunc.clearTailCall();
+    }
+  }
+
+  /**
+   * Compiles the passed Node and all of its children.
+   * @param node Node to be compiled
+   * @return Compiled Node
+   */
+  public static EFunc compile(Node node) {
+    final String className = node.getClass().getSimpleName();
+
+    CFunc func = FUNCTIONS.get(className);
+    if(func != null) {
+      return func.run(node);
+    }
+
+    return fail(
+      "Node Visit",
+      "No visit method defined for \"" + className + "\".",
+      node.getStart(), node.getEnd()
+    );
+  }
+
+  private static EFunc[] compileAll(List<Node> nodes) {
+    EFunc[] funcs = new EFunc[nodes.size()];
+
+    for(int i = 0; i < funcs.length; i++) {
+      funcs[i] = compile(nodes.get(i));
+    }
+
+    return funcs;
+  }
+
+  private static EFunc fail(String name, String details, Position start, Position end) {
+    return frame -> {
+      throw new Failure(new RuntimeError(name, details, start, end, frame.getContext()));
+    };
+  }
+
+  private static Ref ref(Address address) {
+    return new Ref(address, globals);
+  }
+
+  private static EFunc compileValueNode(Node _node) {
+    final ValueNode node = (ValueNode) _node;
+
+    //Values never change, so each literal is only ever created once.
+    final Val result;
+    if(node.getValue().isType(Type.STR)) {
+      result = new Str(node.getValue().getValue());
+    } else {
+      result = Num.valueOf(Double.parseDouble(node.getValue().getValue()));
+    }
+
+    return frame -> result;
+  }
+
+  private static EFunc compileConstNode(Node _node) {
+    final Val result = ((ConstNode) _node).getValue();
+    return frame -> result;
+  }
+
+  private static EFunc compileUnaryOpNode(Node _node) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+    final EFunc operand = compile(node.getNode());
+    final Token op = node.getOp();
+    final VFunc mul = Num.getFunction(Type.MUL);
+    final Position start = node.getStart(), end = node.getEnd();
+    final Position oStart = node.getNode().getStart(), oEnd = node.getNode().getEnd();
+
+    return frame -> {
+      Val value = operand.run(frame);
+
+      if(value instanceof Num) {
+        if(!op.isType(Type.SUB)) {
+          throw new Failure(unexpectedOperation("Number", op, frame.getContext()));
+        }
+
+        return mul.run(value, Num.valueOf(-1), start, end, frame.getContext());
+      } else if(value instanceof Bool) {
+        return ((Bool) value).not();
+      }
+
+      throw new Failure(illegalOperation("unary", value, oStart, oEnd, frame.getContext()));
+    };
+  }
+
+  private static EFunc compileBinOpNode(Node _node) {
+    final BinOpNode node = (BinOpNode) _node;
+    final EFunc left = compile(node.getLeftNode());
+    final EFunc right = compile(node.getRightNode());
+    final Token op = node.getOp();
+    final Position lStart = node.getLeftNode().getStart(), lEnd = node.getLeftNode().getEnd();
+    final Position rStart = node.getRightNode().getStart(), rEnd = node.getRightNode().getEnd();
+
+    //Operations are linked now, instead of being looked up per visit.
+    final VFunc numFunc = Num.getFunction(op.getType());
+    final VFunc strFunc = Str.getFunction(op.getType());
+    final VFunc boolFunc = Bool.getFunction(op.getType());
+    final VFunc arrFunc = Array.getFunction(op.getType());
+
+    return frame -> {
+      Val lVal = left.run(frame);
+      Val rVal = right.run(frame);
+
+      VFunc func = null;
+      if(lVal instanceof Num) {
+        func = numFunc;
+      } else if(lVal instanceof Str) {
+        func = strFunc;
+      } else if(lVal instanceof Bool) {
+        func = boolFunc;
+      } else if(lVal instanceof Array) {
+        func = arrFunc;
+      } else {
+        throw new Failure(illegalOperation("binary", lVal, lStart, lEnd, frame.getContext()));
+      }
+
+      if(func == null) {
+        throw new Failure(unexpectedOperation(lVal.getType().toString(), op, frame.getContext()));
+      }
+
+      return func.run(lVal, rVal, rStart, rEnd, frame.getContext());
+    };
+  }
+
+  private static EFunc compileVarAccessNode(Node _node) {
+    final VarAccessNode node = (VarAccessNode) _node;
+    final Token name = node.getName();
+    final Ref ref = ref(node.getAddress());
+
+    return frame -> {
+      Val symVal = ref.get(frame);
+      if(symVal == null) {
+        throw new Failure(undefinedSymbol(name.getValue(), name, frame.getContext()));
+      }
+
+      return symVal;
+    };
+  }
+
+  private static EFunc compileVarAssignNode(Node _node) {
+    final VarAssignNode node = (VarAssignNode) _node;
+    final String symID = node.getName().getValue();
+    final Address address = node.getAddress();
+    final Ref ref = ref(address);
+    final boolean reassign = node.getType() == 1;
+    final boolean constant = node.isConstant();
+    final EFunc expr = compile(node.getExpr());
+
+    //A program constant that already exists can never be assigned again.
+    if(!ref.isLocal() && address.isFixed()) {
+      return frame -> {
+        throw new Failure(illegalAssign(symID, node, frame.getContext()));
+      };
+    }
+
+    //Only names that may be constant somewhere need to be checked,
+    //which inside of a function includes the constants of its callers.
+    final boolean checked = address.mayBeConstant() || ref.isLocal();
+
+    return frame -> {
+      if(reassign && ref.get(frame) == null) {
+        throw new Failure(undefinedSymbol(symID, node.getName(), frame.getContext()));
+      }
+
+      if(checked && ref.isConstant(frame)) {
+        throw new Failure(illegalAssign(symID, node, frame.getContext()));
+      }
+
+      Val symVal = expr.run(frame);
+
+      if(symVal.isType(ValType.VOID)) {
+        throw new Failure(voidValue(node, frame.getContext()));
+      }
+
+      ref.set(frame, symVal, constant);
+      return Val.VOID;
+    };
+  }
+
+  private static EFunc compileCallNode(Node _node) {
+    final CallNode node = (CallNode) _node;
+    final Token name = node.getName();
+    final Ref ref = ref(node.getAddress());
+    final Node[] argNodes = node.getArgValues().toArray(new Node[0]);
+    final EFunc[] args = compileAll(node.getArgValues());
+    final Position start = node.getStart(), end = node.getEnd();
+
+    return frame -> {
+      BaseFunc func = callee(ref, name, start, end, frame);
+      Val[] argValues = arguments(args, argNodes, frame);
+
+      return call(func, argValues, start, end, frame);
+    };
+  }
+
+  /*
+   * Compiles a call returned by a function. A ClosureFunc called this way
+   * is left to be run by the function which returns it, in place of that
+   * function's own call.
+   */
+  private static EFunc compileTailCall(CallNode node) {
+    final Token name = node.getName();
+    final Ref ref = ref(node.getAddress());
+    final Node[] argNodes = node.getArgValues().toArray(new Node[0]);
+    final EFunc[] args = compileAll(node.getArgValues());
+    final Position start = node.getStart(), end = node.getEnd();
+
+    return frame -> {
+      BaseFunc func = callee(ref, name, start, end, frame);
+      Val[] argValues = arguments(args, argNodes, frame);
+
+      if(func instanceof ClosureFunc) {
+        ClosureFunc.setTailCall((ClosureFunc) func, argValues, start, end);
+        frame.setCompletion(Completion.RETURN);
+        return Val.VOID;
+      }
+
+      Val result = call(func, argValues, start, end, frame);
+      frame.setCompletion(Completion.RETURN);
+      return result;
+    };
+  }
+
+  private static BaseFunc callee(Ref ref, Token name, Position start, Position end, Frame frame) {
+    Val sVal = ref.get(frame);
+    if(sVal == null) {
+      throw new Failure(undefinedSymbol(name.getValue(), name, frame.getContext()));
+    }
+
+    if(!(sVal instanceof BaseFunc)) {
+      throw new Failure(new RuntimeError(
+        "Symbol Access",
+        "\"" + name.getValue() + "\" is not a Function.",
+        start, end, frame.getContext()
+      ));
+    }
+
+    return (BaseFunc) sVal;
+  }
+
+  private static Val[] arguments(EFunc[] args, Node[] argNodes, Frame frame) {
+    Val[] argValues = new Val[args.length];
+
+    for(int i = 0; i < args.length; i++) {
+      Val argValue = args[i].run(frame);
+
+      if(argValue.isType(ValType.VOID)) {
+        throw new Failure(voidValue(argNodes[i], frame.getContext()));
+      }
+      argValues[i] = argValue;
+    }
+
+    return argValues;
+  }
+
+  private static Val call(BaseFunc func, Val[] argValues, Position start, Position end, Frame frame) {
+    if(func instanceof ClosureFunc) {
+      return ((ClosureFunc) func).call(argValues, frame, start, end);
+    } else if(func instanceof SysFunc) {
+      return ((SysFunc) func).call(argValues, start, end, frame.getContext());
+    }
+
+    return func.execute(Arrays.asList(argValues), start, end, frame.getContext());
+  }
+
+  private static EFunc compileFuncDefNode(Node _node) {
+    final FuncDefNode node = (FuncDefNode) _node;
+    final String id = node.getName();
+    final List<String> argNames = node.getArgNames();
+    final Node statement = node.getStatement();
+    final Scope scope = node.getScope();
+    final Address address = node.getAddress();
+    final Ref ref = ref(address);
+
+    final String[] names = scope.getNames();
+    final boolean trackConstants = scope.hasConstants();
+    final int[] argSlots = new int[argNames.size()];
+    for(int i = 0; i < argSlots.length; i++) {
+      argSlots[i] = scope.getSlot(argNames.get(i));
+    }
+
+    int ld = loopDepth;
+    boolean inf = inFunc;
+    loopDepth = 0;
+    inFunc = true;
+    final EFunc body = compile(statement);
+    loopDepth = ld;
+    inFunc = inf;
+
+    if(!ref.isLocal() && address.isFixed()) {
+      return frame -> {
+        throw new Failure(illegalAssign(id, node, frame.getContext()));
+      };
+    }
+
+    return frame -> {
+      if(ref.isTargetConstant(frame)) {
+        throw new Failure(illegalAssign(id, node, frame.getContext()));
+      }
+
+      ClosureFunc func = new ClosureFunc(
+        id, argNames, statement, body,
+        names, argSlots, trackConstants, globals
+      );
+      ref.set(frame, func, true);
+
+      return Val.NULL;
+    };
+  }
+
+  private static EFunc compileStatementNode(Node _node) {
+    final StatementNode node = (StatementNode) _node;
+    final EFunc[] statements = compileAll(node.getStatements());
+
+    return frame -> {
+      for(EFunc statement : statements) {
+        Val value = statement.run(frame);
+
+        if(frame.getCompletion() != Completion.NORMAL) {
+          return value;
+        }
+      }
+
+      return Val.VOID;
+    };
+  }
+
+  private static EFunc compileReturnNode(Node _node) {
+    final ReturnNode node = (ReturnNode) _node;
+
+    if(!inFunc) {
+      return fail(
+        "Illegal Return",
+        "\"return\" can not be called outside of a function.",
+        node.getStart(), node.getEnd()
+      );
+    }
+
+    if(node.isTailCall()) {
+      return compileTailCall((CallNode) node.getExpression());
+    }
+
+    final EFunc expr = compile(node.getExpression());
+    return frame -> {
+      Val result = expr.run(frame);
+
+      frame.setCompletion(Completion.RETURN);
+      return result;
+    };
+  }
+
+  private static EFunc compileArrayNode(Node _node) {
+    final ArrayNode node = (ArrayNode) _node;
+    final Node[] valNodes = node.getValues() != null ? node.getValues().toArray(new Node[0]) : new Node[0];
+    final EFunc[] vals = node.getValues() != null ? compileAll(node.getValues()) : new EFunc[0];
+
+    return frame -> {
+      List<Val> values = new ArrayList<Val>(vals.length);
+      ValType valType = null;
+      for(int i = 0; i < vals.length; i++) {
+        Val value = vals[i].run(frame);
+
+        if(valType == null) {
+          if(value.isType(ValType.VOID)) {
+            throw new Failure(voidValue(valNodes[i], frame.getContext()));
+          } else if(!value.isType(ValType.NULL)) {
+            valType = value.getType();
+          }
+        } else if(!value.isType(valType)) {
+          throw new Failure(unexpectedType(valType.toString(), value, valNodes[i].getStart(), valNodes[i].getEnd(), frame.getContext()));
+        }
+
+        values.add(value);
+      }
+
+      return new Array(valType, values);
+    };
+  }
+
+  private static EFunc compileCastNode(Node _node) {
+    final CastNode node = (CastNode) _node;
+    final ValType cast = ValType.fromName(node.getCast().getValue());
+
+    if(cast == null) {
+      return fail(
+        "Casting",
+        "Type \"" + node.getCast().getValue() + "\" does not exist.",
+        node.getCast().getStart(), node.getCast().getEnd()
+      );
+    }
+
+    final EFunc expr = compile(node.getExpression());
+    final Position start = node.getStart(), end = node.getEnd();
+
+    return frame -> {
+      Val oVal = expr.run(frame);
+
+      Val nVal = oVal.castTo(cast);
+      if(nVal == null) {
+        throw new Failure(new RuntimeError(
+          "Casting",
+          "Cast from " + oVal.getType() + " to " + cast + " failed.",
+          start, end, frame.getContext()
+        ));
+      }
+
+      return nVal;
+    };
+  }
+
+  private static EFunc compileIfNode(Node _node) {
+    final IfNode node = (IfNode) _node;
+    final Node[] condNodes = node.getConditions().toArray(new Node[0]);
+    final EFunc[] conds = compileAll(node.getConditions());
+    final EFunc[] exprs = compileAll(node.getExpressions());
+    final EFunc elseCase = node.getElseCase() != null ? compile(node.getElseCase()) : null;
+
+    return frame -> {
+      for(int idx = 0; idx < conds.length; idx++) {
+        Val cRes = conds[idx].run(frame);
+
+        if(!(cRes instanceof Bool)) {
+          throw new Failure(unexpectedType("Boolean", cRes, condNodes[idx].getStart(), condNodes[idx].getEnd(), frame.getContext()));
+        } else if(((Bool) cRes).getValue()) {
+          return exprs[idx].run(frame);
+        }
+      }
+
+      if(elseCase != null) {
+        return elseCase.run(frame);
+      }
+
+      return Val.VOID;
+    };
+  }
+
+  private static EFunc compileWhileNode(Node _node) {
+    final WhileNode node = (WhileNode) _node;
+    final EFunc cond = compile(node.getCondition());
+    final Position cStart = node.getCondition().getStart(), cEnd = node.getCondition().getEnd();
+
+    loopDepth++;
+    final EFunc expr = compile(node.getExpression());
+    loopDepth--;
+
+    return frame -> {
+      Val cVal = cond.run(frame);
+
+      if(!(cVal instanceof Bool)) {
+        throw new Failure(unexpectedType("Boolean", cVal, cStart, cEnd, frame.getContext()));
+      }
+
+      while(((Bool) cVal).getValue()) {
+        Output.poll();
+        Val eVal = expr.run(frame);
+
+        Completion completion = frame.getCompletion();
+        if(completion == Completion.RETURN) {
+          return eVal;
+        }
+
+        frame.setCompletion(Completion.NORMAL);
+        if(completion == Completion.BREAK) {
+          break;
+        }
+
+        cVal = cond.run(frame);
+
+        if(!(cVal instanceof Bool)) {
+          throw new Failure(unexpectedType("Boolean", cVal, cStart, cEnd, frame.getContext()));
+        }
+      }
+
+      return Val.VOID;
+    };
+  }
+
+  private static EFunc compileControlNode(Node _node) {
+    final ControlNode node = (ControlNode) _node;
+    final String type = node.getType();
+    final Position start = node.getStart(), end = node.getEnd();
+
+    if(loopDepth == 0) {
+      return fail(
+        "Illegal Control Call",
+        "\"" + type + "\" can not be called outside of a loop.",
+        start, end
+      );
+    }
+
+    final Completion completion = type.equals("break") ? Completion.BREAK : Completion.CONTINUE;
+    return frame -> {
+      frame.setCompletion(completion);
+      return Val.VOID;
+    };
+  }
+
+  private static EFunc compileForNode(Node _node) {
+    final ForNode node = (ForNode) _node;
+    final Ref iRef = ref(((VarAssignNode) node.getIterator()).getAddress());
+    final EFunc iter = compile(node.getIterator());
+    final EFunc cond = compile(node.getCondition());
+    final EFunc step = node.getStep() != null ? compile(node.getStep()) : null;
+    final VFunc add = Num.getFunction(Type.ADD);
+    final Node iNode = ((VarAssignNode) node.getIterator()).getExpr();
+    final Node cNode = node.getCondition(), sNode = node.getStep();
+    final Position start = node.getStart(), end = node.getEnd();
+
+    loopDepth++;
+    final EFunc expr = compile(node.getExpression());
+    loopDepth--;
+
+    final EFunc loop = frame -> {
+      iter.run(frame);
+
+      Val iVal = iRef.get(frame);
+      if(!(iVal instanceof Num)) {
+        throw new Failure(unexpectedType("Number", iVal, iNode.getStart(), iNode.getEnd(), frame.getContext()));
+      }
+
+      Val cVal = cond.run(frame);
+
+      if(!(cVal instanceof Bool)) {
+        throw new Failure(unexpectedType("Boolean", cVal, cNode.getStart(), cNode.getEnd(), frame.getContext()));
+      }
+
+      Num sVal = Num.valueOf(1);
+      if(step != null) {
+        Val value = step.run(frame);
+
+        if(!(value instanceof Num)) {
+          throw new Failure(unexpectedType("Number", value, sNode.getStart(), sNode.getEnd(), frame.getContext()));
+        }
+
+        sVal = (Num) value;
+      }
+
+      //The loop counts from its own value, so assignments to the iterator only last one pass.
+      while(((Bool) cVal).getValue()) {
+        Output.poll();
+        Val eVal = expr.run(frame);
+
+        Completion completion = frame.getCompletion();
+        if(completion == Completion.RETURN) {
+          return eVal;
+        }
+
+        frame.setCompletion(Completion.NORMAL);
+        if(completion == Completion.BREAK) {
+          break;
+        }
+
+        iVal = add.run(iVal, sVal, start, end, frame.getContext());
+        iRef.set(frame, iVal, false);
+
+        cVal = cond.run(frame);
+
+        if(!(cVal instanceof Bool)) {
+          throw new Failure(unexpectedType("Boolean", cVal, cNode.getStart(), cNode.getEnd(), frame.getContext()));
+        }
+      }
+
+      return Val.VOID;
+    };
+
+    //The iterator never outlives the loop, even when it fails.
+    return frame -> {
+      try {
+        return loop.run(frame);
+      } finally {
+        iRef.clear(frame);
+      }
+    };
+  }
+}
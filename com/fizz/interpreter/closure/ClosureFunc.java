@@ -0,0 +1,166 @@
+package com.fizz.interpreter.closure;
+
+import java.util.List;
+
+import com.fizz.interpreter.value.*;
+import com.fizz.parser.node.Node;
+import com.fizz.util.Output;
+import com.fizz.util.Position;
+import com.fizz.util.context.*;
+import com.fizz.util.result.Completion;
+import com.fizz.util.function.EFunc;
+import com.fizz.util.error.Failure;
+import com.fizz.util.error.RuntimeError;
+
+/**
+ * A UserFunc whose statement has been compiled by the
+ * {@link ClosureCompiler}. Its arguments and variables are kept
+ * in the slots of a {@link Frame} instead of a SymbolTable.
+ * @author Noah James Rathman
+ */
+public class ClosureFunc extends UserFunc {
+  //Call in tail position left to be run once the current function ends.
+  private static ClosureFunc tailFunc;
+  private static Val[] tailArgs;
+  private static Position tailStart, tailEnd;
+
+  /**
+   * Leaves the passed call to be run by the function currently running,
+   * in place of its own call, once its statement ends.
+   * @param func Called function
+   * @param argValues Values of arguments
+   * @param start Start of call
+   * @param end End of call
+   */
+  static void setTailCall(ClosureFunc func, Val[] argValues, Position start, Position end) {
+    tailFunc = func;
+    tailArgs = argValues;
+    tailStart = start;
+    tailEnd = end;
+  }
+
+  /**
+   * Drops any call left by {@link #setTailCall}.
+   */
+  static void clearTailCall() {
+    tailFunc = null;
+    tailArgs = null;
+  }
+
+  //Class
+  private EFunc body;
+  private String[] names;
+  private int[] argSlots;
+  private boolean trackConstants;
+  private SymbolTable globals;
+
+  /**
+   * Creates a new ClosureFunc.
+   * @param name Name of function
+   * @param argNames Names of function arguments
+   * @param statement Statement of function
+   * @param body Compiled statement of function
+   * @param names Names of every slot in the function's Frames
+   * @param argSlots Slots of each argument
+   * @param trackConstants Determines if Frames need to track constants
+   * @param globals SymbolTable of the program
+   */
+  public ClosureFunc(String name, List<String> argNames, Node statement, EFunc body,
+      String[] names, int[] argSlots, boolean trackConstants, SymbolTable globals) {
+    super(name, argNames, statement);
+    this.body = body;
+    this.names = names;
+    this.argSlots = argSlots;
+    this.trackConstants = trackConstants;
+    this.globals = globals;
+  }
+
+  /**
+   * Calls this function from compiled code.
+   * @param argValues Values to be assigned
+   * @param caller Frame of the call
+   * @param start Start of call
+   * @param end End of call
+   * @return Returned value, or void if the function returns nothing
+   * @throws Failure If the function runs into an Error
+   */
+  public Val call(Val[] argValues, Frame caller, Position start, Position end) {
+    if(argSlots.length != argValues.length) {
+      throw new Failure(RuntimeError.argumentSize(
+        argSlots.length, argValues.length, start, end, caller.getContext()
+      ));
+    }
+
+    Context fContext = new Context(this, globals, caller.getContext(), start);
+    if(fContext.isTooDeep()) {
+      throw new Failure(RuntimeError.callDepth(Context.getMaxDepth(), start, end, caller.getContext()));
+    }
+
+    Frame frame = new Frame(names, trackConstants, caller, fContext);
+    ClosureFunc func = this;
+
+    for(int i = 0; i < argSlots.length; i++) {
+      frame.set(argSlots[i], argValues[i], false);
+    }
+
+    while(true) {
+      //Calls and loops are where held output is flushed once it's been held too long.
+      Output.poll();
+
+      //Programs run with room for the maximum depth, so this only catches deeply nested expressions.
+      Val result;
+      try {
+        result = func.body.run(frame);
+      } catch(StackOverflowError e) {
+        throw new Failure(RuntimeError.stackSpace(start, end, caller.getContext()));
+      }
+
+      if(tailFunc == null) {
+        return frame.getCompletion() == Completion.RETURN ? result : Val.VOID;
+      }
+
+      ClosureFunc next = tailFunc;
+      Val[] nextArgs = tailArgs;
+      clearTailCall();
+
+      //Constants of this function could keep the called function from assigning its own names.
+      if(func.trackConstants) {
+        return next.call(nextArgs, frame, tailStart, tailEnd);
+      }
+
+      frame = next.replace(func, frame, nextArgs, tailStart, tailEnd);
+      func = next;
+    }
+  }
+
+  /*
+   * Returns the Frame a call in tail position runs in. A function calling
+   * itself keeps its Frame and Context. Otherwise a new Frame still sees
+   * the values of the one it replaces, while its Context takes the place
+   * of the replaced one.
+   */
+  private Frame replace(ClosureFunc current, Frame frame, Val[] argValues, Position start, Position end) {
+    Context context = frame.getContext();
+
+    if(argSlots.length != argValues.length) {
+      throw new Failure(RuntimeError.argumentSize(argSlots.length, argValues.length, start, end, context));
+    }
+
+    Frame next;
+    if(this == current) {
+      context.countTailCalls(1);
+      next = frame;
+    } else {
+      Context nContext = new Context(this, globals, context.getParent(), start);
+      nContext.countTailCalls(context.getTailCalls() + 1);
+      next = new Frame(names, trackConstants, frame, nContext);
+    }
+
+    for(int i = 0; i < argSlots.length; i++) {
+      next.set(argSlots[i], argValues[i], false);
+    }
+    next.setCompletion(Completion.NORMAL);
+
+    return next;
+  }
+}
@@ -0,0 +1,181 @@
+package com.fizz.interpreter.jit;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes a class file holding the methods of one compiled function.
+ * Classes are written with version 49, which the JVM verifies without
+ * stack map frames, so {@link Code} only needs to track stack depth.
+ * @author Noah James Rathman
+ */
+final class ClassWriter {
+  private static final int VERSION = 49;
+
+  private String name, superName;
+  private ByteArrayOutputStream pool, methods;
+  private DataOutputStream poolOut, methodsOut;
+  private Map<String, Integer> entries;
+  private int poolCount, methodCount;
+
+  /**
+   * Creates a new ClassWriter for a public final class.
+   * @param name Internal name of class
+   * @param superName Internal name of superclass
+   */
+  ClassWriter(String name, String superName) {
+    this.name = name;
+    this.superName = superName;
+
+    pool = new ByteArrayOutputStream();
+    methods = new ByteArrayOutputStream();
+    poolOut = new DataOutputStream(pool);
+    methodsOut = new DataOutputStream(methods);
+    entries = new HashMap<String, Integer>();
+    poolCount = 1;
+  }
+
+  private int entry(String key, int tag, int size, Object... parts) {
+    Integer idx = entries.get(key);
+    if(idx != null) {return idx;}
+
+    try {
+      poolOut.writeByte(tag);
+      for(Object part : parts) {
+        if(part instanceof String) {
+          poolOut.writeUTF((String) part);
+        } else if(part instanceof Long) {
+          poolOut.writeLong((Long) part);
+        } else {
+          poolOut.writeShort((Integer) part);
+        }
+      }
+    } catch(IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    idx = poolCount;
+    poolCount += size;
+    entries.put(key, idx);
+
+    return idx;
+  }
+
+  /**
+   * Returns the constant pool index of the passed text.
+   * @param text Text of entry
+   * @return Constant pool index
+   */
+  int utf8(String text) {
+    return entry("U" + text, 1, 1, text);
+  }
+
+  /**
+   * Returns the constant pool index of the passed class.
+   * @param cName Internal name of class
+   * @return Constant pool index
+   */
+  int type(String cName) {
+    return entry("C" + cName, 7, 1, utf8(cName));
+  }
+
+  /**
+   * Returns the constant pool index of the passed double.
+   * @param value Value of double
+   * @return Constant pool index
+   */
+  int number(double value) {
+    long bits = Double.doubleToRawLongBits(value);
+    return entry("D" + bits, 6, 2, bits);
+  }
+
+  private int nameAndType(String mName, String desc) {
+    return entry("N" + mName + ":" + desc, 12, 1, utf8(mName), utf8(desc));
+  }
+
+  /**
+   * Returns the constant pool index of the passed method.
+   * @param owner Internal name of owning class
+   * @param mName Name of method
+   * @param desc Descriptor of method
+   * @return Constant pool index
+   */
+  int method(String owner, String mName, String desc) {
+    return entry("M" + owner + "." + mName + desc, 10, 1, type(owner), nameAndType(mName, desc));
+  }
+
+  /**
+   * Returns the constant pool index of the passed field.
+   * @param owner Internal name of owning class
+   * @param fName Name of field
+   * @param desc Descriptor of field
+   * @return Constant pool index
+   */
+  int field(String owner, String fName, String desc) {
+    return entry("F" + owner + "." + fName + desc, 9, 1, type(owner), nameAndType(fName, desc));
+  }
+
+  /**
+   * Adds a method to the class.
+   * @param access Access flags of method
+   * @param mName Name of method
+   * @param desc Descriptor of method
+   * @param code Body of method
+   */
+  void addMethod(int access, String mName, String desc, Code code) {
+    byte[] body = code.toBytes();
+
+    try {
+      methodsOut.writeShort(access);
+      methodsOut.writeShort(utf8(mName));
+      methodsOut.writeShort(utf8(desc));
+      methodsOut.writeShort(1);
+
+      methodsOut.writeShort(utf8("Code"));
+      methodsOut.writeInt(12 + body.length);
+      methodsOut.writeShort(code.getMaxStack());
+      methodsOut.writeShort(code.getMaxLocals());
+      methodsOut.writeInt(body.length);
+      methodsOut.write(body);
+      methodsOut.writeShort(0);
+      methodsOut.writeShort(0);
+    } catch(IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    methodCount++;
+  }
+
+  /**
+   * Returns the finished class file.
+   * @return Bytes of class file
+   */
+  byte[] toBytes() {
+    int thisIdx = type(name), superIdx = type(superName);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(out);
+
+    try {
+      data.writeInt(0xCAFEBABE);
+      data.writeShort(0);
+      data.writeShort(VERSION);
+      data.writeShort(poolCount);
+      data.write(pool.toByteArray());
+      data.writeShort(0x0001 | 0x0010 | 0x0020);
+      data.writeShort(thisIdx);
+      data.writeShort(superIdx);
+      data.writeShort(0);
+      data.writeShort(0);
+      data.writeShort(methodCount);
+      data.write(methods.toByteArray());
+      data.writeShort(0);
+    } catch(IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    return out.toByteArray();
+  }
+}
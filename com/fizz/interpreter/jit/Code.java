@@ -0,0 +1,177 @@
+package com.fizz.interpreter.jit;
+
+import java.util.Arrays;
+
+/**
+ * Holds the JVM instructions of a single method while it's being written,
+ * keeping track of how deep its operand stack gets.
+ * @author Noah James Rathman
+ */
+final class Code {
+  static final int ICONST_0 = 0x03, ICONST_1 = 0x04, DCONST_0 = 0x0e, BIPUSH = 0x10, LDC2_W = 0x14;
+  static final int ILOAD = 0x15, DLOAD = 0x18, ALOAD = 0x19, DALOAD = 0x31;
+  static final int ISTORE = 0x36, DSTORE = 0x39;
+  static final int POP = 0x57, POP2 = 0x58, DUP2 = 0x5c;
+  static final int DADD = 0x63, DSUB = 0x67, DMUL = 0x6b, DDIV = 0x6f;
+  static final int IAND = 0x7e, IOR = 0x80, IXOR = 0x82, I2D = 0x87;
+  static final int DCMPL = 0x97, DCMPG = 0x98;
+  static final int IFEQ = 0x99, IFNE = 0x9a, IFLT = 0x9b, IFGE = 0x9c, IFGT = 0x9d, IFLE = 0x9e;
+  static final int IF_ICMPEQ = 0x9f, IF_ICMPNE = 0xa0, GOTO = 0xa7;
+  static final int IRETURN = 0xac, DRETURN = 0xaf, RETURN = 0xb1;
+  static final int GETSTATIC = 0xb2, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, ATHROW = 0xbf;
+
+  private byte[] bytes;
+  private int size;
+  private int depth, maxStack, maxLocals;
+
+  /**
+   * Creates a new empty Code.
+   * @param locals Number of local slots taken by the method's arguments
+   */
+  Code(int locals) {
+    bytes = new byte[64];
+    maxLocals = locals;
+  }
+
+  private void put(int b) {
+    if(size == bytes.length) {
+      bytes = Arrays.copyOf(bytes, size * 2);
+    }
+
+    bytes[size++] = (byte) b;
+  }
+
+  private void stack(int effect) {
+    depth += effect;
+    if(depth > maxStack) {
+      maxStack = depth;
+    }
+  }
+
+  /**
+   * Appends an instruction without operands.
+   * @param op Instruction
+   * @param effect Change in stack depth
+   */
+  void op(int op, int effect) {
+    put(op);
+    stack(effect);
+  }
+
+  /**
+   * Appends an instruction with a one byte operand.
+   * @param op Instruction
+   * @param arg Operand
+   * @param effect Change in stack depth
+   */
+  void op1(int op, int arg, int effect) {
+    put(op);
+    put(arg);
+    stack(effect);
+  }
+
+  /**
+   * Appends an instruction with a two byte operand.
+   * @param op Instruction
+   * @param arg Operand
+   * @param effect Change in stack depth
+   */
+  void op2(int op, int arg, int effect) {
+    put(op);
+    put(arg >> 8);
+    put(arg);
+    stack(effect);
+  }
+
+  /**
+   * Appends a jump whose target is set later by {@link #patch}.
+   * @param op Jump instruction
+   * @param effect Change in stack depth
+   * @return Index of jump
+   */
+  int jump(int op, int effect) {
+    int at = size;
+    op2(op, 0, effect);
+
+    return at;
+  }
+
+  /**
+   * Appends a jump to an earlier instruction.
+   * @param op Jump instruction
+   * @param target Index of target
+   * @param effect Change in stack depth
+   */
+  void jumpTo(int op, int target, int effect) {
+    op2(op, target - size, effect);
+  }
+
+  /**
+   * Points the jump at the passed index to the next instruction.
+   * @param at Index of jump
+   */
+  void patch(int at) {
+    int offset = size - at;
+    bytes[at + 1] = (byte) (offset >> 8);
+    bytes[at + 2] = (byte) offset;
+  }
+
+  /**
+   * Reserves local slots.
+   * @param count Number of slots
+   * @return Index of first slot
+   */
+  int local(int count) {
+    int idx = maxLocals;
+    maxLocals += count;
+
+    return idx;
+  }
+
+  /**
+   * Changes the tracked stack depth where two paths join.
+   * @param effect Change in stack depth
+   */
+  void adjust(int effect) {
+    depth += effect;
+  }
+
+  /**
+   * Places the instructions of the passed Code before these. Jumps are
+   * relative, so they still land where they did.
+   * @param first Instructions to run first
+   */
+  void prepend(Code first) {
+    byte[] joined = new byte[first.size + size];
+    System.arraycopy(first.bytes, 0, joined, 0, first.size);
+    System.arraycopy(bytes, 0, joined, first.size, size);
+
+    bytes = joined;
+    size = joined.length;
+    maxStack = Math.max(maxStack, first.maxStack);
+  }
+
+  /**
+   * Returns the index of the next instruction.
+   * @return Current size
+   */
+  int label() {
+    return size;
+  }
+
+  int getMaxStack() {
+    return maxStack;
+  }
+
+  int getMaxLocals() {
+    return maxLocals;
+  }
+
+  /**
+   * Returns the finished instructions.
+   * @return Bytes of instructions
+   */
+  byte[] toBytes() {
+    return Arrays.copyOf(bytes, size);
+  }
+}
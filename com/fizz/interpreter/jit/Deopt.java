@@ -0,0 +1,23 @@
+package com.fizz.interpreter.jit;
+
+/**
+ * Thrown by compiled code when it reaches something it can't handle,
+ * such as an argument that isn't a Number or a division by 0. Compiled
+ * functions have no side effects, so the call is simply run again by
+ * the {@link com.fizz.interpreter.vm.VM}, which reports any error.
+ * <p>
+ * A single instance without a stack trace is shared, so throwing it
+ * allocates nothing.
+ * @author Noah James Rathman
+ */
+public final class Deopt extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /** The only instance of Deopt. */
+  public static final Deopt INSTANCE = new Deopt();
+
+  //Deopt should only be instanced once.
+  private Deopt() {
+    super(null, null, false, false);
+  }
+}
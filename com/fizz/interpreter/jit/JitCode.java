@@ -0,0 +1,120 @@
+package com.fizz.interpreter.jit;
+
+import com.fizz.interpreter.value.*;
+import com.fizz.util.context.Context;
+import com.fizz.util.context.Frame;
+
+/**
+ * Superclass of every class generated by the {@link JitCompiler}. Each
+ * generated class holds a static method taking and returning unboxed
+ * values, which compiled functions call directly, along with an
+ * override of {@link #call} used when entering from the VM.
+ * @author Noah James Rathman
+ */
+public abstract class JitCode {
+  //Calls compiled code can still make before the maximum call depth.
+  private static int room;
+
+  /**
+   * Called by compiled code before each call it makes, so compiled
+   * recursion ends at the same depth as the VM's.
+   * @throws Deopt If the call would nest deeper than allowed
+   */
+  public static void enter() {
+    if(--room < 0) {
+      throw Deopt.INSTANCE;
+    }
+  }
+
+  /**
+   * Called by compiled code after each call it makes returns.
+   */
+  public static void exit() {
+    room++;
+  }
+
+  //Class
+  private String name;
+  private boolean bool;
+  long reads, locals;
+
+  /**
+   * Creates a new JitCode. Only generated classes extend JitCode.
+   */
+  protected JitCode() {}
+
+  void init(String name, boolean bool, long reads, long locals) {
+    this.name = name;
+    this.bool = bool;
+    this.reads = reads;
+    this.locals = locals;
+  }
+
+  /**
+   * Returns if the compiled function gives the same result as the VM
+   * when called from the passed Frame. Compiled code reads program
+   * constants and functions directly, so it can't run while a caller
+   * may hide one of them, or hold a constant one of its variables
+   * would be checked against.
+   * @param caller Frame of the call
+   * @return True if the compiled function can be run
+   */
+  public boolean canRun(Frame caller) {
+    return !caller.mayHold(reads) && !caller.mayHoldConstant(locals);
+  }
+
+  /**
+   * Runs the compiled function with the passed arguments.
+   * @param args Values of arguments
+   * @return Result of function, with Booleans as 1 or 0
+   * @throws Deopt If the function needs to be run by the interpreter
+   */
+  protected abstract double call(double[] args);
+
+  /**
+   * Runs the compiled function with arguments taken from the passed stack.
+   * @param stack Stack holding arguments
+   * @param from Index of first argument
+   * @param argc Number of arguments
+   * @param depth Depth the call is made at
+   * @return Result of function
+   * @throws Deopt If the function needs to be run by the interpreter
+   */
+  public Val invoke(Val[] stack, int from, int argc, int depth) {
+    room = Context.getMaxDepth() - depth - 1;
+    if(room < 0) {
+      throw Deopt.INSTANCE;
+    }
+
+    double[] args = new double[argc];
+
+    for(int i = 0; i < argc; i++) {
+      Val arg = stack[from + i];
+      if(!(arg instanceof Num)) {
+        throw Deopt.INSTANCE;
+      }
+
+      args[i] = ((Num) arg).getValue();
+    }
+
+    double result = call(args);
+    return bool ? Bool.valueOf(result != 0) : Num.valueOf(result);
+  }
+
+  /**
+   * Returns the name of the compiled function.
+   * @return Function name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns if the compiled function returns a Boolean.
+   * @return True if the function returns a Boolean, false if it
+   * returns a Number
+   */
+  public boolean returnsBool() {
+    return bool;
+  }
+}
@@ -0,0 +1,741 @@
+package com.fizz.interpreter.jit;
+
+import static com.fizz.interpreter.jit.Code.*;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ArrayList;
+
+import com.fizz.lexer.token.*;
+import com.fizz.parser.node.*;
+import com.fizz.interpreter.value.*;
+import com.fizz.interpreter.vm.Chunk;
+import com.fizz.interpreter.vm.VMFunc;
+import com.fizz.resolver.Address;
+import com.fizz.resolver.Scope;
+import com.fizz.util.context.Frame;
+import com.fizz.util.context.Symbol;
+import com.fizz.util.function.JFunc;
+
+/**
+ * Compiles functions run by the {@link com.fizz.interpreter.vm.VM} into
+ * JVM classes once they've been called enough times, so the JVM can
+ * optimize them like any other Java code.
+ * <p>
+ * Only functions without side effects are compiled: they may use Numbers
+ * and Booleans held in their own variables, if and while statements, and
+ * calls to other functions which can be compiled. Whenever compiled code
+ * finds something it can't handle, it throws {@link Deopt} and the call
+ * is run again by the VM, which gives the exact same result or error.
+ * <p>
+ * Each program run gets its own class loader, so the classes of a run
+ * can be unloaded once nothing holds its functions any longer.
+ * @author Noah James Rathman
+ */
+public final class JitCompiler {
+  static final int NONE = 0, NUM = 1, BOOL = 2;
+  static final String SUPER = "com/fizz/interpreter/jit/JitCode";
+  private static final String DEOPT = "com/fizz/interpreter/jit/Deopt";
+  private static final String PACKAGE = "com/fizz/interpreter/jit/gen/";
+  private static final int DEOPT_LIMIT = 16;
+  private static final int LOG_SIZE = 64;
+
+  private static Map<String, JFunc> FUNCTIONS;
+  private static int threshold = 500;
+  private static JitLoader loader;
+  private static int classCount = 0;
+  private static List<String> compiled, rejected;
+
+  private static Map<Chunk, JitUnit> session;
+  private static JitUnit unit;
+
+  //Masks of the program names read by the session and of its variables.
+  private static long reads, locals;
+
+  //JitCompiler should never be instanced.
+  private JitCompiler() {}
+
+  /**
+   * Initializes the JitCompiler by putting all compile methods
+   * into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, JFunc>();
+
+    FUNCTIONS.put("ValueNode",          JitCompiler::compileValueNode);
+    FUNCTIONS.put("ConstNode",          JitCompiler::compileConstNode);
+    FUNCTIONS.put("UnaryOpNode",        JitCompiler::compileUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          JitCompiler::compileBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      JitCompiler::compileVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      JitCompiler::compileVarAssignNode);
+    FUNCTIONS.put("CallNode",           JitCompiler::compileCallNode);
+    FUNCTIONS.put("StatementNode",      JitCompiler::compileStatementNode);
+    FUNCTIONS.put("ReturnNode",         JitCompiler::compileReturnNode);
+    FUNCTIONS.put("IfNode",             JitCompiler::compileIfNode);
+    FUNCTIONS.put("WhileNode",          JitCompiler::compileWhileNode);
+    FUNCTIONS.put("ControlNode",        JitCompiler::compileControlNode);
+
+    loader = new JitLoader();
+    compiled = new ArrayList<String>();
+    rejected = new ArrayList<String>();
+  }
+
+  /**
+   * Starts a new program run, whose functions are compiled into a new
+   * class loader. Functions of an earlier run which are still called
+   * keep their classes, but are compiled again when called from
+   * functions of the new run.
+   */
+  public static void startRun() {
+    loader = new JitLoader();
+  }
+
+  /**
+   * Sets the number of calls after which a function is compiled.
+   * @param _threshold Number of calls, or 0 to never compile
+   */
+  public static void setThreshold(int _threshold) {
+    threshold = _threshold;
+  }
+
+  /**
+   * Returns the number of calls after which a function is compiled.
+   * @return Number of calls, or 0 if functions are never compiled
+   */
+  public static int getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Returns the last functions that have been compiled, along with the
+   * class they were compiled to.
+   * @return List of compiled functions
+   */
+  public static List<String> getCompiled() {
+    return compiled;
+  }
+
+  /**
+   * Returns the last functions that couldn't be compiled, along with
+   * the reason why.
+   * @return List of functions left to the VM
+   */
+  public static List<String> getRejected() {
+    return rejected;
+  }
+
+  /**
+   * Compiles the function of the passed Chunk, along with any functions
+   * it calls. If it can't be compiled, it's never tried again.
+   * @param chunk Chunk of a hot function
+   */
+  public static void compile(Chunk chunk) {
+    session = new LinkedHashMap<Chunk, JitUnit>();
+    unit = null;
+    reads = 0;
+    locals = 0;
+
+    try {
+      build(chunk);
+
+      //Compiled code doesn't look for names through the functions it's called from.
+      if((reads & locals) != 0) {
+        throw new Unsupported("reads a name its own variables may hide");
+      }
+    } catch(Unsupported e) {
+      reject(chunk, e.getMessage());
+      return;
+    }
+
+    try {
+      for(JitUnit u : session.values()) {
+        loader.define(u.binaryName(), u.bytes);
+      }
+
+      //Linking now makes sure every class passes verification.
+      for(JitUnit u : session.values()) {
+        Class<?> c = Class.forName(u.binaryName(), true, loader);
+        JitCode code = (JitCode) c.getDeclaredConstructor().newInstance();
+        code.init(u.name, u.returnType == BOOL, reads, locals);
+
+        u.chunk.setJit(code);
+      }
+    } catch(ReflectiveOperationException | LinkageError e) {
+      for(JitUnit u : session.values()) {
+        u.chunk.setJit(null);
+      }
+
+      reject(chunk, "class failed to load (" + e + ")");
+      return;
+    }
+
+    for(JitUnit u : session.values()) {
+      log(compiled, u.name + " -> " + u.binaryName());
+    }
+    session = null;
+  }
+
+  /**
+   * Called each time compiled code gives a call back to the VM. A
+   * function doing so too often goes back to being interpreted.
+   * @param chunk Chunk of function
+   */
+  public static void deoptimized(Chunk chunk) {
+    if(chunk.addDeopt() >= DEOPT_LIMIT) {
+      chunk.setJit(null);
+      reject(chunk, "gave up after " + DEOPT_LIMIT + " deoptimizations");
+    }
+  }
+
+  private static void reject(Chunk chunk, String reason) {
+    chunk.disableJit();
+    log(rejected, chunk.getName() + ": " + reason);
+    session = null;
+  }
+
+  //Only the last entries are kept, so long sessions don't fill memory.
+  private static void log(List<String> list, String entry) {
+    if(list.size() == LOG_SIZE) {
+      list.remove(0);
+    }
+
+    list.add(entry);
+  }
+
+  private static JitUnit build(Chunk chunk) {
+    JitUnit u = session.get(chunk);
+    if(u != null) {return u;}
+
+    FuncDefNode def = chunk.getFunction();
+    Scope scope = def.getScope();
+    List<String> argNames = def.getArgNames();
+
+    u = new JitUnit(chunk, PACKAGE + "F" + (++classCount) + "_" + def.getName(), argNames.size(), scope.getSize());
+    session.put(chunk, u);
+
+    for(String name : scope.getNames()) {
+      locals |= Frame.bitOf(name);
+    }
+
+    JitUnit outer = unit;
+    unit = u;
+    try {
+      for(int i = 0; i < argNames.size(); i++) {
+        int slot = scope.getSlot(argNames.get(i));
+        if(u.types[slot] != NONE) {
+          throw new Unsupported("repeats the argument \"" + argNames.get(i) + "\"");
+        }
+
+        u.types[slot] = NUM;
+        u.locals[slot] = i * 2;
+        u.flags[slot] = -1;
+      }
+
+      compile(def.getStatement(), false);
+
+      //Falling off the end returns void, which is left to the VM.
+      deopt();
+
+      if(u.returnType == NONE) {
+        throw new Unsupported("never returns a value");
+      }
+
+      finish(u, scope.getSize());
+    } finally {
+      unit = outer;
+    }
+
+    return u;
+  }
+
+  private static void finish(JitUnit u, int slots) {
+    if(u.code.getMaxLocals() > 255 || u.code.label() > Short.MAX_VALUE) {
+      throw new Unsupported("is too large");
+    }
+
+    //Every variable starts out unassigned.
+    Code prologue = new Code(0);
+    for(int slot = 0; slot < slots; slot++) {
+      if(u.flags[slot] <= 0) {continue;}
+
+      if(u.types[slot] == NUM) {
+        prologue.op(DCONST_0, 2);
+        prologue.op1(DSTORE, u.locals[slot], -2);
+      } else {
+        prologue.op(ICONST_0, 1);
+        prologue.op1(ISTORE, u.locals[slot], -1);
+      }
+
+      prologue.op(ICONST_0, 1);
+      prologue.op1(ISTORE, u.flags[slot], -1);
+    }
+    u.code.prepend(prologue);
+
+    ClassWriter w = u.writer;
+
+    Code init = new Code(1);
+    init.op1(ALOAD, 0, 1);
+    init.op2(INVOKESPECIAL, w.method(SUPER, "<init>", "()V"), -1);
+    init.op(RETURN, 0);
+    w.addMethod(0x0001, "<init>", "()V", init);
+
+    w.addMethod(0x0009, "run", u.descriptor(), u.code);
+
+    Code call = new Code(2);
+    for(int i = 0; i < u.argc; i++) {
+      call.op1(ALOAD, 1, 1);
+      call.op1(BIPUSH, i, 1);
+      call.op(DALOAD, 0);
+    }
+    call.op2(INVOKESTATIC, w.method(u.className, "run", u.descriptor()), -2 * u.argc + 2);
+    if(u.returnType == BOOL) {
+      call.op(I2D, 1);
+    }
+    call.op(DRETURN, -2);
+    w.addMethod(0x0004, "call", "([D)D", call);
+
+    u.bytes = w.toBytes();
+  }
+
+  private static int compile(Node node, boolean keep) {
+    JFunc func = FUNCTIONS.get(node.getClass().getSimpleName());
+
+    if(func == null) {
+      throw new Unsupported("uses " + node.getClass().getSimpleName());
+    }
+
+    return func.run(node, keep);
+  }
+
+  private static void expect(Node node, int type) {
+    if(compile(node, true) != type) {
+      throw new Unsupported("mixes Numbers and Booleans");
+    }
+  }
+
+  private static void deopt() {
+    unit.code.op2(GETSTATIC, unit.writer.field(DEOPT, "INSTANCE", "L" + DEOPT + ";"), 1);
+    unit.code.op(ATHROW, -1);
+  }
+
+  private static void discard(int type) {
+    unit.code.op(type == NUM ? POP2 : POP, type == NUM ? -2 : -1);
+  }
+
+  //Leaves 1 if the jump isn't taken, otherwise 0.
+  private static int bool(int jump, int effect) {
+    Code code = unit.code;
+
+    int toFalse = code.jump(jump, effect);
+    code.op(ICONST_1, 1);
+    int toEnd = code.jump(GOTO, 0);
+
+    code.patch(toFalse);
+    code.adjust(-1);
+    code.op(ICONST_0, 1);
+    code.patch(toEnd);
+
+    return BOOL;
+  }
+
+  //Returns if the name is only ever found in the program's SymbolTable.
+  private static boolean isGlobal(Address address) {
+    for(Address a = address; a != null; a = a.getOuter()) {
+      if(a.getSlot() != -1) {return false;}
+    }
+
+    return true;
+  }
+
+  private static int compileValueNode(Node _node, boolean keep) {
+    final ValueNode node = (ValueNode) _node;
+
+    if(node.getValue().isType(Type.STR)) {
+      throw new Unsupported("uses Strings");
+    }
+
+    if(!keep) {return NONE;}
+
+    double value = Double.parseDouble(node.getValue().getValue());
+    unit.code.op2(LDC2_W, unit.writer.number(value), 2);
+
+    return NUM;
+  }
+
+  private static int compileConstNode(Node _node, boolean keep) {
+    final ConstNode node = (ConstNode) _node;
+    final Val value = node.getValue();
+
+    if(!(value instanceof Num || value instanceof Bool)) {
+      throw new Unsupported("uses " + value.getType() + " values");
+    }
+
+    if(!keep) {return NONE;}
+
+    if(value instanceof Num) {
+      unit.code.op2(LDC2_W, unit.writer.number(((Num) value).getValue()), 2);
+      return NUM;
+    }
+
+    unit.code.op(((Bool) value).getValue() ? ICONST_1 : ICONST_0, 1);
+    return BOOL;
+  }
+
+  private static int compileUnaryOpNode(Node _node, boolean keep) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+    final Code code = unit.code;
+
+    int type = compile(node.getNode(), true);
+    if(type == NUM) {
+      if(!node.getOp().isType(Type.SUB)) {
+        throw new Unsupported("uses \"" + node.getOp() + "\" on a Number");
+      }
+
+      code.op2(LDC2_W, unit.writer.number(-1), 2);
+      code.op(DMUL, -2);
+    } else {
+      code.op(ICONST_1, 1);
+      code.op(IXOR, -1);
+    }
+
+    if(!keep) {
+      discard(type);
+      return NONE;
+    }
+
+    return type;
+  }
+
+  private static int compileBinOpNode(Node _node, boolean keep) {
+    final BinOpNode node = (BinOpNode) _node;
+    final Code code = unit.code;
+    final Type op = node.getOp().getType();
+
+    int type = compile(node.getLeftNode(), true);
+    if(compile(node.getRightNode(), true) != type) {
+      throw new Unsupported("mixes Numbers and Booleans");
+    }
+
+    int result = NUM;
+    if(type == NUM) {
+      switch(op) {
+        case ADD: code.op(DADD, -2); break;
+        case SUB: code.op(DSUB, -2); break;
+        case MUL: code.op(DMUL, -2); break;
+        case DIV: {
+          //Division by 0 is left to the VM to report.
+          code.op(DUP2, 2);
+          code.op(DCONST_0, 2);
+          code.op(DCMPL, -3);
+          int ok = code.jump(IFNE, -1);
+          deopt();
+          code.patch(ok);
+
+          code.op(DDIV, -2);
+          break;
+        }
+        case LT:  code.op(DCMPG, -3); result = bool(IFGE, -1); break;
+        case LTE: code.op(DCMPG, -3); result = bool(IFGT, -1); break;
+        case GT:  code.op(DCMPL, -3); result = bool(IFLE, -1); break;
+        case GTE: code.op(DCMPL, -3); result = bool(IFLT, -1); break;
+        case EE:  code.op(DCMPL, -3); result = bool(IFNE, -1); break;
+        case NE:  code.op(DCMPL, -3); result = bool(IFEQ, -1); break;
+        default:
+          throw new Unsupported("uses \"" + node.getOp() + "\" on Numbers");
+      }
+    } else {
+      result = BOOL;
+      switch(op) {
+        case AND: code.op(IAND, -1); break;
+        case OR:  code.op(IOR, -1); break;
+        case EE:  bool(IF_ICMPNE, -2); break;
+        case NE:  bool(IF_ICMPEQ, -2); break;
+        default:
+          throw new Unsupported("uses \"" + node.getOp() + "\" on Booleans");
+      }
+    }
+
+    if(!keep) {
+      discard(result);
+      return NONE;
+    }
+
+    return result;
+  }
+
+  private static int compileVarAccessNode(Node _node, boolean keep) {
+    final VarAccessNode node = (VarAccessNode) _node;
+    final Address address = node.getAddress();
+    final String id = node.getName().getValue();
+    final Code code = unit.code;
+
+    int slot = address.getSlot();
+    if(slot == -1) {
+      if(!isGlobal(address)) {
+        throw new Unsupported("reads \"" + id + "\" from another function");
+      }
+
+      //Program constants never change, so their values are used directly.
+      Symbol sym = unit.chunk.getGlobals().get(id);
+      if(sym == null || !sym.isConstant() || !(sym.getValue() instanceof Num || sym.getValue() instanceof Bool)) {
+        throw new Unsupported("reads \"" + id + "\", which isn't a local or a constant");
+      }
+
+      reads |= Frame.bitOf(id);
+      if(!keep) {return NONE;}
+
+      if(sym.getValue() instanceof Num) {
+        code.op2(LDC2_W, unit.writer.number(((Num) sym.getValue()).getValue()), 2);
+        return NUM;
+      }
+
+      code.op(((Bool) sym.getValue()).getValue() ? ICONST_1 : ICONST_0, 1);
+      return BOOL;
+    }
+
+    int type = unit.types[slot];
+    if(type == NONE) {
+      throw new Unsupported("reads \"" + id + "\" before assigning it");
+    }
+
+    //Unassigned variables are looked for elsewhere by the VM.
+    if(unit.flags[slot] > 0) {
+      code.op1(ILOAD, unit.flags[slot], 1);
+      int ok = code.jump(IFNE, -1);
+      deopt();
+      code.patch(ok);
+    }
+
+    if(!keep) {return NONE;}
+
+    if(type == NUM) {
+      code.op1(DLOAD, unit.locals[slot], 2);
+    } else {
+      code.op1(ILOAD, unit.locals[slot], 1);
+    }
+
+    return type;
+  }
+
+  private static int compileVarAssignNode(Node _node, boolean keep) {
+    final VarAssignNode node = (VarAssignNode) _node;
+    final Address address = node.getAddress();
+    final String id = node.getName().getValue();
+    final Code code = unit.code;
+
+    if(keep) {
+      throw new Unsupported("uses an assignment as a value");
+    } else if(node.isConstant() || address.mayBeConstant()) {
+      throw new Unsupported("assigns the constant \"" + id + "\"");
+    }
+
+    int slot = address.getSlot();
+    if(slot == -1) {
+      throw new Unsupported("assigns \"" + id + "\" outside of itself");
+    }
+
+    //Reassigning a variable that isn't set yet is left to the VM.
+    if(node.getType() == 1 && unit.flags[slot] > 0) {
+      code.op1(ILOAD, unit.flags[slot], 1);
+      int ok = code.jump(IFNE, -1);
+      deopt();
+      code.patch(ok);
+    }
+
+    int type = compile(node.getExpr(), true);
+    if(unit.types[slot] == NONE) {
+      unit.types[slot] = type;
+      unit.locals[slot] = code.local(type == NUM ? 2 : 1);
+      unit.flags[slot] = code.local(1);
+
+      if(node.getType() == 1) {
+        throw new Unsupported("reassigns \"" + id + "\" before assigning it");
+      }
+    } else if(unit.types[slot] != type) {
+      throw new Unsupported("changes the type of \"" + id + "\"");
+    }
+
+    if(type == NUM) {
+      code.op1(DSTORE, unit.locals[slot], -2);
+    } else {
+      code.op1(ISTORE, unit.locals[slot], -1);
+    }
+
+    if(unit.flags[slot] > 0) {
+      code.op(ICONST_1, 1);
+      code.op1(ISTORE, unit.flags[slot], -1);
+    }
+
+    return NONE;
+  }
+
+  private static int compileCallNode(Node _node, boolean keep) {
+    final CallNode node = (CallNode) _node;
+    final String id = node.getName().getValue();
+    final List<Node> args = node.getArgValues();
+    final Code code = unit.code;
+
+    //Functions of the program are constant, so calls can be bound now.
+    Symbol sym = isGlobal(node.getAddress()) ? unit.chunk.getGlobals().get(id) : null;
+    if(sym == null || !sym.isConstant() || !(sym.getValue() instanceof VMFunc)) {
+      throw new Unsupported("calls \"" + id + "\"");
+    }
+
+    Chunk target = ((VMFunc) sym.getValue()).getChunk();
+    if(target.getArgCount() != args.size()) {
+      throw new Unsupported("calls \"" + id + "\" with the wrong number of arguments");
+    }
+
+    reads |= Frame.bitOf(id);
+
+    String owner, desc;
+    int returnType;
+    //Classes of an earlier run can't be seen from this run's loader.
+    if(target.getJit() != null && target.getJit().getClass().getClassLoader() == loader) {
+      JitCode jit = target.getJit();
+      reads |= jit.reads;
+      locals |= jit.locals;
+
+      owner = jit.getClass().getName().replace('.', '/');
+      returnType = jit.returnsBool() ? BOOL : NUM;
+      desc = "(" + new String(new char[args.size()]).replace('\0', 'D') + (returnType == BOOL ? ")I" : ")D");
+    } else if(target.isJitDisabled()) {
+      throw new Unsupported("calls \"" + id + "\", which can't be compiled");
+    } else {
+      JitUnit callee = build(target);
+
+      //A function still being compiled is assumed to return a Number.
+      if(callee.returnType == NONE) {
+        callee.returnType = NUM;
+      }
+
+      owner = callee.className;
+      returnType = callee.returnType;
+      desc = callee.descriptor();
+    }
+
+    for(Node arg : args) {
+      expect(arg, NUM);
+    }
+
+    code.op2(INVOKESTATIC, unit.writer.method(SUPER, "enter", "()V"), 0);
+    code.op2(INVOKESTATIC, unit.writer.method(owner, "run", desc), -2 * args.size() + (returnType == NUM ? 2 : 1));
+    code.op2(INVOKESTATIC, unit.writer.method(SUPER, "exit", "()V"), 0);
+
+    if(!keep) {
+      discard(returnType);
+      return NONE;
+    }
+
+    return returnType;
+  }
+
+  private static int compileStatementNode(Node _node, boolean keep) {
+    final StatementNode node = (StatementNode) _node;
+
+    for(Node statement : node.getStatements()) {
+      compile(statement, false);
+    }
+
+    return NONE;
+  }
+
+  private static int compileReturnNode(Node _node, boolean keep) {
+    final ReturnNode node = (ReturnNode) _node;
+
+    int type = compile(node.getExpression(), true);
+    if(unit.returnType == NONE) {
+      unit.returnType = type;
+    } else if(unit.returnType != type) {
+      throw new Unsupported("returns both Numbers and Booleans");
+    }
+
+    if(type == NUM) {
+      unit.code.op(DRETURN, -2);
+    } else {
+      unit.code.op(IRETURN, -1);
+    }
+
+    return NONE;
+  }
+
+  private static int compileIfNode(Node _node, boolean keep) {
+    final IfNode node = (IfNode) _node;
+    final List<Node> conds = node.getConditions();
+    final List<Node> exprs = node.getExpressions();
+    final Code code = unit.code;
+
+    List<Integer> exits = new ArrayList<Integer>();
+    for(int i = 0; i < conds.size(); i++) {
+      expect(conds.get(i), BOOL);
+      int next = code.jump(IFEQ, -1);
+
+      compile(exprs.get(i), false);
+      exits.add(code.jump(GOTO, 0));
+
+      code.patch(next);
+    }
+
+    if(node.getElseCase() != null) {
+      compile(node.getElseCase(), false);
+    }
+
+    for(int exit : exits) {
+      code.patch(exit);
+    }
+
+    return NONE;
+  }
+
+  private static int compileWhileNode(Node _node, boolean keep) {
+    final WhileNode node = (WhileNode) _node;
+    final Code code = unit.code;
+
+    List<Integer> b = unit.breaks, c = unit.continues;
+    unit.breaks = new ArrayList<Integer>();
+    unit.continues = new ArrayList<Integer>();
+
+    int toCond = code.jump(GOTO, 0);
+    int body = code.label();
+
+    unit.loopDepth++;
+    compile(node.getExpression(), false);
+    unit.loopDepth--;
+
+    code.patch(toCond);
+    for(int at : unit.continues) {
+      code.patch(at);
+    }
+
+    expect(node.getCondition(), BOOL);
+    code.jumpTo(IFNE, body, -1);
+
+    for(int at : unit.breaks) {
+      code.patch(at);
+    }
+
+    unit.breaks = b;
+    unit.continues = c;
+
+    return NONE;
+  }
+
+  private static int compileControlNode(Node _node, boolean keep) {
+    final ControlNode node = (ControlNode) _node;
+
+    if(unit.loopDepth == 0) {
+      throw new Unsupported("uses \"" + node.getType() + "\" outside of a loop");
+    }
+
+    int at = unit.code.jump(GOTO, 0);
+    if(node.getType().equals("break")) {
+      unit.breaks.add(at);
+    } else {
+      unit.continues.add(at);
+    }
+
+    return NONE;
+  }
+}
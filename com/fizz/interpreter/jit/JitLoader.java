@@ -0,0 +1,24 @@
+package com.fizz.interpreter.jit;
+
+/**
+ * Defines the classes generated by the {@link JitCompiler}.
+ * @author Noah James Rathman
+ */
+final class JitLoader extends ClassLoader {
+  /**
+   * Creates a new JitLoader which can see every class of Fizz.
+   */
+  JitLoader() {
+    super(JitLoader.class.getClassLoader());
+  }
+
+  /**
+   * Defines a generated class.
+   * @param name Binary name of class
+   * @param bytes Class file
+   * @return Defined class
+   */
+  Class<?> define(String name, byte[] bytes) {
+    return defineClass(name, bytes, 0, bytes.length);
+  }
+}
@@ -0,0 +1,74 @@
+package com.fizz.interpreter.jit;
+
+import java.util.List;
+import java.util.ArrayList;
+
+import com.fizz.interpreter.vm.Chunk;
+
+/**
+ * Holds everything known about a single function while the
+ * {@link JitCompiler} writes its class.
+ * @author Noah James Rathman
+ */
+final class JitUnit {
+  final Chunk chunk;
+  final String name, className;
+  final int argc;
+  final ClassWriter writer;
+  final Code code;
+
+  //Type and JVM locals of each slot in the function's Frames.
+  final int[] types, locals, flags;
+
+  int returnType;
+  int loopDepth;
+  List<Integer> breaks, continues;
+  byte[] bytes;
+
+  /**
+   * Creates a new JitUnit.
+   * @param chunk Chunk of function
+   * @param className Internal name of the class being written
+   * @param argc Number of arguments
+   * @param slots Number of slots in the function's Frames
+   */
+  JitUnit(Chunk chunk, String className, int argc, int slots) {
+    this.chunk = chunk;
+    this.name = chunk.getName();
+    this.className = className;
+    this.argc = argc;
+
+    writer = new ClassWriter(className, JitCompiler.SUPER);
+    code = new Code(argc * 2);
+    types = new int[slots];
+    locals = new int[slots];
+    flags = new int[slots];
+
+    returnType = JitCompiler.NONE;
+    loopDepth = 0;
+    breaks = new ArrayList<Integer>();
+    continues = new ArrayList<Integer>();
+  }
+
+  /**
+   * Returns the descriptor of the function's static method.
+   * @return Method descriptor
+   */
+  String descriptor() {
+    StringBuilder sb = new StringBuilder("(");
+
+    for(int i = 0; i < argc; i++) {
+      sb.append('D');
+    }
+
+    return sb.append(returnType == JitCompiler.BOOL ? ")I" : ")D").toString();
+  }
+
+  /**
+   * Returns the binary name of the class being written.
+   * @return Binary name
+   */
+  String binaryName() {
+    return className.replace('/', '.');
+  }
+}
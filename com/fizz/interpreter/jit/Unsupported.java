@@ -0,0 +1,18 @@
+package com.fizz.interpreter.jit;
+
+/**
+ * Thrown by the {@link JitCompiler} when a function uses something it
+ * can't compile yet. The message says what that is.
+ * @author Noah James Rathman
+ */
+final class Unsupported extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Creates a new Unsupported.
+   * @param reason What couldn't be compiled
+   */
+  Unsupported(String reason) {
+    super(reason, null, false, false);
+  }
+}
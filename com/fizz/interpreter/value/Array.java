@@ -5,8 +5,10 @@ import java.util.Map;
 import java.util.HashMap;
 
 import com.fizz.lexer.token.Type;
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.Position;
+import com.fizz.util.context.Context;
 import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -41,62 +43,59 @@ public class Array extends Val {
     return FUNCTIONS.get(opType);
   }
 
-  private static RuntimeResult add(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val add(Val self, Val other, Position start, Position end, Context context) {
     Array aSelf = (Array) self;
 
     if(aSelf.getValueType() == null) {
       aSelf.setValueType(other.getType());
     } else if(!other.isType(aSelf.getValueType())) {
-      return res.failure(
-        RuntimeError.unexpectedType(aSelf.getValueType(), other)
+      throw new Failure(
+        RuntimeError.unexpectedType(aSelf.getValueType().toString(), other, start, end, context)
       );
     }
 
     aSelf.getValues().add(other);
-    return res.success(aSelf);
+    return aSelf;
   }
 
-  private static RuntimeResult remove(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val remove(Val self, Val other, Position start, Position end, Context context) {
     Array aSelf = (Array) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     int idx = (int) ((Num) other).getValue();
     if(idx < 0 || idx >= aSelf.getValues().size()) {
-      return res.failure(
-        RuntimeError.indexOutOfBounds(idx, aSelf.getValues().size(), other)
+      throw new Failure(
+        RuntimeError.indexOutOfBounds(idx, aSelf.getValues().size(), start, end, context)
       );
     }
 
     aSelf.getValues().remove(idx);
-    return res.success(aSelf);
+    return aSelf;
   }
 
-  private static RuntimeResult get(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val get(Val self, Val other, Position start, Position end, Context context) {
     Array aSelf = (Array) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     int idx = (int) ((Num) other).getValue();
     if(idx < 0 || idx >= aSelf.getValues().size()) {
-      return res.failure(
-        RuntimeError.indexOutOfBounds(idx, aSelf.getValues().size(), other)
+      throw new Failure(
+        RuntimeError.indexOutOfBounds(idx, aSelf.getValues().size(), start, end, context)
       );
     }
 
     Val got = aSelf.getValues().get(idx);
-    return res.success(got);
+    return got;
   }
 
   //Class
-  private String valType;
+  private ValType valType;
   private List<Val> values;
 
   /**
@@ -104,8 +103,8 @@ public class Array extends Val {
    * @param valType Type of values that can be in this Array
    * @param values Already existing Array values
    */
-  public Array(String valType, List<Val> values) {
-    super("Array");
+  public Array(ValType valType, List<Val> values) {
+    super(ValType.ARRAY);
     this.valType = valType;
     this.values = values;
   }
@@ -122,7 +121,7 @@ public class Array extends Val {
    * Returns the value type of this Array.
    * @return Array value type
    */
-  public String getValueType() {
+  public ValType getValueType() {
     return valType;
   }
 
@@ -130,7 +129,7 @@ public class Array extends Val {
    * Sets the value type of this array to the passed type.
    * @param valType New Array value type
    */
-  public void setValueType(String valType) {
+  public void setValueType(ValType valType) {
     this.valType = valType;
   }
 
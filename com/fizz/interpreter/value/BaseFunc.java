@@ -1,10 +1,12 @@
 package com.fizz.interpreter.value;
 
 import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
 
+import com.fizz.util.Position;
 import com.fizz.util.context.Context;
 import com.fizz.util.context.SymbolTable;
-import com.fizz.util.result.RuntimeResult;
 
 /**
  * The generic Function class which holds the function and argument names.
@@ -15,6 +17,10 @@ public abstract class BaseFunc extends Val {
   protected String name;
   /** Names of function arguments */
   protected List<String> argNames;
+  //Layout shared by the SymbolTable of every call, and the slot of each argument.
+  private Map<String, Integer> layout;
+  private String[] layoutIds;
+  private int[] argSlots;
 
   /**
    * Creates a new BaseFunc with the passed argument names.
@@ -22,36 +28,57 @@ public abstract class BaseFunc extends Val {
    * @param argNames List of argument names
    */
   public BaseFunc(String name, List<String> argNames) {
-    super("Function");
+    super(ValType.FUNCTION);
     this.name = name;
     this.argNames = argNames;
+
+    layout = new HashMap<String, Integer>();
+    argSlots = new int[argNames.size()];
+    for(int i = 0; i < argSlots.length; i++) {
+      layout.putIfAbsent(argNames.get(i), layout.size());
+      argSlots[i] = layout.get(argNames.get(i));
+    }
+
+    layoutIds = new String[layout.size()];
+    for(Map.Entry<String, Integer> entry : layout.entrySet()) {
+      layoutIds[entry.getValue()] = entry.getKey();
+    }
   }
 
   /**
    * Creates a new SymbolTable with this function's argument names
-   * assigned to the passed values.
+   * assigned to the passed values. Every call's SymbolTable starts
+   * from the same layout, so the names aren't hashed again.
    * @param argValues Values to be assigned
    * @param parent Parent SymbolTable
-   * @return A new SymbolTable with argument values assigned. However,
-   * if any argument fails to assign this method returns null.
+   * @return A new SymbolTable with argument values assigned
    */
   protected SymbolTable populateArgs(List<Val> argValues, SymbolTable parent) {
-    SymbolTable symTable = new SymbolTable(parent);
+    SymbolTable symTable = new SymbolTable(parent, layout, layoutIds);
 
-    boolean asnd = false;
-    for(int i = 0; i < argValues.size(); i++) {
-      asnd = symTable.set(argNames.get(i), argValues.get(i), false);
-      if(!asnd) {return null;}
+    for(int i = 0; i < argSlots.length; i++) {
+      symTable.setSlot(argSlots[i], argValues.get(i), false);
     }
 
     return symTable;
   }
 
+  /**
+   * Returns the name of this function.
+   * @return Name of function
+   */
+  public String getName() {
+    return name;
+  }
+
   /**
    * Executes the code associated with this function.
    * @param argValues Values to be assigned
+   * @param start Start of call
+   * @param end End of call
    * @param parent Context this function will extend from
-   * @return Result of function execution
+   * @return Returned value, or void if the function returns nothing
+   * @throws com.fizz.util.error.Failure If the function fails
    */
-  public abstract RuntimeResult execute(List<Val> argValues, Context parent);
+  public abstract Val execute(List<Val> argValues, Position start, Position end, Context parent);
 }
@@ -4,8 +4,10 @@ import java.util.Map;
 import java.util.HashMap;
 
 import com.fizz.lexer.token.Type;
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.Position;
+import com.fizz.util.context.Context;
 import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -13,6 +15,11 @@ import com.fizz.util.error.RuntimeError;
  * @author Noah James Rathman
  */
 public class Bool extends Val {
+  /** The only Bool holding true. */
+  public static final Bool TRUE = new Bool(true);
+  /** The only Bool holding false. */
+  public static final Bool FALSE = new Bool(false);
+
   private static Map<Type, VFunc> FUNCTIONS;
 
   /**
@@ -39,54 +46,63 @@ public class Bool extends Val {
     return FUNCTIONS.get(opType);
   }
 
-  private static RuntimeResult and(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  /**
+   * Returns the Bool holding the passed value.
+   * @param value Value of Bool
+   * @return {@link #TRUE} or {@link #FALSE}
+   */
+  public static Bool valueOf(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+
+  private static Val and(Val self, Val other, Position start, Position end, Context context) {
     final Bool bSelf = (Bool) self;
 
-    if(!other.isType("Boolean")) {
-      return res.failure(RuntimeError.unexpectedType("Boolean", other));
+    if(!other.isType(ValType.BOOLEAN)) {
+      throw new Failure(RuntimeError.unexpectedType("Boolean", other, start, end, context));
     }
 
     final Bool oBool = (Bool) other;
-    Bool result = new Bool(bSelf.getValue() && oBool.getValue());
+    Bool result = Bool.valueOf(bSelf.getValue() && oBool.getValue());
 
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult or(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val or(Val self, Val other, Position start, Position end, Context context) {
     final Bool bSelf = (Bool) self;
 
-    if(!other.isType("Boolean")) {
-      return res.failure(RuntimeError.unexpectedType("Boolean", other));
+    if(!other.isType(ValType.BOOLEAN)) {
+      throw new Failure(RuntimeError.unexpectedType("Boolean", other, start, end, context));
     }
 
     final Bool oBool = (Bool) other;
-    Bool result = new Bool(bSelf.getValue() || oBool.getValue());
+    Bool result = Bool.valueOf(bSelf.getValue() || oBool.getValue());
 
-    return res.success(result);
+    return result;
   }
 
   //Class
-  private boolean value;
+  private final boolean value;
 
   /**
-   * Creates a new Bool with the passed boolean value.
+   * Creates a new Bool with the passed boolean value. Only
+   * {@link #TRUE} and {@link #FALSE} exist, so this constructor
+   * is private.
    * @param value Value of Bool
    */
-  public Bool(boolean value) {
-    super("Boolean");
+  private Bool(boolean value) {
+    super(ValType.BOOLEAN);
     this.value = value;
   }
 
   @Override
   @SuppressWarnings("unchecked")
-  public <T extends Val> T castTo(String type) {
-    if(type.equals("Boolean")) {
+  public <T extends Val> T castTo(ValType type) {
+    if(type == ValType.BOOLEAN) {
       return (T) this;
-    } else if(type.equals("Number")) {
-      return (T) new Num(value ? 1 : 0);
-    } else if(type.equals("String")) {
+    } else if(type == ValType.NUMBER) {
+      return (T) Num.valueOf(value ? 1 : 0);
+    } else if(type == ValType.STRING) {
       return (T) new Str(String.valueOf(value));
     }
 
@@ -103,10 +119,10 @@ public class Bool extends Val {
 
   /**
    * Returns the inverse value of this Bool.
-   * @return New Bool with the opposite value of this one
+   * @return Bool with the opposite value of this one
    */
   public Bool not() {
-    return new Bool(!value);
+    return Bool.valueOf(!value);
   }
 
   public boolean equals(Object obj) {
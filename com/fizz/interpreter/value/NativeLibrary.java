@@ -0,0 +1,17 @@
+package com.fizz.interpreter.value;
+
+/**
+ * A set of System Functions implemented outside of Fizz. Libraries
+ * are found by a {@link java.util.ServiceLoader}, so a jar adds one by
+ * naming its class in
+ * {@code META-INF/services/com.fizz.interpreter.value.NativeLibrary}.
+ * Each is registered when {@link SysFunc#init} runs.
+ * @author Noah James Rathman
+ */
+public interface NativeLibrary {
+  /**
+   * Registers the functions of this library through
+   * {@link SysFunc#register}.
+   */
+  void register();
+}
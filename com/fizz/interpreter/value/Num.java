@@ -4,8 +4,10 @@ import java.util.Map;
 import java.util.HashMap;
 
 import com.fizz.lexer.token.Type;
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.Position;
+import com.fizz.util.context.Context;
 import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -13,8 +15,16 @@ import com.fizz.util.error.RuntimeError;
  * @author Noah James Rathman
  */
 public class Num extends Val {
+  private static final int CACHE_MIN = -128, CACHE_MAX = 1023;
+  private static final Num[] CACHE = new Num[CACHE_MAX - CACHE_MIN + 1];
   private static Map<Type, VFunc> FUNCTIONS;
 
+  static {
+    for(int i = 0; i < CACHE.length; i++) {
+      CACHE[i] = new Num(CACHE_MIN + i);
+    }
+  }
+
   /**
    * Places all operation functions into a Map for calling
    * in the Interpreter.
@@ -45,140 +55,150 @@ public class Num extends Val {
     return FUNCTIONS.get(opType);
   }
 
-  private static RuntimeResult add(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  /**
+   * Returns a Num with the passed value. Small whole numbers are
+   * shared rather than created each time, as Nums never change.
+   * @param value Value of Num
+   * @return Num with the passed value
+   */
+  public static Num valueOf(double value) {
+    int i = (int) value;
+
+    //-0 is left out, as dividing by it differs from dividing by 0.
+    if(i == value && i >= CACHE_MIN && i <= CACHE_MAX && (i != 0 || 1 / value > 0)) {
+      return CACHE[i - CACHE_MIN];
+    }
+
+    return new Num(value);
+  }
+
+  private static Val add(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(other.isType("String")) {
-      return res.success(new Str(self.toString() + other));
-    } else if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number or String", other));
+    if(other.isType(ValType.STRING)) {
+      return new Str(self.toString() + other);
+    } else if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number or String", other, start, end, context));
     }
 
     double newNum = nSelf.getValue() + ((Num) other).getValue();
-    Num result = new Num(newNum);
+    Num result = Num.valueOf(newNum);
 
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult subtract(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val subtract(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     double newNum = nSelf.getValue() - ((Num) other).getValue();
-    Num result = new Num(newNum);
+    Num result = Num.valueOf(newNum);
 
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult multiply(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val multiply(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     double newNum = nSelf.getValue() * ((Num) other).getValue();
-    Num result = new Num(newNum);
+    Num result = Num.valueOf(newNum);
 
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult divide(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val divide(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     Num oNum = (Num) other;
     if(oNum.getValue() == 0) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "Arithmetic", "Division by 0.",
-        other.getStart(), other.getEnd(), other.getContext()
+        start, end, context
       ));
     }
 
     double newNum = nSelf.getValue() / oNum.getValue();
-    Num result = new Num(newNum);
+    Num result = Num.valueOf(newNum);
 
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult lessThan(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val lessThan(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
-    Bool result = new Bool(nSelf.getValue() < ((Num) other).getValue());
-    return res.success(result);
+    Bool result = Bool.valueOf(nSelf.getValue() < ((Num) other).getValue());
+    return result;
   }
 
-  private static RuntimeResult greaterThan(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val greaterThan(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
-    Bool result = new Bool(nSelf.getValue() > ((Num) other).getValue());
-    return res.success(result);
+    Bool result = Bool.valueOf(nSelf.getValue() > ((Num) other).getValue());
+    return result;
   }
 
-  private static RuntimeResult lessThanOrEqual(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val lessThanOrEqual(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
-    Bool result = new Bool(nSelf.getValue() <= ((Num) other).getValue());
-    return res.success(result);
+    Bool result = Bool.valueOf(nSelf.getValue() <= ((Num) other).getValue());
+    return result;
   }
 
-  private static RuntimeResult greaterThanOrEqual(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val greaterThanOrEqual(Val self, Val other, Position start, Position end, Context context) {
     final Num nSelf = (Num) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
-    Bool result = new Bool(nSelf.getValue() >= ((Num) other).getValue());
-    return res.success(result);
+    Bool result = Bool.valueOf(nSelf.getValue() >= ((Num) other).getValue());
+    return result;
   }
 
   //Class
-  private double value;
+  private final double value;
 
   /**
-   * Creates a new Num with the passed double value.
+   * Creates a new Num with the passed double value. Nums are
+   * created through {@link #valueOf}, so this constructor is private.
    * @param value Value of Num
    */
-  public Num(double value) {
-    super("Number");
+  private Num(double value) {
+    super(ValType.NUMBER);
     this.value = value;
   }
 
   @Override
   @SuppressWarnings("unchecked")
-  public <T extends Val> T castTo(String type) {
-    if(type.equals("Number")) {
+  public <T extends Val> T castTo(ValType type) {
+    if(type == ValType.NUMBER) {
       return (T) this;
-    } else if(type.equals("Boolean")) {
-      return (T) new Bool(value >= 0);
-    } else if(type.equals("String")) {
+    } else if(type == ValType.BOOLEAN) {
+      return (T) Bool.valueOf(value >= 0);
+    } else if(type == ValType.STRING) {
       return (T) new Str(String.valueOf(value));
     }
 
@@ -4,8 +4,10 @@ import java.util.Map;
 import java.util.HashMap;
 
 import com.fizz.lexer.token.Type;
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.Position;
+import com.fizz.util.context.Context;
 import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -39,59 +41,57 @@ public class Str extends Val {
     return FUNCTIONS.get(opType);
   }
 
-  private static RuntimeResult add(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val add(Val self, Val other, Position start, Position end, Context context) {
     final Str sSelf = (Str) self;
 
     Str result = new Str(sSelf.getValue() + other.toString());
-    return res.success(result);
+    return result;
   }
 
-  private static RuntimeResult strAt(Val self, Val other) {
-    RuntimeResult res = new RuntimeResult();
+  private static Val strAt(Val self, Val other, Position start, Position end, Context context) {
     final Str sSelf = (Str) self;
 
-    if(!other.isType("Number")) {
-      return res.failure(RuntimeError.unexpectedType("Number", other));
+    if(!other.isType(ValType.NUMBER)) {
+      throw new Failure(RuntimeError.unexpectedType("Number", other, start, end, context));
     }
 
     int idx = (int) ((Num) other).getValue();
     String sStr = sSelf.getValue();
 
     if(idx < 0 || idx >= sStr.length()) {
-      return res.failure(
-        RuntimeError.indexOutOfBounds(idx, sStr.length(), other)
+      throw new Failure(
+        RuntimeError.indexOutOfBounds(idx, sStr.length(), start, end, context)
       );
     }
 
     Str result = new Str(String.valueOf(sStr.charAt(idx)));
-    return res.success(result);
+    return result;
   }
 
   //Class
-  private String value;
+  private final String value;
 
   /**
    * Creates a new Str with the passed String value.
    * @param value Value of Str
    */
   public Str(String value) {
-    super("String");
+    super(ValType.STRING);
     this.value = value;
   }
 
   @Override
   @SuppressWarnings("unchecked")
-  public <T extends Val> T castTo(String type) {
-    if(type.equals("String")) {
+  public <T extends Val> T castTo(ValType type) {
+    if(type == ValType.STRING) {
       return (T) this;
-    } else if(type.equals("Boolean")) {
+    } else if(type == ValType.BOOLEAN) {
       try {
-        return (T) new Bool(Boolean.parseBoolean(value));
+        return (T) Bool.valueOf(Boolean.parseBoolean(value));
       } catch(Exception e) {return null;}
-    } else if(type.equals("Number")) {
+    } else if(type == ValType.NUMBER) {
       try {
-        return (T) new Num(Double.parseDouble(value));
+        return (T) Num.valueOf(Double.parseDouble(value));
       } catch(Exception e) {return null;}
     }
 
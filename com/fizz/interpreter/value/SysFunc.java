@@ -2,23 +2,32 @@ package com.fizz.interpreter.value;
 
 import java.util.List;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Scanner;
+import java.util.ServiceLoader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
 
 import com.fizz.Launcher;
+import com.fizz.lexer.Lexer;
 import com.fizz.interpreter.Interpreter;
+import com.fizz.parser.TreeFile;
+import com.fizz.parser.node.Node;
 import com.fizz.util.*;
 import com.fizz.util.context.*;
-import com.fizz.util.result.RuntimeResult;
 import com.fizz.util.function.SFunc;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
- * Holds functions available in all Fizz programs.
+ * Holds functions available in all Fizz programs. System Functions
+ * are implemented in Java and receive their arguments as an array,
+ * without a SymbolTable or Context of their own. Besides the built in
+ * functions, any {@link NativeLibrary} found by a
+ * {@link java.util.ServiceLoader} is registered here.
  * @author Noah James Rathman
  */
 public class SysFunc extends BaseFunc {
@@ -28,49 +37,40 @@ public class SysFunc extends BaseFunc {
    * Initializes all System Functions.
    */
   public static void init() {
-    FUNCTIONS = new HashMap<String, SysFunc>();
-
-    //print
-    FUNCTIONS.put("print", new SysFunc(
-      "print",
-      Arrays.asList(new String[] {"msg"}),
-      SysFunc::PRINT
-    ));
-
-    //println
-    FUNCTIONS.put("println", new SysFunc(
-      "println",
-      Arrays.asList(new String[] {"msg"}),
-      SysFunc::PRINTLN
-    ));
-
-    //input
-    FUNCTIONS.put("input", new SysFunc(
-      "input",
-      Arrays.asList(new String[] {"msg"}),
-      SysFunc::INPUT
-    ));
-
-    //typeOf
-    FUNCTIONS.put("typeOf", new SysFunc(
-      "typeOf",
-      Arrays.asList(new String[] {"value"}),
-      SysFunc::TYPE_OF
-    ));
-
-    //length
-    FUNCTIONS.put("length", new SysFunc(
-      "length",
-      Arrays.asList(new String[] {"value"}),
-      SysFunc::LENGTH
-    ));
-
-    //run
-    FUNCTIONS.put("run", new SysFunc(
-      "run",
-      Arrays.asList(new String[] {"path"}),
-      SysFunc::RUN
-    ));
+    FUNCTIONS = new LinkedHashMap<String, SysFunc>();
+
+    register("print",   new String[] {"msg"},   SysFunc::PRINT);
+    register("println", new String[] {"msg"},   SysFunc::PRINTLN);
+    register("input",   new String[] {"msg"},   SysFunc::INPUT);
+    register("typeOf",  new String[] {"value"}, SysFunc::TYPE_OF);
+    register("length",  new String[] {"value"}, SysFunc::LENGTH);
+    register("run",     new String[] {"path"},  SysFunc::RUN);
+
+    for(NativeLibrary library : ServiceLoader.load(NativeLibrary.class)) {
+      library.register();
+    }
+  }
+
+  /**
+   * Registers a new System Function, which every program created
+   * afterwards can call by the passed name.
+   * @param name Name of function
+   * @param argNames Names of function arguments
+   * @param func Function run when called
+   * @throws IllegalArgumentException If the name isn't an identifier,
+   * is a keyword or built-in constant, or a System Function with the
+   * passed name already exists
+   */
+  public static void register(String name, String[] argNames, SFunc func) {
+    if(!Lexer.isIdentifier(name)) {
+      throw new IllegalArgumentException("Can not register a System Function named \"" + name + "\", as it isn't an identifier.");
+    }
+
+    if(FUNCTIONS.containsKey(name) || Constants.isKey(name) || SymbolTable.isBuiltInConstant(name)) {
+      throw new IllegalArgumentException("Can not register a System Function named \"" + name + "\".");
+    }
+
+    FUNCTIONS.put(name, new SysFunc(name, Arrays.asList(argNames), func));
   }
 
   /**
@@ -84,112 +84,135 @@ public class SysFunc extends BaseFunc {
     return FUNCTIONS.get(name);
   }
 
-  private static RuntimeResult PRINT(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("msg");
+  /**
+   * Returns every System Function in the order they were registered.
+   * @return Collection of System Functions
+   */
+  public static Collection<SysFunc> getFunctions() {
+    return FUNCTIONS.values();
+  }
 
-    System.out.print(sym.getValue());
+  private static Val PRINT(Val[] args, Position start, Position end, Context context) {
+    Output.print(args[0].toString());
 
-    return res.success(Val.createNull(null, null, null));
+    return Val.VOID;
   }
 
-  private static RuntimeResult PRINTLN(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("msg");
+  private static Val PRINTLN(Val[] args, Position start, Position end, Context context) {
+    Output.println(args[0].toString());
 
-    System.out.println(sym.getValue());
-
-    return res.success(Val.createNull(null, null, null));
+    return Val.VOID;
   }
 
-  private static RuntimeResult INPUT(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("msg");
-    System.out.print(sym.getValue());
+  private static Val INPUT(Val[] args, Position start, Position end, Context context) {
+    Output.print(args[0].toString());
+    Output.flush();
 
     Scanner in = new Scanner(System.in);
     Str input = new Str(in.nextLine());
-    input.setAttribute("returned");
 
-    return res.success(input);
+    return input;
   }
 
-  private static RuntimeResult TYPE_OF(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("value");
-
-    Str typeName = new Str(sym.getValue().getType());
-    typeName.setAttribute("returned");
+  private static Val TYPE_OF(Val[] args, Position start, Position end, Context context) {
+    Str typeName = new Str(args[0].getType().toString());
 
-    return res.success(typeName);
+    return typeName;
   }
 
-  private static RuntimeResult LENGTH(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("value");
-    Val sVal = sym.getValue();
+  private static Val LENGTH(Val[] args, Position start, Position end, Context context) {
+    Val sVal = args[0];
 
     Num len = null;
-    if(sVal.isType("String")) {
+    if(sVal.isType(ValType.STRING)) {
       Str str = (Str) sVal;
-      len = new Num(str.getValue().length());
-    } else if(sVal.isType("Array")) {
+      len = Num.valueOf(str.getValue().length());
+    } else if(sVal.isType(ValType.ARRAY)) {
       Array arr = (Array) sVal;
-      len = new Num(arr.getValues().size());
+      len = Num.valueOf(arr.getValues().size());
     } else {
-      return res.failure(RuntimeError.unexpectedType("String or Array", sVal));
+      throw new Failure(RuntimeError.unexpectedType("String or Array", sVal, start, end, context));
     }
 
-    len.setAttribute("returned");
-    return res.success(len);
+    return len;
   }
 
-  private static RuntimeResult RUN(Position entry, Context context) {
-    RuntimeResult res = new RuntimeResult();
-    Symbol sym = context.getSymbolTable().get("path");
-
-    Val value = sym.getValue();
-    if(!value.isType("String")) {
-      return res.failure(RuntimeError.unexpectedType("String", value));
+  private static Val RUN(Val[] args, Position start, Position end, Context caller) {
+    Val value = args[0];
+    if(!value.isType(ValType.STRING)) {
+      throw new Failure(RuntimeError.unexpectedType("String", value, start, end, caller));
     }
 
+    //The program run is shown as called from here in stack traces.
+    Context context = new Context(getFunction("run"), caller.getSymbolTable(), caller, start);
+
     String path = ((Str) value).getValue();
     File file = new File(path);
     if(!file.exists()) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "File Access",
         "The file \"" + path + "\" does not exist.",
-        value.getStart(), value.getEnd(), context
+        start, end, context
       ));
     } else if(!path.endsWith(".fizz")) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "File Access",
         "Accessed file should have the extension \".fizz\".",
-        value.getStart(), value.getEnd(), context
+        start, end, context
       ));
     }
 
-    String fName = file.getName().replace(".fizz", "");
-    String fText = "";
+    long modified = file.lastModified(), size = file.length();
+    List<Object> key = ScriptCache.fileKey(file.getAbsolutePath(), modified, size);
 
-    try {
-      FileInputStream fiStream = new FileInputStream(file);
-      int i = 0;
+    //An unchanged file is run from the ScriptCache without being read again.
+    Context fProgram = new Context("<program>", SymbolTable.createGST(), context, start);
+    Launcher.run(key, () -> parse(file, modified, size, start, end, context), fProgram);
+    return Val.VOID;
+  }
 
-      while((i = fiStream.read()) != -1) {
-        fText += (char) i;
-      }
+  /*
+   * Returns the parsed tree of the passed file. A fresh precompiled file
+   * is read in place of lexing and parsing, and otherwise a new one is
+   * written. Either can fail without stopping the run, as the source is
+   * always there to fall back on.
+   */
+  private static Node parse(File file, long modified, long size, Position start, Position end, Context context) {
+    //The text is only read if an Error has to show part of it.
+    Source source = new Source(file.getName().replace(".fizz", ""), file);
+    File compiled = TreeFile.of(file);
+
+    if(compiled.exists()) {
+      try {
+        Node ast = TreeFile.read(compiled, source, modified, size);
+        if(ast != null) {return ast;}
+      } catch(IOException e) {}
+    }
+
+    Node ast;
+    try {
+      ast = Launcher.parse(source);
+    } catch(CharacterCodingException e) {
+      throw new Failure(new RuntimeError(
+        "File Access",
+        "The file \"" + file.getPath() + "\" is not valid UTF-8.",
+        start, end, context
+      ));
     } catch(IOException e) {
-      return res.failure(new RuntimeError(
+      throw new Failure(new RuntimeError(
         "Native Exception",
         "IOException: " + e.getMessage(),
-        value.getStart(), value.getEnd(), context
+        start, end, context
       ));
     }
 
-    Context fProgram = new Context("<program>", SymbolTable.createGST(), context, entry);
-    Launcher.run(fName, fText, fProgram);
-    return res.success(Val.createNull(null, null, null));
+    if(ast != null) {
+      try {
+        TreeFile.write(ast, compiled, modified, size);
+      } catch(IOException e) {}
+    }
+
+    return ast;
   }
 
   //Class
@@ -201,22 +224,26 @@ public class SysFunc extends BaseFunc {
   }
 
   @Override
-  public RuntimeResult execute(List<Val> argValues, Context parent) {
-    RuntimeResult res = new RuntimeResult();
-    if(argNames.size() != argValues.size()) {
-      return res.failure(RuntimeError.argumentSize(argNames.size(), argValues.size(), start, end, parent));
-    }
+  public Val execute(List<Val> argValues, Position start, Position end, Context parent) {
+    return call(argValues.toArray(new Val[argValues.size()]), start, end, parent);
+  }
 
-    SymbolTable fSymTable = populateArgs(argValues, parent.getSymbolTable());
-    if(fSymTable == null) {
-      return res.failure(RuntimeError.tableCreation(start, end, parent));
+  /**
+   * Calls this function with the passed values as its arguments.
+   * @param argValues Values of arguments
+   * @param start Start of call
+   * @param end End of call
+   * @param parent Context of the call
+   * @return Returned value, or void if the function returns nothing
+   * @throws Failure If the wrong number of values is passed, or the
+   * function fails
+   */
+  public Val call(Val[] argValues, Position start, Position end, Context parent) {
+    if(argNames.size() != argValues.length) {
+      throw new Failure(RuntimeError.argumentSize(argNames.size(), argValues.length, start, end, parent));
     }
-    Context fContext = new Context("<Function " + name + ">", fSymTable, parent, start);
-
-    Val result = res.register(func.run(start, fContext));
-    if(res.hasError()) {return res;}
 
-    return res.success(result);
+    return func.run(argValues, start, end, parent);
   }
 
   public String toString() {
@@ -4,9 +4,10 @@ import java.util.List;
 
 import com.fizz.interpreter.Interpreter;
 import com.fizz.parser.node.Node;
+import com.fizz.util.Position;
 import com.fizz.util.context.Context;
 import com.fizz.util.context.SymbolTable;
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.RuntimeError;
 
 /**
@@ -29,22 +30,63 @@ public class UserFunc extends BaseFunc {
   }
 
   @Override
-  public RuntimeResult execute(List<Val> argValues, Context parent) {
-    RuntimeResult res = new RuntimeResult();
+  public Val execute(List<Val> argValues, Position start, Position end, Context parent) {
     if(argNames.size() != argValues.size()) {
-      return res.failure(RuntimeError.argumentSize(argNames.size(), argValues.size(), start, end, parent));
+      throw new Failure(RuntimeError.argumentSize(argNames.size(), argValues.size(), start, end, parent));
     }
 
     SymbolTable fSymTable = populateArgs(argValues, parent.getSymbolTable());
-    if(fSymTable == null) {
-      return res.failure(RuntimeError.tableCreation(start, end, parent));
+    Context fContext = createContext(fSymTable, parent, start);
+    if(fContext.isTooDeep()) {
+      throw new Failure(RuntimeError.callDepth(Context.getMaxDepth(), start, end, parent));
     }
-    Context fContext = new Context("<Function " + name + ">", fSymTable, parent, start);
 
-    Val result = res.register(Interpreter.visit(statement, fContext));
-    if(res.hasError()) {return res;}
+    //Programs run with room for the maximum depth, so this only catches deeply nested expressions.
+    try {
+      return Interpreter.visitBody(statement, fContext);
+    } catch(StackOverflowError e) {
+      throw new Failure(RuntimeError.stackSpace(start, end, parent));
+    }
+  }
+
+  /**
+   * Assigns the passed values to this function's arguments in a
+   * SymbolTable which is already in use. This lets a call in tail
+   * position take over the SymbolTable of the call which made it.
+   * @param argValues Values to be assigned
+   * @param table SymbolTable holding no constants
+   * @param start Start of call
+   * @param end End of call
+   * @param parent Context of the call
+   * @throws Failure If the wrong number of values is passed
+   */
+  public void reuseArgs(List<Val> argValues, SymbolTable table, Position start, Position end, Context parent) {
+    if(argNames.size() != argValues.size()) {
+      throw new Failure(RuntimeError.argumentSize(argNames.size(), argValues.size(), start, end, parent));
+    }
+
+    for(int i = 0; i < argValues.size(); i++) {
+      table.set(argNames.get(i), argValues.get(i), false);
+    }
+  }
+
+  /**
+   * Creates the Context this function runs in.
+   * @param table SymbolTable of call
+   * @param parent Context of the call
+   * @param entry Start of call
+   * @return Context of call
+   */
+  public Context createContext(SymbolTable table, Context parent, Position entry) {
+    return new Context(this, table, parent, entry);
+  }
 
-    return res.success(result);
+  /**
+   * Returns the statement of this function.
+   * @return Function statement
+   */
+  public Node getStatement() {
+    return statement;
   }
 
   public String toString() {
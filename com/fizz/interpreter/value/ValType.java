@@ -0,0 +1,53 @@
+package com.fizz.interpreter.value;
+
+/**
+ * Identifies the type of a {@link com.fizz.interpreter.value.Val}.
+ * Every Val holds one, so checking a type is a single comparison.
+ * @author Noah James Rathman
+ */
+public enum ValType {
+  /** Represents a Num. */
+  NUMBER("Number"),
+  /** Represents a Bool. */
+  BOOLEAN("Boolean"),
+  /** Represents a Str. */
+  STRING("String"),
+  /** Represents an Array. */
+  ARRAY("Array"),
+  /** Represents a function. */
+  FUNCTION("Function"),
+  /** Represents null. */
+  NULL("null"),
+  /** Represents void, left by statements and calls without a value. */
+  VOID("void");
+
+  //Class
+  private final String name;
+
+  private ValType(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns the ValType a program refers to by the passed name,
+   * such as in a cast. Null and void can't be named.
+   * @param name Name of type
+   * @return ValType with the passed name. If no type can be
+   * named that way, {@code null} is returned.
+   */
+  public static ValType fromName(String name) {
+    switch(name) {
+      case "Number": return NUMBER;
+      case "Boolean": return BOOLEAN;
+      case "String": return STRING;
+      case "Array": return ARRAY;
+      case "Function": return FUNCTION;
+    }
+
+    return null;
+  }
+
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,533 @@
+package com.fizz.interpreter.vm;
+
+import static com.fizz.interpreter.vm.OpCode.*;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+
+import com.fizz.lexer.token.*;
+import com.fizz.parser.node.*;
+import com.fizz.interpreter.value.*;
+import com.fizz.resolver.Address;
+import com.fizz.resolver.Ref;
+import com.fizz.resolver.Scope;
+import com.fizz.util.Position;
+import com.fizz.util.context.SymbolTable;
+import com.fizz.util.function.BFunc;
+import com.fizz.util.function.VFunc;
+
+/**
+ * Compiles a resolved Abstract Syntax Tree into {@link Chunk}s of
+ * instructions for the {@link VM}. Every Chunk leaves its stack as it
+ * found it, so each Node is compiled to either leave its value on the
+ * stack or leave nothing at all.
+ * @author Noah James Rathman
+ */
+public final class BytecodeCompiler {
+  private static Map<String, BFunc> FUNCTIONS;
+  private static Chunk chunk;
+  private static int depth = 0;
+  private static int loopDepth = 0;
+  private static int branches = 0;
+  private static boolean inFunc = false;
+  private static boolean[] assigned;
+  private static List<Integer> breaks, continues;
+  private static SymbolTable globals;
+
+  //BytecodeCompiler should never be instanced.
+  private BytecodeCompiler() {}
+
+  /**
+   * Initializes the BytecodeCompiler by putting all compile methods
+   * into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, BFunc>();
+
+    FUNCTIONS.put("ValueNode",          BytecodeCompiler::compileValueNode);
+    FUNCTIONS.put("ConstNode",          BytecodeCompiler::compileConstNode);
+    FUNCTIONS.put("UnaryOpNode",        BytecodeCompiler::compileUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          BytecodeCompiler::compileBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      BytecodeCompiler::compileVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      BytecodeCompiler::compileVarAssignNode);
+    FUNCTIONS.put("CallNode",           BytecodeCompiler::compileCallNode);
+    FUNCTIONS.put("FuncDefNode",        BytecodeCompiler::compileFuncDefNode);
+    FUNCTIONS.put("StatementNode",      BytecodeCompiler::compileStatementNode);
+    FUNCTIONS.put("ReturnNode",         BytecodeCompiler::compileReturnNode);
+    FUNCTIONS.put("ArrayNode",          BytecodeCompiler::compileArrayNode);
+    FUNCTIONS.put("CastNode",           BytecodeCompiler::compileCastNode);
+    FUNCTIONS.put("IfNode",             BytecodeCompiler::compileIfNode);
+    FUNCTIONS.put("WhileNode",          BytecodeCompiler::compileWhileNode);
+    FUNCTIONS.put("ControlNode",        BytecodeCompiler::compileControlNode);
+    FUNCTIONS.put("ForNode",            BytecodeCompiler::compileForNode);
+  }
+
+  /**
+   * Compiles the passed resolved Abstract Syntax Tree into a Chunk
+   * which can be run with a program's base Frame.
+   * @param node Root Node of the tree
+   * @param _globals SymbolTable of the program the tree will run in
+   * @return Compiled tree
+   */
+  public static Chunk compileProgram(Node node, SymbolTable _globals) {
+    loopDepth = 0;
+    branches = 0;
+    inFunc = false;
+    assigned = null;
+    breaks = null;
+    continues = null;
+    globals = _globals;
+
+    chunk = new Chunk("<program>", globals);
+    chunk.start = node.getStart();
+    chunk.end = node.getEnd();
+    depth = 0;
+
+    compile(node, false);
+    emit(0, chunk.start, chunk.end, HALT);
+
+    return chunk;
+  }
+
+  private static void compile(Node node, boolean keep) {
+    final String className = node.getClass().getSimpleName();
+
+    BFunc func = FUNCTIONS.get(className);
+    if(func != null) {
+      func.run(node, keep);
+      return;
+    }
+
+    fail(
+      "Node Visit",
+      "No visit method defined for \"" + className + "\".",
+      node.getStart(), node.getEnd(), keep
+    );
+  }
+
+  private static int emit(int effect, Position start, Position end, int... op) {
+    depth += effect;
+    if(depth > chunk.maxStack) {
+      chunk.maxStack = depth;
+    }
+
+    return chunk.emit(start, end, op);
+  }
+
+  private static void pop() {
+    emit(-1, null, null, POP);
+  }
+
+  //Points the jump at the passed index to the next instruction.
+  private static void patch(int at) {
+    chunk.code[at + 1] = chunk.size;
+  }
+
+  private static void fail(String name, String details, Position start, Position end, boolean keep) {
+    //Nothing runs after a failure, but the stack must still look balanced.
+    emit(keep ? 1 : 0, start, end, FAIL, chunk.add(name, details));
+  }
+
+  //Only calls and assignments can result in void.
+  private static boolean mayBeVoid(Node node) {
+    return node instanceof CallNode || node instanceof VarAssignNode;
+  }
+
+  private static void compileValueNode(Node _node, boolean keep) {
+    final ValueNode node = (ValueNode) _node;
+
+    //A value on its own can't fail, so there's nothing to run.
+    if(!keep) {return;}
+
+    if(node.getValue().isType(Type.STR)) {
+      emit(1, node.getStart(), node.getEnd(), CONST, chunk.add(new Str(node.getValue().getValue())));
+    } else {
+      double value = Double.parseDouble(node.getValue().getValue());
+      emit(1, node.getStart(), node.getEnd(), NUM, chunk.addNum(value));
+    }
+  }
+
+  private static void compileConstNode(Node _node, boolean keep) {
+    final ConstNode node = (ConstNode) _node;
+
+    if(!keep) {return;}
+
+    if(node.getValue() instanceof Num) {
+      emit(1, node.getStart(), node.getEnd(), NUM, chunk.addNum(((Num) node.getValue()).getValue()));
+    } else {
+      emit(1, node.getStart(), node.getEnd(), CONST, chunk.add(node.getValue()));
+    }
+  }
+
+  private static void compileUnaryOpNode(Node _node, boolean keep) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+
+    compile(node.getNode(), true);
+    emit(0, node.getNode().getStart(), node.getNode().getEnd(), UNARY, chunk.add(node.getOp(), Num.getFunction(Type.MUL)));
+
+    if(!keep) {pop();}
+  }
+
+  private static void compileBinOpNode(Node _node, boolean keep) {
+    final BinOpNode node = (BinOpNode) _node;
+    final Token op = node.getOp();
+    final Node lNode = node.getLeftNode(), rNode = node.getRightNode();
+
+    compile(lNode, true);
+    compile(rNode, true);
+
+    //Operations are linked now, instead of being looked up per visit.
+    VFunc[] funcs = {
+      Num.getFunction(op.getType()),
+      Str.getFunction(op.getType()),
+      Bool.getFunction(op.getType()),
+      Array.getFunction(op.getType())
+    };
+    //Errors blame the left node, unless the operation itself rejects the right.
+    emit(-1, lNode.getStart(), lNode.getEnd(), BINARY, chunk.add(funcs, op, rNode));
+
+    if(!keep) {pop();}
+  }
+
+  private static void compileVarAccessNode(Node _node, boolean keep) {
+    final VarAccessNode node = (VarAccessNode) _node;
+    final Ref ref = new Ref(node.getAddress(), globals);
+
+    emit(1, node.getStart(), node.getEnd(), LOAD, chunk.add(ref, node.getName()));
+
+    if(!keep) {pop();}
+  }
+
+  private static void compileVarAssignNode(Node _node, boolean keep) {
+    final VarAssignNode node = (VarAssignNode) _node;
+    final Address address = node.getAddress();
+    final Ref ref = new Ref(address, globals);
+    final Position start = node.getStart(), end = node.getEnd();
+
+    //A program constant that already exists can never be assigned again.
+    if(!ref.isLocal() && address.isFixed()) {
+      emit(keep ? 1 : 0, start, end, ILLEGAL_ASSIGN, chunk.add(node.getName().getValue(), node));
+      return;
+    }
+
+    int idx = chunk.add(ref, node);
+    int slot = address.getSlot();
+
+    //Only names that may be constant somewhere need to be checked. Until a
+    //function assigns a name, that includes the constants of its callers.
+    boolean unset = ref.isLocal() && !assigned[slot];
+    int checks = (node.getType() == 1 ? 1 : 0) | (address.mayBeConstant() || unset ? 2 : 0);
+    if(checks != 0) {
+      emit(0, start, end, CHECK_ASSIGN, idx, checks);
+    }
+
+    compile(node.getExpr(), true);
+
+    int flags = (node.isConstant() ? 1 : 0) | (keep ? 2 : 0) | (mayBeVoid(node.getExpr()) ? 4 : 0);
+    emit(keep ? 0 : -1, start, end, STORE, idx, flags);
+
+    //Only assignments which always run are known to have set the name.
+    if(ref.isLocal() && branches == 0) {
+      assigned[slot] = true;
+    }
+  }
+
+  private static void compileCallNode(Node _node, boolean keep) {
+    compileCall((CallNode) _node, CALL);
+
+    if(!keep) {pop();}
+  }
+
+  //Calls in tail position use TAIL_CALL, which replaces the running function's call.
+  private static void compileCall(CallNode node, int op) {
+    final Ref ref = new Ref(node.getAddress(), globals);
+    final List<Node> args = node.getArgValues();
+    final Position start = node.getStart(), end = node.getEnd();
+
+    emit(1, start, end, GET_FUNC, chunk.add(ref, node.getName()));
+
+    for(Node arg : args) {
+      compile(arg, true);
+
+      if(mayBeVoid(arg)) {
+        emit(0, start, end, CHECK_VOID, chunk.add(arg));
+      }
+    }
+
+    emit(-args.size(), start, end, op, args.size());
+  }
+
+  private static void compileFuncDefNode(Node _node, boolean keep) {
+    final FuncDefNode node = (FuncDefNode) _node;
+    final Address address = node.getAddress();
+    final Ref ref = new Ref(address, globals);
+    final Scope scope = node.getScope();
+    final List<String> argNames = node.getArgNames();
+
+    Chunk outer = chunk;
+    int d = depth;
+    int ld = loopDepth;
+    int br = branches;
+    boolean inf = inFunc;
+    boolean[] as = assigned;
+    List<Integer> b = breaks, c = continues;
+
+    chunk = new Chunk(node.getName(), globals);
+    chunk.function = node;
+    chunk.start = node.getStatement().getStart();
+    chunk.end = node.getStatement().getEnd();
+    chunk.names = scope.getNames();
+    chunk.trackConstants = scope.hasConstants();
+    chunk.argSlots = new int[argNames.size()];
+    assigned = new boolean[scope.getSize()];
+    for(int i = 0; i < argNames.size(); i++) {
+      chunk.argSlots[i] = scope.getSlot(argNames.get(i));
+      assigned[chunk.argSlots[i]] = true;
+    }
+
+    depth = 0;
+    loopDepth = 0;
+    branches = 0;
+    inFunc = true;
+    breaks = null;
+    continues = null;
+
+    compile(node.getStatement(), false);
+    emit(0, chunk.end, chunk.end, RETURN_VOID);
+    Chunk body = chunk;
+
+    chunk = outer;
+    depth = d;
+    loopDepth = ld;
+    branches = br;
+    inFunc = inf;
+    assigned = as;
+    breaks = b;
+    continues = c;
+
+    if(!ref.isLocal() && address.isFixed()) {
+      emit(0, node.getStart(), node.getEnd(), ILLEGAL_ASSIGN, chunk.add(node.getName(), node));
+      return;
+    }
+
+    emit(0, node.getStart(), node.getEnd(), FUNC, chunk.add(ref, node, body));
+  }
+
+  private static void compileStatementNode(Node _node, boolean keep) {
+    final StatementNode node = (StatementNode) _node;
+
+    for(Node statement : node.getStatements()) {
+      compile(statement, false);
+    }
+  }
+
+  private static void compileReturnNode(Node _node, boolean keep) {
+    final ReturnNode node = (ReturnNode) _node;
+
+    if(!inFunc) {
+      fail(
+        "Illegal Return",
+        "\"return\" can not be called outside of a function.",
+        node.getStart(), node.getEnd(), false
+      );
+      return;
+    }
+
+    if(node.isTailCall()) {
+      compileCall((CallNode) node.getExpression(), TAIL_CALL);
+    } else {
+      compile(node.getExpression(), true);
+    }
+    emit(-1, node.getStart(), node.getEnd(), RETURN);
+  }
+
+  private static void compileArrayNode(Node _node, boolean keep) {
+    final ArrayNode node = (ArrayNode) _node;
+    final List<Node> values = node.getValues() != null ? node.getValues() : new ArrayList<Node>();
+    final Position start = node.getStart(), end = node.getEnd();
+
+    for(int i = 0; i < values.size(); i++) {
+      Node value = values.get(i);
+      compile(value, true);
+
+      //Each element is checked before the next one runs.
+      if(i > 0 || mayBeVoid(value)) {
+        emit(0, value.getStart(), value.getEnd(), ELEMENT, i, chunk.add(value));
+      }
+    }
+
+    emit(1 - values.size(), start, end, ARRAY, values.size());
+
+    if(!keep) {pop();}
+  }
+
+  private static void compileCastNode(Node _node, boolean keep) {
+    final CastNode node = (CastNode) _node;
+    final ValType cast = ValType.fromName(node.getCast().getValue());
+
+    if(cast == null) {
+      fail(
+        "Casting",
+        "Type \"" + node.getCast().getValue() + "\" does not exist.",
+        node.getCast().getStart(), node.getCast().getEnd(), keep
+      );
+      return;
+    }
+
+    compile(node.getExpression(), true);
+    emit(0, node.getStart(), node.getEnd(), CAST, chunk.add(cast));
+
+    if(!keep) {pop();}
+  }
+
+  private static void compileIfNode(Node _node, boolean keep) {
+    final IfNode node = (IfNode) _node;
+    final List<Node> conds = node.getConditions();
+    final List<Node> exprs = node.getExpressions();
+    final Position start = node.getStart(), end = node.getEnd();
+
+    List<Integer> exits = new ArrayList<Integer>();
+    branches++;
+    for(int i = 0; i < conds.size(); i++) {
+      Node cond = conds.get(i);
+      compile(cond, true);
+      int next = emit(-1, cond.getStart(), cond.getEnd(), JUMP_FALSE, 0);
+
+      compile(exprs.get(i), false);
+      if(i < conds.size() - 1 || node.getElseCase() != null) {
+        exits.add(emit(0, start, end, JUMP, 0));
+      }
+
+      patch(next);
+    }
+
+    if(node.getElseCase() != null) {
+      compile(node.getElseCase(), false);
+    }
+
+    for(int exit : exits) {
+      patch(exit);
+    }
+    branches--;
+  }
+
+  private static void compileWhileNode(Node _node, boolean keep) {
+    final WhileNode node = (WhileNode) _node;
+    final Position start = node.getStart(), end = node.getEnd();
+
+    List<Integer> b = breaks, c = continues;
+    breaks = new ArrayList<Integer>();
+    continues = new ArrayList<Integer>();
+
+    //The condition is placed after the body, so each pass takes one jump.
+    int toCond = emit(0, start, end, JUMP, 0);
+    int body = chunk.size;
+
+    loopDepth++;
+    branches++;
+    compile(node.getExpression(), false);
+    branches--;
+    loopDepth--;
+
+    patch(toCond);
+    for(int at : continues) {
+      patch(at);
+    }
+
+    compile(node.getCondition(), true);
+    emit(-1, node.getCondition().getStart(), node.getCondition().getEnd(), JUMP_TRUE, body);
+
+    for(int at : breaks) {
+      patch(at);
+    }
+
+    breaks = b;
+    continues = c;
+  }
+
+  private static void compileControlNode(Node _node, boolean keep) {
+    final ControlNode node = (ControlNode) _node;
+    final String type = node.getType();
+
+    if(loopDepth == 0) {
+      fail(
+        "Illegal Control Call",
+        "\"" + type + "\" can not be called outside of a loop.",
+        node.getStart(), node.getEnd(), false
+      );
+      return;
+    }
+
+    int at = emit(0, node.getStart(), node.getEnd(), JUMP, 0);
+    if(type.equals("break")) {
+      breaks.add(at);
+    } else {
+      continues.add(at);
+    }
+  }
+
+  private static void compileForNode(Node _node, boolean keep) {
+    final ForNode node = (ForNode) _node;
+    final Ref iRef = new Ref(((VarAssignNode) node.getIterator()).getAddress(), globals);
+    final Position start = node.getStart(), end = node.getEnd();
+
+    compile(node.getIterator(), false);
+
+    final Node iExpr = ((VarAssignNode) node.getIterator()).getExpr(), cond = node.getCondition();
+
+    //The loop counts from its own copy of the iterator, so assignments to it only last one pass.
+    int loopStart = emit(1, iExpr.getStart(), iExpr.getEnd(), FOR_CHECK, chunk.add(iRef));
+    compile(cond, true);
+    emit(0, cond.getStart(), cond.getEnd(), CHECK_BOOL);
+
+    //The count and step stay below the loop's values until the loop ends.
+    if(node.getStep() != null) {
+      compile(node.getStep(), true);
+      emit(0, node.getStep().getStart(), node.getStep().getEnd(), CHECK_NUM);
+    } else {
+      emit(1, start, end, NUM, chunk.addNum(1));
+    }
+
+    emit(0, start, end, SWAP);
+    int toEnd = emit(-1, start, end, JUMP_FALSE, 0);
+    int body = chunk.size;
+
+    List<Integer> b = breaks, c = continues;
+    breaks = new ArrayList<Integer>();
+    continues = new ArrayList<Integer>();
+
+    loopDepth++;
+    branches++;
+    compile(node.getExpression(), false);
+    branches--;
+    loopDepth--;
+
+    for(int at : continues) {
+      patch(at);
+    }
+
+    emit(0, start, end, FOR_STEP, chunk.add(iRef, Num.getFunction(Type.ADD)));
+    compile(cond, true);
+    emit(-1, cond.getStart(), cond.getEnd(), JUMP_TRUE, body);
+
+    patch(toEnd);
+    for(int at : breaks) {
+      patch(at);
+    }
+
+    breaks = b;
+    continues = c;
+
+    pop();
+    pop();
+    int loopEnd = emit(0, start, end, CLEAR, chunk.add(iRef));
+    chunk.addLoop(loopStart, loopEnd, iRef);
+
+    //The iterator is removed once the loop ends.
+    if(iRef.isLocal()) {
+      assigned[((VarAssignNode) node.getIterator()).getAddress().getSlot()] = false;
+    }
+  }
+}
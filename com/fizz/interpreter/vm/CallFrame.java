@@ -0,0 +1,31 @@
+package com.fizz.interpreter.vm;
+
+import com.fizz.util.context.Frame;
+
+/**
+ * Remembers where the {@link VM} was when it called a {@link VMFunc},
+ * so it can carry on once the function returns. CallFrames are reused
+ * between calls of the same depth.
+ * @author Noah James Rathman
+ */
+final class CallFrame {
+  Chunk chunk;
+  int ip, at, sp;
+  Frame frame;
+
+  /**
+   * Saves the state of the caller.
+   * @param chunk Chunk of caller
+   * @param ip Instruction to return to
+   * @param at Index of call instruction
+   * @param sp Stack size before the call
+   * @param frame Frame of caller
+   */
+  void save(Chunk chunk, int ip, int at, int sp, Frame frame) {
+    this.chunk = chunk;
+    this.ip = ip;
+    this.at = at;
+    this.sp = sp;
+    this.frame = frame;
+  }
+}
@@ -0,0 +1,249 @@
+package com.fizz.interpreter.vm;
+
+import java.util.Arrays;
+
+import com.fizz.interpreter.jit.JitCode;
+import com.fizz.interpreter.value.Num;
+import com.fizz.parser.node.FuncDefNode;
+import com.fizz.resolver.Ref;
+import com.fizz.util.Position;
+import com.fizz.util.context.SymbolTable;
+
+/**
+ * Holds the instructions of a program or function compiled by the
+ * {@link BytecodeCompiler}, along with everything they refer to.
+ * @author Noah James Rathman
+ */
+public final class Chunk {
+  final String name;
+  final SymbolTable globals;
+
+  int[] code;
+  int size;
+  Position[] starts, ends;
+  Object[] pool;
+  int poolSize;
+  Num[] nums;
+  int numSize;
+  int maxStack;
+
+  //Function layout
+  String[] names;
+  int[] argSlots;
+  boolean trackConstants;
+
+  //For loop iterators, removed if an error escapes their loop.
+  int[] loopStarts, loopEnds;
+  Ref[] loopRefs;
+  int loopSize;
+
+  Position start, end;
+
+  //Compiled code, used once the function gets hot.
+  FuncDefNode function;
+  int calls, deopts;
+  JitCode jit;
+  boolean jitDisabled;
+
+  /**
+   * Creates a new empty Chunk.
+   * @param name Name of program or function
+   * @param globals SymbolTable of the program
+   */
+  Chunk(String name, SymbolTable globals) {
+    this.name = name;
+    this.globals = globals;
+
+    code = new int[32];
+    starts = new Position[32];
+    ends = new Position[32];
+    pool = new Object[8];
+    nums = new Num[4];
+    loopStarts = new int[0];
+    loopEnds = new int[0];
+    loopRefs = new Ref[0];
+  }
+
+  /**
+   * Appends an instruction with the position it came from.
+   * @param start Start of instruction
+   * @param end End of instruction
+   * @param op Instruction and operands
+   * @return Index of instruction
+   */
+  int emit(Position start, Position end, int... op) {
+    if(size + op.length > code.length) {
+      int length = Math.max(code.length * 2, size + op.length);
+      code = Arrays.copyOf(code, length);
+      starts = Arrays.copyOf(starts, length);
+      ends = Arrays.copyOf(ends, length);
+    }
+
+    int at = size;
+    starts[at] = start;
+    ends[at] = end;
+
+    for(int o : op) {
+      code[size++] = o;
+    }
+
+    return at;
+  }
+
+  /**
+   * Adds Objects to the pool, keeping them next to each other.
+   * @param values Objects to be added
+   * @return Index of first Object
+   */
+  int add(Object... values) {
+    if(poolSize + values.length > pool.length) {
+      pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + values.length));
+    }
+
+    int idx = poolSize;
+    for(Object value : values) {
+      pool[poolSize++] = value;
+    }
+
+    return idx;
+  }
+
+  /**
+   * Adds a Number to the numbers of this Chunk. Nums never change,
+   * so each one is created here rather than every time it's loaded.
+   * @param value Number to be added
+   * @return Index of Number
+   */
+  int addNum(double value) {
+    for(int i = 0; i < numSize; i++) {
+      if(Double.compare(nums[i].getValue(), value) == 0) {
+        return i;
+      }
+    }
+
+    if(numSize == nums.length) {
+      nums = Arrays.copyOf(nums, numSize * 2);
+    }
+
+    nums[numSize] = Num.valueOf(value);
+    return numSize++;
+  }
+
+  /**
+   * Marks the instructions between the passed indexes as the body of
+   * a for loop, whose iterator is removed if an error escapes it.
+   * @param start Index of first instruction
+   * @param end Index after last instruction
+   * @param ref Iterator of loop
+   */
+  void addLoop(int start, int end, Ref ref) {
+    loopStarts = Arrays.copyOf(loopStarts, loopSize + 1);
+    loopEnds = Arrays.copyOf(loopEnds, loopSize + 1);
+    loopRefs = Arrays.copyOf(loopRefs, loopSize + 1);
+
+    loopStarts[loopSize] = start;
+    loopEnds[loopSize] = end;
+    loopRefs[loopSize] = ref;
+    loopSize++;
+  }
+
+  /**
+   * Returns the name of the program or function this Chunk belongs to.
+   * @return Chunk name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the definition of the function this Chunk belongs to.
+   * @return FuncDefNode of function, or null for a program
+   */
+  public FuncDefNode getFunction() {
+    return function;
+  }
+
+  /**
+   * Returns the SymbolTable of the program this Chunk belongs to.
+   * @return Program SymbolTable
+   */
+  public SymbolTable getGlobals() {
+    return globals;
+  }
+
+  /**
+   * Returns the number of arguments of the function this Chunk belongs to.
+   * @return Argument count
+   */
+  public int getArgCount() {
+    return argSlots.length;
+  }
+
+  /**
+   * Returns the compiled code of this Chunk's function.
+   * @return JitCode of function, or null if not compiled
+   */
+  public JitCode getJit() {
+    return jit;
+  }
+
+  /**
+   * Sets the compiled code of this Chunk's function.
+   * @param _jit JitCode of function, or null to go back to the VM
+   */
+  public void setJit(JitCode _jit) {
+    jit = _jit;
+  }
+
+  /**
+   * Returns if this Chunk's function should never be compiled.
+   * @return If compiling is disabled
+   */
+  public boolean isJitDisabled() {
+    return jitDisabled;
+  }
+
+  /**
+   * Stops this Chunk's function from ever being compiled.
+   */
+  public void disableJit() {
+    jitDisabled = true;
+  }
+
+  /**
+   * Counts a call that the compiled code gave back to the VM.
+   * @return Number of times this has happened
+   */
+  public int addDeopt() {
+    return ++deopts;
+  }
+
+  /**
+   * Returns the number of ints making up the instructions of this Chunk.
+   * @return Chunk size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Lists every instruction in this Chunk, one per line.
+   * @return Chunk listing
+   */
+  public String toString() {
+    StringBuilder sb = new StringBuilder("== " + name + " ==");
+
+    for(int ip = 0; ip < size;) {
+      int op = code[ip];
+      sb.append(String.format("%n%04d %-14s", ip, OpCode.NAMES[op]));
+
+      for(int i = 1; i <= OpCode.OPERANDS[op]; i++) {
+        sb.append(" ").append(code[ip + i]);
+      }
+
+      ip += 1 + OpCode.OPERANDS[op];
+    }
+
+    return sb.toString();
+  }
+}
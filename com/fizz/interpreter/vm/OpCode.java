@@ -0,0 +1,91 @@
+package com.fizz.interpreter.vm;
+
+/**
+ * Contains every instruction understood by the {@link VM}. Each
+ * instruction is a single int followed by the operands listed beside it.
+ * Pool operands index into the {@link Chunk}'s pool of Objects.
+ * @author Noah James Rathman
+ */
+public final class OpCode {
+  /** Pushes a new Number. <i>(number index)</i> */
+  public static final int NUM = 0;
+  /** Pushes a constant value. <i>(pool index of value)</i> */
+  public static final int CONST = 1;
+  /** Pushes the value of a name. <i>(pool index of Ref, Token)</i> */
+  public static final int LOAD = 2;
+  /** Checks that a name can be assigned. <i>(pool index of Ref, Node; flags)</i> */
+  public static final int CHECK_ASSIGN = 3;
+  /** Pops a value and assigns it to a name. <i>(pool index of Ref, Node; flags)</i> */
+  public static final int STORE = 4;
+  /** Fails, as a name is a constant. <i>(pool index of name, Node)</i> */
+  public static final int ILLEGAL_ASSIGN = 5;
+  /** Fails with a fixed error. <i>(pool index of name, details)</i> */
+  public static final int FAIL = 6;
+  /** Defines a function. <i>(pool index of Ref, Node, Chunk)</i> */
+  public static final int FUNC = 7;
+  /** Pushes the function with a name. <i>(pool index of Ref, Token)</i> */
+  public static final int GET_FUNC = 8;
+  /** Fails if the top value is void. <i>(pool index of Node)</i> */
+  public static final int CHECK_VOID = 9;
+  /** Calls the function below its arguments. <i>(argument count)</i> */
+  public static final int CALL = 10;
+  /** Returns the top value from a function. */
+  public static final int RETURN = 11;
+  /** Returns void from a function. */
+  public static final int RETURN_VOID = 12;
+  /** Discards the top value. */
+  public static final int POP = 13;
+  /** Swaps the top two values. */
+  public static final int SWAP = 14;
+  /** Jumps to an instruction. <i>(target)</i> */
+  public static final int JUMP = 15;
+  /** Pops a Boolean and jumps if it's false. <i>(target)</i> */
+  public static final int JUMP_FALSE = 16;
+  /** Pops a Boolean and jumps if it's true. <i>(target)</i> */
+  public static final int JUMP_TRUE = 17;
+  /** Fails if the top value isn't a Boolean. */
+  public static final int CHECK_BOOL = 18;
+  /** Fails if the top value isn't a Number. */
+  public static final int CHECK_NUM = 19;
+  /** Applies a unary operation. <i>(pool index of Token, VFunc)</i> */
+  public static final int UNARY = 20;
+  /** Applies a binary operation. <i>(pool index of VFunc[], Token)</i> */
+  public static final int BINARY = 21;
+  /** Checks an element of an Array being built. <i>(element index, pool index of Node)</i> */
+  public static final int ELEMENT = 22;
+  /** Pops values into a new Array. <i>(element count)</i> */
+  public static final int ARRAY = 23;
+  /** Casts the top value. <i>(pool index of ValType)</i> */
+  public static final int CAST = 24;
+  /** Pushes a for loop's iterator, failing if it isn't a Number. <i>(pool index of Ref)</i> */
+  public static final int FOR_CHECK = 25;
+  /** Adds the top value to the count below it, and assigns the sum to a for loop's iterator. <i>(pool index of Ref, VFunc)</i> */
+  public static final int FOR_STEP = 26;
+  /** Removes the value of a name. <i>(pool index of Ref)</i> */
+  public static final int CLEAR = 27;
+  /** Ends the program. */
+  public static final int HALT = 28;
+  /** Calls the function below its arguments in place of the running function's call. <i>(argument count)</i> */
+  public static final int TAIL_CALL = 29;
+
+  /** Names of every instruction, used when listing a Chunk. */
+  public static final String[] NAMES = {
+    "NUM", "CONST", "LOAD", "CHECK_ASSIGN", "STORE", "ILLEGAL_ASSIGN",
+    "FAIL", "FUNC", "GET_FUNC", "CHECK_VOID", "CALL", "RETURN",
+    "RETURN_VOID", "POP", "SWAP", "JUMP", "JUMP_FALSE", "JUMP_TRUE",
+    "CHECK_BOOL", "CHECK_NUM", "UNARY", "BINARY", "ELEMENT", "ARRAY",
+    "CAST", "FOR_CHECK", "FOR_STEP", "CLEAR", "HALT", "TAIL_CALL"
+  };
+
+  /** Number of operands following each instruction. */
+  public static final int[] OPERANDS = {
+    1, 1, 1, 2, 2, 1,
+    1, 1, 1, 1, 1, 0,
+    0, 0, 0, 1, 1, 1,
+    0, 0, 1, 1, 2, 1,
+    1, 1, 1, 1, 0, 1
+  };
+
+  //OpCode should never be instanced.
+  private OpCode() {}
+}
@@ -0,0 +1,564 @@
+package com.fizz.interpreter.vm;
+
+import static com.fizz.interpreter.vm.OpCode.*;
+import static com.fizz.util.error.RuntimeError.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+
+import com.fizz.lexer.token.Token;
+import com.fizz.lexer.token.Type;
+import com.fizz.parser.node.*;
+import com.fizz.interpreter.value.*;
+import com.fizz.interpreter.jit.Deopt;
+import com.fizz.interpreter.jit.JitCompiler;
+import com.fizz.resolver.Ref;
+import com.fizz.util.Output;
+import com.fizz.util.Position;
+import com.fizz.util.context.*;
+import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Error;
+import com.fizz.util.error.Failure;
+import com.fizz.util.error.RuntimeError;
+
+/**
+ * Runs the instructions of a {@link Chunk} over a single operand stack.
+ * Calls to {@link VMFunc}s push a new call frame rather than calling
+ * back into Java, so deep recursion in Fizz needs no Java stack.
+ * <p>
+ * Every instruction behaves like its matching visit method in the
+ * {@link com.fizz.interpreter.Interpreter}, so errors and values are
+ * the same no matter which engine runs a program.
+ * @author Noah James Rathman
+ */
+public final class VM {
+  //VM should never be instanced.
+  private VM() {}
+
+  /**
+   * Runs the passed program Chunk.
+   * @param program Chunk built by {@link BytecodeCompiler#compileProgram}
+   * @param base Frame of the program
+   * @return Result of execution
+   */
+  public static RuntimeResult execute(Chunk program, Frame base) {
+    RuntimeResult res = new RuntimeResult();
+
+    CallFrame[] calls = new CallFrame[8];
+    int callSize = 0;
+    Val[] stack = new Val[Math.max(16, program.maxStack)];
+    int sp = 0;
+
+    Chunk chunk = program;
+    int[] code = chunk.code;
+    Object[] pool = chunk.pool;
+    Position[] starts = chunk.starts, ends = chunk.ends;
+    Frame frame = base;
+    Context context = base.getContext();
+
+    int ip = 0, at = 0;
+    Error error = null;
+    while(error == null) {
+      at = ip;
+
+      switch(code[ip++]) {
+        //Literals are created once by the compiler and shared.
+        case NUM:
+          stack[sp++] = chunk.nums[code[ip++]];
+          break;
+
+        case CONST:
+          stack[sp++] = (Val) pool[code[ip++]];
+          break;
+
+        case LOAD: {
+          int idx = code[ip++];
+          Val value = ((Ref) pool[idx]).get(frame);
+
+          if(value == null) {
+            Token name = (Token) pool[idx + 1];
+            error = undefinedSymbol(name.getValue(), name, context);
+            break;
+          }
+
+          stack[sp++] = value;
+          break;
+        }
+
+        case CHECK_ASSIGN: {
+          int idx = code[ip++], checks = code[ip++];
+          Ref ref = (Ref) pool[idx];
+          VarAssignNode node = (VarAssignNode) pool[idx + 1];
+
+          if((checks & 1) != 0 && ref.get(frame) == null) {
+            error = undefinedSymbol(node.getName().getValue(), node.getName(), context);
+          } else if((checks & 2) != 0 && ref.isConstant(frame)) {
+            error = illegalAssign(node.getName().getValue(), node, context);
+          }
+          break;
+        }
+
+        case STORE: {
+          int idx = code[ip++], flags = code[ip++];
+          Val value = stack[--sp];
+
+          if((flags & 4) != 0 && value.isType(ValType.VOID)) {
+            error = voidValue((Node) pool[idx + 1], context);
+            break;
+          }
+
+          ((Ref) pool[idx]).set(frame, value, (flags & 1) != 0);
+
+          if((flags & 2) != 0) {
+            stack[sp++] = Val.VOID;
+          }
+          break;
+        }
+
+        case ILLEGAL_ASSIGN: {
+          int idx = code[ip++];
+          error = illegalAssign((String) pool[idx], (Node) pool[idx + 1], context);
+          break;
+        }
+
+        case FAIL: {
+          int idx = code[ip++];
+          error = new RuntimeError(
+            (String) pool[idx], (String) pool[idx + 1],
+            starts[at], ends[at], context
+          );
+          break;
+        }
+
+        case FUNC: {
+          int idx = code[ip++];
+          Ref ref = (Ref) pool[idx];
+          FuncDefNode node = (FuncDefNode) pool[idx + 1];
+
+          if(ref.isTargetConstant(frame)) {
+            error = illegalAssign(node.getName(), node, context);
+            break;
+          }
+
+          VMFunc func = new VMFunc(
+            node.getName(), node.getArgNames(), node.getStatement(),
+            (Chunk) pool[idx + 2]
+          );
+          ref.set(frame, func, true);
+          break;
+        }
+
+        case GET_FUNC: {
+          int idx = code[ip++];
+          Val value = ((Ref) pool[idx]).get(frame);
+          Token name = (Token) pool[idx + 1];
+
+          if(value == null) {
+            error = undefinedSymbol(name.getValue(), name, context);
+            break;
+          }
+
+          if(!(value instanceof BaseFunc)) {
+            error = new RuntimeError(
+              "Symbol Access",
+              "\"" + name.getValue() + "\" is not a Function.",
+              starts[at], ends[at], context
+            );
+            break;
+          }
+
+          stack[sp++] = value;
+          break;
+        }
+
+        case CHECK_VOID: {
+          int idx = code[ip++];
+
+          if(stack[sp - 1].isType(ValType.VOID)) {
+            error = voidValue((Node) pool[idx], context);
+          }
+          break;
+        }
+
+        case CALL:
+        case TAIL_CALL: {
+          int argc = code[ip++];
+          int bp = sp - argc - 1;
+          Val callee = stack[bp];
+
+          if(callee instanceof VMFunc) {
+            VMFunc func = (VMFunc) callee;
+            Chunk fChunk = func.chunk;
+
+            if(fChunk.argSlots.length != argc) {
+              error = argumentSize(fChunk.argSlots.length, argc, starts[at], ends[at], context);
+              break;
+            }
+
+            //Hot functions run as compiled code until it gives up.
+            if(fChunk.jit != null) {
+              if(fChunk.jit.canRun(frame)) {
+                try {
+                  Val result = fChunk.jit.invoke(stack, bp + 1, argc, context.getDepth());
+
+                  sp = bp;
+                  stack[sp++] = result;
+                  break;
+                } catch(Deopt | StackOverflowError e) {
+                  JitCompiler.deoptimized(fChunk);
+                }
+              }
+            } else if(!fChunk.jitDisabled && JitCompiler.getThreshold() > 0 && ++fChunk.calls >= JitCompiler.getThreshold()) {
+              JitCompiler.compile(fChunk);
+            }
+
+            //Constants of the running function could keep the called function from assigning its own names.
+            if(code[at] == TAIL_CALL && !chunk.trackConstants) {
+              frame = replace(func, frame, stack, bp, starts[at]);
+              context = frame.getContext();
+
+              sp = calls[callSize - 1].sp;
+              if(sp + fChunk.maxStack + 1 > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, sp + fChunk.maxStack + 1));
+              }
+
+              chunk = fChunk;
+              code = chunk.code;
+              pool = chunk.pool;
+              starts = chunk.starts;
+              ends = chunk.ends;
+              ip = 0;
+              break;
+            }
+
+            Context fContext = new Context(func, fChunk.globals, context, starts[at]);
+            if(fContext.isTooDeep()) {
+              error = callDepth(Context.getMaxDepth(), starts[at], ends[at], context);
+              break;
+            }
+
+            Output.poll();
+            Frame fFrame = new Frame(fChunk.names, fChunk.trackConstants, frame, fContext);
+            for(int i = 0; i < argc; i++) {
+              fFrame.set(fChunk.argSlots[i], stack[bp + 1 + i], false);
+            }
+
+            if(callSize == calls.length) {
+              calls = Arrays.copyOf(calls, callSize * 2);
+            }
+            if(calls[callSize] == null) {
+              calls[callSize] = new CallFrame();
+            }
+            calls[callSize++].save(chunk, ip, at, bp, frame);
+
+            if(bp + fChunk.maxStack + 1 > stack.length) {
+              stack = Arrays.copyOf(stack, Math.max(stack.length * 2, bp + fChunk.maxStack + 1));
+            }
+
+            sp = bp;
+            chunk = fChunk;
+            code = chunk.code;
+            pool = chunk.pool;
+            starts = chunk.starts;
+            ends = chunk.ends;
+            frame = fFrame;
+            context = fContext;
+            ip = 0;
+            break;
+          }
+
+          BaseFunc func = (BaseFunc) callee;
+          Val[] argValues = Arrays.copyOfRange(stack, bp + 1, bp + 1 + argc);
+
+          Val result;
+          try {
+            if(func instanceof SysFunc) {
+              result = ((SysFunc) func).call(argValues, starts[at], ends[at], context);
+            } else {
+              result = func.execute(Arrays.asList(argValues), starts[at], ends[at], context);
+            }
+          } catch(Failure f) {
+            error = f.getError();
+            break;
+          }
+
+          sp = bp;
+          stack[sp++] = result;
+          break;
+        }
+
+        case RETURN:
+        case RETURN_VOID: {
+          Val result = code[at] == RETURN ? stack[--sp] : Val.VOID;
+          CallFrame call = calls[--callSize];
+
+          chunk = call.chunk;
+          code = chunk.code;
+          pool = chunk.pool;
+          starts = chunk.starts;
+          ends = chunk.ends;
+          frame = call.frame;
+          context = frame.getContext();
+          ip = call.ip;
+          sp = call.sp;
+
+          stack[sp++] = result;
+          break;
+        }
+
+        case POP:
+          sp--;
+          break;
+
+        case SWAP: {
+          Val top = stack[sp - 1];
+          stack[sp - 1] = stack[sp - 2];
+          stack[sp - 2] = top;
+          break;
+        }
+
+        case JUMP:
+          ip = code[ip];
+          break;
+
+        case JUMP_FALSE:
+        case JUMP_TRUE: {
+          Val cond = stack[--sp];
+
+          if(!(cond instanceof Bool)) {
+            error = unexpectedType("Boolean", cond, starts[at], ends[at], context);
+            break;
+          }
+
+          if(((Bool) cond).getValue() == (code[at] == JUMP_TRUE)) {
+            ip = code[ip];
+
+            //Jumps back and calls are where held output is flushed once it's been held too long.
+            if(ip < at) {Output.poll();}
+          } else {
+            ip++;
+          }
+          break;
+        }
+
+        case CHECK_BOOL:
+          if(!(stack[sp - 1] instanceof Bool)) {
+            error = unexpectedType("Boolean", stack[sp - 1], starts[at], ends[at], context);
+          }
+          break;
+
+        case CHECK_NUM:
+          if(!(stack[sp - 1] instanceof Num)) {
+            error = unexpectedType("Number", stack[sp - 1], starts[at], ends[at], context);
+          }
+          break;
+
+        case UNARY: {
+          int idx = code[ip++];
+          Val value = stack[sp - 1];
+
+          Val result = null;
+          if(value instanceof Num) {
+            Token op = (Token) pool[idx];
+            if(!op.isType(Type.SUB)) {
+              error = unexpectedOperation("Number", op, context);
+              break;
+            }
+
+            try {
+              result = ((VFunc) pool[idx + 1]).run(value, Num.valueOf(-1), starts[at], ends[at], context);
+            } catch(Failure f) {
+              error = f.getError();
+              break;
+            }
+          } else if(value instanceof Bool) {
+            result = ((Bool) value).not();
+          } else {
+            error = illegalOperation("unary", value, starts[at], ends[at], context);
+            break;
+          }
+
+          stack[sp - 1] = result;
+          break;
+        }
+
+        case BINARY: {
+          int idx = code[ip++];
+          VFunc[] funcs = (VFunc[]) pool[idx];
+          Val lVal = stack[sp - 2], rVal = stack[sp - 1];
+
+          VFunc func = null;
+          if(lVal instanceof Num) {
+            func = funcs[0];
+          } else if(lVal instanceof Str) {
+            func = funcs[1];
+          } else if(lVal instanceof Bool) {
+            func = funcs[2];
+          } else if(lVal instanceof Array) {
+            func = funcs[3];
+          } else {
+            error = illegalOperation("binary", lVal, starts[at], ends[at], context);
+            break;
+          }
+
+          if(func == null) {
+            error = unexpectedOperation(lVal.getType().toString(), (Token) pool[idx + 1], context);
+            break;
+          }
+
+          Node rNode = (Node) pool[idx + 2];
+          try {
+            stack[sp - 2] = func.run(lVal, rVal, rNode.getStart(), rNode.getEnd(), context);
+          } catch(Failure f) {
+            error = f.getError();
+            break;
+          }
+
+          sp--;
+          break;
+        }
+
+        case ELEMENT: {
+          int count = code[ip++], idx = code[ip++];
+          Val value = stack[sp - 1];
+
+          ValType valType = elementType(stack, sp - 1 - count, count);
+          if(valType == null) {
+            if(value.isType(ValType.VOID)) {
+              error = voidValue((Node) pool[idx], context);
+            }
+          } else if(!value.isType(valType)) {
+            error = unexpectedType(valType.toString(), value, starts[at], ends[at], context);
+          }
+          break;
+        }
+
+        case ARRAY: {
+          int count = code[ip++];
+
+          List<Val> values = new ArrayList<Val>(count);
+          for(int i = sp - count; i < sp; i++) {
+            values.add(stack[i]);
+          }
+
+          Array arr = new Array(elementType(stack, sp - count, count), values);
+
+          sp -= count;
+          stack[sp++] = arr;
+          break;
+        }
+
+        case CAST: {
+          ValType cast = (ValType) pool[code[ip++]];
+          Val oVal = stack[sp - 1];
+
+          Val nVal = oVal.castTo(cast);
+          if(nVal == null) {
+            error = new RuntimeError(
+              "Casting",
+              "Cast from " + oVal.getType() + " to " + cast + " failed.",
+              starts[at], ends[at], context
+            );
+            break;
+          }
+
+          stack[sp - 1] = nVal;
+          break;
+        }
+
+        case FOR_CHECK: {
+          Val iVal = ((Ref) pool[code[ip++]]).get(frame);
+
+          if(!(iVal instanceof Num)) {
+            error = unexpectedType("Number", iVal, starts[at], ends[at], context);
+          }
+          stack[sp++] = iVal;
+          break;
+        }
+
+        case FOR_STEP: {
+          int idx = code[ip++];
+          Ref ref = (Ref) pool[idx];
+
+          try {
+            stack[sp - 2] = ((VFunc) pool[idx + 1]).run(stack[sp - 2], stack[sp - 1], starts[at], ends[at], context);
+            ref.set(frame, stack[sp - 2], false);
+          } catch(Failure f) {
+            error = f.getError();
+          }
+          break;
+        }
+
+        case CLEAR:
+          ((Ref) pool[code[ip++]]).clear(frame);
+          break;
+
+        case HALT:
+          return res.success(Val.VOID);
+
+        default:
+          error = new RuntimeError(
+            "Bytecode",
+            "Unknown instruction " + code[at] + ".",
+            starts[at], ends[at], context
+          );
+      }
+    }
+
+    //Iterators of every loop the error escapes are removed.
+    clearLoops(chunk, at, frame);
+    for(int i = callSize - 1; i >= 0; i--) {
+      clearLoops(calls[i].chunk, calls[i].at, calls[i].frame);
+    }
+
+    return res.failure(error);
+  }
+
+  /*
+   * Returns the Frame a call in tail position runs in, taking the place
+   * of the running function's call. A function calling itself keeps its
+   * Frame and Context. Otherwise a new Frame still sees the values of the
+   * one it replaces, while its Context takes the place of the replaced one.
+   */
+  private static Frame replace(VMFunc func, Frame frame, Val[] stack, int bp, Position entry) {
+    Chunk fChunk = func.chunk;
+    Context context = frame.getContext();
+
+    Frame next;
+    if(context.getFunction() == func) {
+      context.countTailCalls(1);
+      next = frame;
+    } else {
+      Context fContext = new Context(func, fChunk.globals, context.getParent(), entry);
+      fContext.countTailCalls(context.getTailCalls() + 1);
+      next = new Frame(fChunk.names, fChunk.trackConstants, frame, fContext);
+    }
+
+    for(int i = 0; i < fChunk.argSlots.length; i++) {
+      next.set(fChunk.argSlots[i], stack[bp + 1 + i], false);
+    }
+
+    return next;
+  }
+
+  //Returns the type of the first value in an Array that isn't null.
+  private static ValType elementType(Val[] stack, int from, int count) {
+    for(int i = from; i < from + count; i++) {
+      if(!stack[i].isType(ValType.NULL)) {
+        return stack[i].getType();
+      }
+    }
+
+    return null;
+  }
+
+  private static void clearLoops(Chunk chunk, int at, Frame frame) {
+    for(int i = 0; i < chunk.loopSize; i++) {
+      if(at >= chunk.loopStarts[i] && at < chunk.loopEnds[i]) {
+        chunk.loopRefs[i].clear(frame);
+      }
+    }
+  }
+}
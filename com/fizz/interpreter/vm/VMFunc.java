@@ -0,0 +1,36 @@
+package com.fizz.interpreter.vm;
+
+import java.util.List;
+
+import com.fizz.interpreter.value.UserFunc;
+import com.fizz.parser.node.Node;
+
+/**
+ * A UserFunc whose statement has been compiled into a {@link Chunk}
+ * by the {@link BytecodeCompiler}. It's called by the {@link VM}
+ * without growing the Java stack.
+ * @author Noah James Rathman
+ */
+public class VMFunc extends UserFunc {
+  final Chunk chunk;
+
+  /**
+   * Creates a new VMFunc.
+   * @param name Name of function
+   * @param argNames Names of function arguments
+   * @param statement Statement of function
+   * @param chunk Compiled statement of function
+   */
+  public VMFunc(String name, List<String> argNames, Node statement, Chunk chunk) {
+    super(name, argNames, statement);
+    this.chunk = chunk;
+  }
+
+  /**
+   * Returns the compiled statement of this function.
+   * @return Function Chunk
+   */
+  public Chunk getChunk() {
+    return chunk;
+  }
+}
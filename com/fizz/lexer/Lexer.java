@@ -1,22 +1,43 @@
 package com.fizz.lexer;
 
-import java.util.List;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 
 import com.fizz.lexer.token.*;
 import com.fizz.util.Position;
+import com.fizz.util.Source;
 import com.fizz.util.Constants;
 import com.fizz.util.error.Error;
 import com.fizz.util.error.LexerError;
 
 /**
- * Splits the input Fizz code into a list of {@link com.fizz.lexer.token.Token}s.
+ * Splits the input Fizz code into {@link com.fizz.lexer.token.Token}s,
+ * which are handed to the Parser as it needs them.
+ * <p>
+ * Code is read from a Reader a chunk at a time, with carriage returns
+ * dropped as each chunk is read, so only the chunk holding the current
+ * Token is ever in memory. Each Token records the range of source
+ * characters it came from in a {@link com.fizz.lexer.token.TokenBuffer}.
+ * Text is only taken out of the chunk once a Token is made, in one
+ * piece, and identifiers are interned so each name is only ever created
+ * once.
  * @author Noah James Rathman
  */
 public final class Lexer {
-  private static Position pos;
+  private static final int CHUNK_SIZE = 1 << 13;
+  private static final int BATCH_SIZE = 1 << 12;
+  private static final boolean[] MATCHABLE = createTable(Constants.MATCHABLE);
+  private static final boolean[] EQUALABLE = createTable(Constants.EQUALABLE);
+
+  private static Reader reader;
+  private static char[] chars;
+  private static int base, length, mark, idx;
+  private static boolean done;
+  private static TokenBuffer tokens;
   private static Error error;
-  private static String text;
   private static char curChar;
 
   //Lexer should never be instanced.
@@ -44,166 +65,286 @@ public final class Lexer {
    * @param fText File text
    */
   public static void init(String fName, String fText) {
-    pos = new Position(fName, fText);
+    init(new Source(fName, fText), new StringReader(fText));
+  }
+
+  /**
+   * Resets the Lexer and prepares it to read the passed Reader, which
+   * has to give the same text as the passed Source. The Reader isn't
+   * closed by the Lexer.
+   * @param source Source of code
+   * @param _reader Reader of code
+   * @throws UncheckedIOException If the Reader can't be read
+   */
+  public static void init(Source source, Reader _reader) {
+    NameTable.reset();
+    reader = _reader;
+    chars = new char[CHUNK_SIZE];
+    base = 0;
+    length = 0;
+    mark = 0;
+    done = false;
+    tokens = new TokenBuffer(source, BATCH_SIZE);
     error = null;
-    text = fText;
+    idx = -1;
     curChar = 0;
 
     advance();
   }
 
   private static void advance() {
-    pos.advance(curChar);
+    idx++;
 
-    curChar = (pos.getIndex() < text.length() ? text.charAt(pos.getIndex()) : 0);
+    while(idx - base >= length && !done) {
+      read();
+    }
+
+    curChar = (idx - base < length ? chars[idx - base] : 0);
+  }
+
+  /*
+   * Reads the next chunk of code, keeping every character from the
+   * start of the current Token.
+   */
+  private static void read() {
+    int keep = Math.min(mark, idx) - base;
+    if(keep > 0) {
+      System.arraycopy(chars, keep, chars, 0, length - keep);
+      base += keep;
+      length -= keep;
+    }
+
+    if(length == chars.length) {
+      chars = Arrays.copyOf(chars, chars.length * 2);
+    }
+
+    try {
+      int count = reader.read(chars, length, chars.length - length);
+      if(count < 0) {
+        done = true;
+        return;
+      }
+
+      //Carriage returns are dropped, so indexes match the text Sources give.
+      int end = length + count;
+      for(int i = length; i < end; i++) {
+        if(chars[i] != '\r') {
+          chars[length++] = chars[i];
+        }
+      }
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  //Marks which ASCII characters are in the passed String.
+  private static boolean[] createTable(String symbols) {
+    boolean[] table = new boolean[128];
+    for(int i = 0; i < symbols.length(); i++) {
+      table[symbols.charAt(i)] = true;
+    }
+
+    return table;
+  }
+
+  private static boolean isIn(boolean[] table, char c) {
+    return c < table.length && table[c];
+  }
+
+  //Positions are only created for Errors.
+  private static Position position() {
+    return tokens.getPosition(idx);
+  }
+
+  private static boolean isDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 128 && Character.isDigit(c));
+  }
+
+  private static boolean isIdStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_'
+      || (c >= 128 && Character.isAlphabetic(c));
+  }
+
+  private static boolean isIdPart(char c) {
+    return isIdStart(c) || isDigit(c);
+  }
+
+  /**
+   * Returns if the passed name would be lexed as a single identifier
+   * or keyword.
+   * @param name Name to check
+   * @return True if the name is made only of identifier characters
+   * and doesn't start with a digit
+   */
+  public static boolean isIdentifier(String name) {
+    if(name == null || name.isEmpty() || !isIdStart(name.charAt(0))) {
+      return false;
+    }
+
+    for(int i = 1; i < name.length(); i++) {
+      if(!isIdPart(name.charAt(i))) {
+        return false;
+      }
+    }
+
+    return true;
   }
 
   /**
-   * Creates a list of {@link com.fizz.lexer.token.Token}s from the passed Fizz
-   * code and returns them.
-   * @return A List of Tokens to be used in the Parser
+   * Reads the next batch of {@link com.fizz.lexer.token.Token}s. The same
+   * {@link com.fizz.lexer.token.TokenBuffer} is emptied and reused for every
+   * batch, and the last batch ends with an EOF Token. If an Error is found,
+   * the batch holds every Token before it, and every later batch is empty.
+   * @return A TokenBuffer to be used in the Parser
+   * @throws UncheckedIOException If the Reader can't be read
    */
-  public static List<Token> createTokenList() {
-    List<Token> tokens = new ArrayList<Token>();
-    Position start;
+  public static TokenBuffer nextTokens() {
+    tokens.clear();
+    if(error != null) {return tokens;}
 
     while(curChar != 0) {
-      start = pos.copy();
+      if(tokens.size() == BATCH_SIZE) {return tokens;}
+      mark = idx;
 
       if(curChar == ' ' || curChar == '\t' || curChar == '\n') {
         advance();
-      } else if(Character.isDigit(curChar)) {
-        Token num = makeNumber();
-        if(num == null) {return null;}
-
-        tokens.add(num);
-      } else if(Character.isAlphabetic(curChar) || curChar == '_') {
-        tokens.add(makeIdentifier());
-      } else if(Constants.MATCHABLE.indexOf(curChar) != -1) {
-        Type type = Type.getMatchingType(String.valueOf(curChar));
+      } else if(isDigit(curChar)) {
+        if(!makeNumber()) {return tokens;}
+      } else if(isIdStart(curChar)) {
+        makeIdentifier();
+      } else if(isIn(MATCHABLE, curChar)) {
+        int start = idx;
+        Type type = Type.getMatchingType(curChar);
         advance();
 
-        tokens.add(new Token(type, start, pos.copy()));
-      } else if(Constants.EQUALABLE.indexOf(curChar) != -1) {
-        tokens.add(makeEquals());
+        tokens.add(type, null, start, idx);
+      } else if(isIn(EQUALABLE, curChar)) {
+        makeEquals();
       } else if(curChar == '\"') {
-        Token str = makeString();
-        if(str == null) {return null;}
-
-        tokens.add(str);
+        if(!makeString()) {return tokens;}
       } else {
+        Position start = position();
         char cur = curChar;
         advance();
 
-        error = LexerError.illegalCharacter(cur, start, pos.copy());
-        return null;
+        error = LexerError.illegalCharacter(cur, start, position());
+        return tokens;
       }
     }
 
-    start = pos.copy();
+    int start = idx;
     advance();
-    tokens.add(new Token(Type.EOF, start, pos.copy()));
+    tokens.add(Type.EOF, null, start, idx);
 
     return tokens;
   }
 
-  private static Token makeNumber() {
-    String num = "";
-    Position start = pos.copy();
+  private static boolean makeNumber() {
+    int from = idx;
     boolean flo = false;
 
-    while(curChar != 0 && (Character.isDigit(curChar) || curChar == '.')) {
+    while(curChar != 0 && (isDigit(curChar) || curChar == '.')) {
       if(curChar == '.') {
         if(flo) {
-          start = pos.copy();
+          Position start = position();
           advance();
 
-          error = LexerError.numberFormat(start, pos.copy());
-          return null;
+          error = LexerError.numberFormat(start, position());
+          return false;
         }
 
         flo = true;
       }
 
-      num += curChar;
       advance();
     }
 
     Type type = flo ? Type.FLOAT : Type.INT;
-    return new Token(type, num, start, pos.copy());
+    tokens.add(type, new String(chars, from - base, idx - from), from, idx);
+    return true;
   }
 
-  private static Token makeString() {
-    String str = "";
-    Position start = pos.copy();
-
+  private static boolean makeString() {
+    int start = idx;
     advance();
+
+    //Strings without escapes are taken straight from the source.
+    int from = idx;
+    StringBuilder str = null;
+
     while(true) {
       if(curChar == '\"') {
         break;
       } else if(curChar == '\\') {
+        if(str == null) {
+          str = new StringBuilder(idx - from + 16).append(chars, from - base, idx - from);
+        }
         advance();
 
         if(curChar == '\\') {
-          str += "\\";
+          str.append('\\');
         } else if(curChar == '"') {
-          str += "\"";
+          str.append('"');
         } else if(curChar == 'n') {
-          str += "\n";
+          str.append('\n');
         } else if(curChar == 't') {
-          str += "\t";
+          str.append('\t');
         } else {
           char cur = curChar;
-          start = pos.copy();
+          Position pos = position();
           advance();
 
-          error = LexerError.illegalEscape(cur, start, pos.copy());
-          return null;
+          error = LexerError.illegalEscape(cur, pos, position());
+          return false;
         }
 
         advance();
         continue;
       } else if(curChar == 0) {
-        start = pos.copy();
+        Position pos = position();
         advance();
 
-        error = LexerError.unclosedString(start, pos.copy());
-        return null;
+        error = LexerError.unclosedString(pos, position());
+        return false;
       }
 
-      str += curChar;
+      if(str != null) {
+        str.append(curChar);
+      }
       advance();
     }
 
+    String value = str != null ? str.toString() : new String(chars, from - base, idx - from);
     advance();
-    return new Token(Type.STR, str, start, pos.copy());
+    tokens.add(Type.STR, value, start, idx);
+    return true;
   }
 
-  private static Token makeIdentifier() {
-    String id = "";
-    Position start = pos.copy();
+  private static void makeIdentifier() {
+    int from = idx;
 
-    while(Character.isAlphabetic(curChar) || Character.isDigit(curChar) || curChar == '_') {
-      id += curChar;
+    while(isIdPart(curChar)) {
       advance();
     }
 
-    Type type = Constants.isKey(id) ? Type.KEY : Type.ID;
-    return new Token(type, id, start, pos.copy());
+    int slot = NameTable.slotOf(chars, from - base, idx - base);
+    Type type = NameTable.isKeyAt(slot) ? Type.KEY : Type.ID;
+    tokens.add(type, NameTable.nameAt(slot), from, idx);
   }
 
-  private static Token makeEquals() {
-    String op = "";
-    Position start = pos.copy();
-    int count = 0;
+  private static void makeEquals() {
+    int start = idx;
+    char first = curChar;
+    advance();
 
-    do {
-      op += curChar;
+    Type type;
+    if(curChar == '=') {
       advance();
-      count++;
-    } while(curChar == '=' && count < 2);
+      type = Type.getMatchingType(first, '=');
+    } else {
+      type = Type.getMatchingType(first);
+    }
 
-    Type type = Type.getMatchingType(op);
-    return new Token(type, start, pos.copy());
+    tokens.add(type, null, start, idx);
   }
 }
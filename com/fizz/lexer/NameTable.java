@@ -0,0 +1,128 @@
+package com.fizz.lexer;
+
+import com.fizz.util.Constants;
+
+/**
+ * Interns the identifiers and keywords read by the {@link Lexer}.
+ * Names are looked up straight from the range of source characters
+ * holding them, so a name which has been seen before is found without
+ * creating a String, and every use of a name shares one String.
+ * <p>
+ * The table is emptied whenever the Lexer starts on new code, so names
+ * are only shared within one tree and never outlive it.
+ * @author Noah James Rathman
+ */
+final class NameTable {
+  private static final int INITIAL_SIZE = 256;
+
+  private static String[] names;
+  private static boolean[] keys;
+  private static int size;
+
+  static {
+    reset();
+  }
+
+  //NameTable should never be instanced.
+  private NameTable() {}
+
+  /**
+   * Empties the table, leaving only the keywords.
+   */
+  static void reset() {
+    names = new String[INITIAL_SIZE];
+    keys = new boolean[INITIAL_SIZE];
+    size = 0;
+
+    for(String key : Constants.KEYWORDS) {
+      char[] chars = key.toCharArray();
+      keys[slotOf(chars, 0, chars.length)] = true;
+    }
+  }
+
+  /**
+   * Returns the slot of the name held in the passed range of characters,
+   * adding the name if it hasn't been seen before.
+   * @param chars Source characters
+   * @param from Index of the name's first character
+   * @param to Index after the name's last character
+   * @return Slot of name
+   */
+  static int slotOf(char[] chars, int from, int to) {
+    int hash = 0;
+    for(int i = from; i < to; i++) {
+      hash = 31 * hash + chars[i];
+    }
+
+    int mask = names.length - 1;
+    for(int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      String name = names[slot];
+
+      if(name == null) {
+        names[slot] = new String(chars, from, to - from);
+        if(++size * 2 > names.length) {
+          grow();
+          return slotOf(chars, from, to);
+        }
+
+        return slot;
+      } else if(name.hashCode() == hash && matches(name, chars, from, to)) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the name held in the passed slot.
+   * @param slot Slot given by {@link #slotOf}
+   * @return Interned name
+   */
+  static String nameAt(int slot) {
+    return names[slot];
+  }
+
+  /**
+   * Returns if the name held in the passed slot is a keyword.
+   * @param slot Slot given by {@link #slotOf}
+   * @return True if the name is a keyword
+   */
+  static boolean isKeyAt(int slot) {
+    return keys[slot];
+  }
+
+  //Spreads the hash, as names often differ only in their last characters.
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean matches(String name, char[] chars, int from, int to) {
+    if(name.length() != to - from) {return false;}
+
+    for(int i = from; i < to; i++) {
+      if(name.charAt(i - from) != chars[i]) {return false;}
+    }
+
+    return true;
+  }
+
+  private static void grow() {
+    String[] oldNames = names;
+    boolean[] oldKeys = keys;
+
+    names = new String[oldNames.length * 2];
+    keys = new boolean[oldNames.length * 2];
+
+    int mask = names.length - 1;
+    for(int i = 0; i < oldNames.length; i++) {
+      if(oldNames[i] == null) {continue;}
+
+      int slot = mix(oldNames[i].hashCode()) & mask;
+      while(names[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+
+      names[slot] = oldNames[i];
+      keys[slot] = oldKeys[i];
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.fizz.lexer.token;
+
+import java.util.Arrays;
+
+import com.fizz.util.Position;
+import com.fizz.util.Source;
+
+/**
+ * Holds the Tokens of a file as parallel arrays instead of as separate
+ * objects. Each Token is a {@link Type} ordinal, the indexes of its first
+ * and last characters and, for Tokens with one, its value. Tokens and
+ * Positions are only created when asked for, which for most Tokens is
+ * never.
+ * @author Noah James Rathman
+ */
+public final class TokenBuffer {
+  private static final Type[] TYPES = Type.values();
+
+  private Source source;
+  private byte[] types;
+  private int[] starts, ends;
+  private String[] values;
+  private int size;
+
+  /**
+   * Creates an empty TokenBuffer for a file.
+   * @param source Source of Tokens
+   * @param capacity Expected number of Tokens
+   */
+  public TokenBuffer(Source source, int capacity) {
+    this.source = source;
+
+    capacity = Math.max(capacity, 16);
+    types = new byte[capacity];
+    starts = new int[capacity];
+    ends = new int[capacity];
+    values = new String[capacity];
+    size = 0;
+  }
+
+  /**
+   * Adds a Token to the end of the buffer.
+   * @param type Type of Token
+   * @param value Value of Token, or null if it has none
+   * @param start Index of the Token's first character
+   * @param end Index after the Token's last character
+   */
+  public void add(Type type, String value, int start, int end) {
+    if(size == types.length) {
+      int capacity = size + (size >> 1);
+
+      types = Arrays.copyOf(types, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    types[size] = (byte) type.ordinal();
+    starts[size] = start;
+    ends[size] = end;
+    values[size] = value;
+    size++;
+  }
+
+  /**
+   * Empties the buffer so it can be filled again.
+   */
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * Returns the number of Tokens in the buffer.
+   * @return Token count
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the type of the Token at the passed index.
+   * @param i Index of Token
+   * @return Token type
+   */
+  public Type getType(int i) {
+    return TYPES[types[i]];
+  }
+
+  /**
+   * Returns the value of the Token at the passed index.
+   * @param i Index of Token
+   * @return Token value, or null if it has none
+   */
+  public String getValue(int i) {
+    return values[i];
+  }
+
+  /**
+   * Returns the start of the Token at the passed index.
+   * @param i Index of Token
+   * @return Token start
+   */
+  public Position getStart(int i) {
+    return getPosition(starts[i]);
+  }
+
+  /**
+   * Returns the end of the Token at the passed index.
+   * @param i Index of Token
+   * @return Token end
+   */
+  public Position getEnd(int i) {
+    return getPosition(ends[i]);
+  }
+
+  /**
+   * Creates a {@link Token} from the Token at the passed index.
+   * @param i Index of Token
+   * @return Token at index
+   */
+  public Token getToken(int i) {
+    return new Token(getType(i), values[i], getStart(i), getEnd(i));
+  }
+
+  /**
+   * Returns the Position of the character at the passed index of the file.
+   * @param idx Index of character
+   * @return Position of character
+   */
+  public Position getPosition(int idx) {
+    return new Position(source, idx);
+  }
+}
@@ -1,5 +1,8 @@
 package com.fizz.lexer.token;
 
+import java.util.Map;
+import java.util.HashMap;
+
 /**
  * Used in tandem with {@link com.fizz.lexer.token.Token}s to help identify their use.
  * @author Noah James Rathman
@@ -67,6 +70,28 @@ public enum Type {
   /** Represents the end of the file. */
   EOF("EoF");
 
+  //Types by repr value, with one and two character symbols indexed by their characters.
+  private static final Map<String, Type> REPRS = new HashMap<String, Type>();
+  private static final Type[] SINGLES = new Type[128];
+  private static final Type[][] PAIRS = new Type[128][];
+
+  static {
+    for(Type t : values()) {
+      final String REPR = t.repr;
+      REPRS.put(REPR, t);
+
+      if(REPR.length() == 1 && REPR.charAt(0) < 128) {
+        SINGLES[REPR.charAt(0)] = t;
+      } else if(REPR.length() == 2 && REPR.charAt(0) < 128 && REPR.charAt(1) < 128) {
+        if(PAIRS[REPR.charAt(0)] == null) {
+          PAIRS[REPR.charAt(0)] = new Type[128];
+        }
+
+        PAIRS[REPR.charAt(0)][REPR.charAt(1)] = t;
+      }
+    }
+  }
+
   //Class
   private String repr;
 
@@ -81,15 +106,32 @@ public enum Type {
    * none match that value, {@code null} is returned.
    */
   public static Type getMatchingType(String repr) {
-    final Type[] ALL = Type.values();
+    return REPRS.get(repr);
+  }
 
-    for(Type t : ALL) {
-      if(t.repr.equals(repr)) {
-        return t;
-      }
+  /**
+   * Returns the Type whose repr value is the passed character.
+   * @param repr Character to match
+   * @return Type which matches the passed character. If
+   * none match it, {@code null} is returned.
+   */
+  public static Type getMatchingType(char repr) {
+    return repr < SINGLES.length ? SINGLES[repr] : null;
+  }
+
+  /**
+   * Returns the Type whose repr value is the passed pair of characters.
+   * @param first First character to match
+   * @param second Second character to match
+   * @return Type which matches the passed characters. If
+   * none match them, {@code null} is returned.
+   */
+  public static Type getMatchingType(char first, char second) {
+    if(first >= PAIRS.length || second >= PAIRS.length || PAIRS[first] == null) {
+      return null;
     }
 
-    return null;
+    return PAIRS[first][second];
   }
 
   public String toString() {
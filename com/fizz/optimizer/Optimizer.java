@@ -0,0 +1,506 @@
+package com.fizz.optimizer;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+
+import com.fizz.lexer.token.*;
+import com.fizz.parser.node.*;
+import com.fizz.interpreter.value.*;
+import com.fizz.util.context.Symbol;
+import com.fizz.util.context.SymbolTable;
+import com.fizz.util.function.OFunc;
+import com.fizz.util.function.VFunc;
+import com.fizz.util.error.Failure;
+
+/**
+ * Runs between the Parser and execution, replacing every part of the
+ * Abstract Syntax Tree whose value is known beforehand with a
+ * {@link ConstNode}. Literals are turned into their values once, and
+ * operations and casts on constants are done here instead of each time
+ * they run.
+ * <p>
+ * A name is replaced by its value when nothing in the tree ever
+ * declares it and it's a constant of the program's SymbolTable, or when
+ * its only declaration is a {@code const} at the top of the program
+ * with a constant value. In the latter case only the uses written after
+ * the declaration are replaced.
+ * <p>
+ * Operations which fail are left as they are, so their Errors are still
+ * found when the program runs, at the same place and in the same order.
+ * @author Noah James Rathman
+ */
+public final class Optimizer {
+  private static Map<String, OFunc> FUNCTIONS;
+  private static SymbolTable globals;
+  private static Node root;
+  private static int depth, loops;
+  private static Map<String, Integer> bound;
+  private static Map<String, Val> constants;
+  private static SymbolTable builtIns;
+  private static boolean portable;
+
+  //Optimizer should never be instanced.
+  private Optimizer() {}
+
+  /**
+   * Initializes the Optimizer by putting all optimize methods
+   * into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, OFunc>();
+
+    FUNCTIONS.put("ValueNode",          Optimizer::optimizeValueNode);
+    FUNCTIONS.put("UnaryOpNode",        Optimizer::optimizeUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          Optimizer::optimizeBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      Optimizer::optimizeVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      Optimizer::optimizeVarAssignNode);
+    FUNCTIONS.put("CallNode",           Optimizer::optimizeCallNode);
+    FUNCTIONS.put("FuncDefNode",        Optimizer::optimizeFuncDefNode);
+    FUNCTIONS.put("StatementNode",      Optimizer::optimizeStatementNode);
+    FUNCTIONS.put("ReturnNode",         Optimizer::optimizeReturnNode);
+    FUNCTIONS.put("ArrayNode",          Optimizer::optimizeArrayNode);
+    FUNCTIONS.put("CastNode",           Optimizer::optimizeCastNode);
+    FUNCTIONS.put("IfNode",             Optimizer::optimizeIfNode);
+    FUNCTIONS.put("WhileNode",          Optimizer::optimizeWhileNode);
+    FUNCTIONS.put("ForNode",            Optimizer::optimizeForNode);
+  }
+
+  /**
+   * Optimizes the passed Abstract Syntax Tree. Nodes holding Lists are
+   * changed in place, while other Nodes are replaced.
+   * @param ast Root Node of the tree
+   * @param _globals SymbolTable of the program the tree will run in
+   * @return Optimized root Node
+   */
+  public static Node optimize(Node ast, SymbolTable _globals) {
+    globals = _globals;
+    root = ast;
+    depth = 0;
+    loops = 0;
+    bound = new HashMap<String, Integer>();
+    constants = new HashMap<String, Val>();
+    portable = true;
+
+    try {
+      bind(ast);
+      return optimize(ast);
+    } finally {
+      globals = null;
+      root = null;
+      bound = null;
+      constants = null;
+    }
+  }
+
+  /**
+   * Returns if the last optimized tree only replaced names with values
+   * every global SymbolTable starts with, so it can run with any of them.
+   * @return True if the tree doesn't depend on its global SymbolTable
+   */
+  public static boolean isPortable() {
+    return portable;
+  }
+
+  private static Node optimize(Node node) {
+    OFunc func = FUNCTIONS.get(node.getClass().getSimpleName());
+
+    //Nodes without an optimize method have nothing to fold.
+    if(func != null) {
+      return func.run(node);
+    }
+
+    return node;
+  }
+
+  private static void optimizeAll(List<Node> nodes) {
+    for(int i = 0; i < nodes.size(); i++) {
+      nodes.set(i, optimize(nodes.get(i)));
+    }
+  }
+
+  //Returns every Node held directly by the passed Node.
+  private static List<Node> children(Node node) {
+    List<Node> nodes = new ArrayList<Node>();
+
+    if(node instanceof VarAssignNode) {
+      nodes.add(((VarAssignNode) node).getExpr());
+    } else if(node instanceof FuncDefNode) {
+      nodes.add(((FuncDefNode) node).getStatement());
+    } else if(node instanceof StatementNode) {
+      nodes.addAll(((StatementNode) node).getStatements());
+    } else if(node instanceof IfNode) {
+      IfNode iNode = (IfNode) node;
+
+      nodes.addAll(iNode.getConditions());
+      nodes.addAll(iNode.getExpressions());
+      if(iNode.getElseCase() != null) {
+        nodes.add(iNode.getElseCase());
+      }
+    } else if(node instanceof WhileNode) {
+      nodes.add(((WhileNode) node).getCondition());
+      nodes.add(((WhileNode) node).getExpression());
+    } else if(node instanceof ForNode) {
+      ForNode fNode = (ForNode) node;
+
+      nodes.add(fNode.getIterator());
+      nodes.add(fNode.getCondition());
+      if(fNode.getStep() != null) {
+        nodes.add(fNode.getStep());
+      }
+      nodes.add(fNode.getExpression());
+    } else if(node instanceof CallNode) {
+      nodes.addAll(((CallNode) node).getArgValues());
+    } else if(node instanceof ArrayNode && ((ArrayNode) node).getValues() != null) {
+      nodes.addAll(((ArrayNode) node).getValues());
+    } else if(node instanceof ReturnNode) {
+      nodes.add(((ReturnNode) node).getExpression());
+    } else if(node instanceof BinOpNode) {
+      nodes.add(((BinOpNode) node).getLeftNode());
+      nodes.add(((BinOpNode) node).getRightNode());
+    } else if(node instanceof UnaryOpNode) {
+      nodes.add(((UnaryOpNode) node).getNode());
+    } else if(node instanceof CastNode) {
+      nodes.add(((CastNode) node).getExpression());
+    }
+
+    return nodes;
+  }
+
+  //Counts every declaration of each name, found anywhere in the tree.
+  private static void bind(Node node) {
+    if(node instanceof VarAssignNode) {
+      bound.merge(((VarAssignNode) node).getName().getValue(), 1, Integer::sum);
+    } else if(node instanceof FuncDefNode) {
+      FuncDefNode fNode = (FuncDefNode) node;
+
+      bound.merge(fNode.getName(), 1, Integer::sum);
+      for(String arg : fNode.getArgNames()) {
+        bound.merge(arg, 1, Integer::sum);
+      }
+    }
+
+    for(Node child : children(node)) {
+      bind(child);
+    }
+  }
+
+  //Returns if anything in the passed Node can give the name a new value.
+  private static boolean assigns(Node node, String id) {
+    if(node instanceof VarAssignNode && ((VarAssignNode) node).getName().hasValue(id)) {
+      return true;
+    } else if(node instanceof FuncDefNode && ((FuncDefNode) node).getName().equals(id)) {
+      return true;
+    }
+
+    for(Node child : children(node)) {
+      if(assigns(child, id)) {return true;}
+    }
+
+    return false;
+  }
+
+  /*
+   * Returns if anything in the passed Node can read the name. Functions
+   * may see the names of their callers, so calls are counted as reads
+   * unless they're to a system function.
+   */
+  private static boolean reads(Node node, String id) {
+    if(node instanceof VarAccessNode && ((VarAccessNode) node).getName().hasValue(id)) {
+      return true;
+    } else if(node instanceof CallNode && !isSysCall((CallNode) node)) {
+      return true;
+    }
+
+    for(Node child : children(node)) {
+      if(reads(child, id)) {return true;}
+    }
+
+    return false;
+  }
+
+  private static boolean isSysCall(CallNode node) {
+    final String id = node.getName().getValue();
+    if(bound.containsKey(id)) {return false;}
+
+    Symbol sym = globals.get(id);
+    return sym != null && sym.isConstant() && sym.getValue() instanceof SysFunc;
+  }
+
+  private static boolean isBuiltIn(String id, Val value) {
+    if(builtIns == null) {
+      builtIns = SymbolTable.createGST();
+    }
+
+    Symbol sym = builtIns.get(id);
+    return sym != null && sym.getValue() == value;
+  }
+
+  //Only values which can't be changed are ever folded.
+  private static boolean isFoldable(Val value) {
+    return value != null && (value instanceof Num || value instanceof Str || value instanceof Bool || value == Val.NULL);
+  }
+
+  private static Node optimizeValueNode(Node _node) {
+    final ValueNode node = (ValueNode) _node;
+
+    Val value;
+    if(node.getValue().isType(Type.STR)) {
+      value = new Str(node.getValue().getValue());
+    } else {
+      value = Num.valueOf(Double.parseDouble(node.getValue().getValue()));
+    }
+
+    return new ConstNode(value, node.getStart(), node.getEnd());
+  }
+
+  private static Node optimizeUnaryOpNode(Node _node) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+
+    Node operand = optimize(node.getNode());
+    if(!(operand instanceof ConstNode)) {
+      return operand == node.getNode() ? node : new UnaryOpNode(node.getOp(), operand);
+    }
+
+    Val value = ((ConstNode) operand).getValue();
+    Val result = null;
+    if(value.isType(ValType.NUMBER) && node.getOp().isType(Type.SUB)) {
+      result = Num.getFunction(Type.MUL).run(value, Num.valueOf(-1), node.getStart(), node.getEnd(), null);
+    } else if(value.isType(ValType.BOOLEAN)) {
+      result = ((Bool) value).not();
+    }
+
+    if(result == null) {
+      return new UnaryOpNode(node.getOp(), operand);
+    }
+
+    return new ConstNode(result, node.getStart(), node.getEnd());
+  }
+
+  private static Node optimizeBinOpNode(Node _node) {
+    final BinOpNode node = (BinOpNode) _node;
+
+    Node lNode = optimize(node.getLeftNode());
+    Node rNode = optimize(node.getRightNode());
+    Node unfolded = lNode == node.getLeftNode() && rNode == node.getRightNode() ? node : new BinOpNode(lNode, node.getOp(), rNode);
+
+    if(!(lNode instanceof ConstNode && rNode instanceof ConstNode)) {
+      return unfolded;
+    }
+
+    Val lVal = ((ConstNode) lNode).getValue();
+    Val rVal = ((ConstNode) rNode).getValue();
+    Type op = node.getOp().getType();
+
+    VFunc func = null;
+    if(lVal.isType(ValType.NUMBER)) {
+      func = Num.getFunction(op);
+    } else if(lVal.isType(ValType.STRING)) {
+      func = Str.getFunction(op);
+    } else if(lVal.isType(ValType.BOOLEAN)) {
+      func = Bool.getFunction(op);
+    }
+
+    if(func == null) {
+      return unfolded;
+    }
+
+    Val result;
+    try {
+      result = func.run(lVal, rVal, rNode.getStart(), rNode.getEnd(), null);
+    } catch(Failure f) {
+      //Left for the program to fail on, where the Error has a Context.
+      return unfolded;
+    }
+
+    return isFoldable(result) ? new ConstNode(result, node.getStart(), node.getEnd()) : unfolded;
+  }
+
+  private static Node optimizeVarAccessNode(Node _node) {
+    final VarAccessNode node = (VarAccessNode) _node;
+    final String id = node.getName().getValue();
+
+    //A caller's arguments can hide a program's names inside of functions.
+    if(depth > 0) {return node;}
+
+    Val value = constants.get(id);
+    if(value == null && !bound.containsKey(id)) {
+      Symbol sym = globals.get(id);
+
+      if(sym != null && sym.isConstant() && isFoldable(sym.getValue())) {
+        value = sym.getValue();
+        portable &= isBuiltIn(id, value);
+      }
+    }
+
+    return value != null ? new ConstNode(value, node.getStart(), node.getEnd()) : node;
+  }
+
+  private static Node optimizeVarAssignNode(Node _node) {
+    final VarAssignNode node = (VarAssignNode) _node;
+
+    Node expr = optimize(node.getExpr());
+    if(expr == node.getExpr()) {
+      return node;
+    }
+
+    return new VarAssignNode(node.getName(), expr, node.isConstant(), node.getType());
+  }
+
+  private static Node optimizeCallNode(Node _node) {
+    final CallNode node = (CallNode) _node;
+
+    optimizeAll(node.getArgValues());
+    return node;
+  }
+
+  private static Node optimizeFuncDefNode(Node _node) {
+    final FuncDefNode node = (FuncDefNode) _node;
+
+    int outerLoops = loops;
+    depth++;
+    loops = 0;
+    try {
+      optimize(node.getStatement());
+    } finally {
+      depth--;
+      loops = outerLoops;
+    }
+
+    return node;
+  }
+
+  private static Node optimizeStatementNode(Node _node) {
+    final StatementNode node = (StatementNode) _node;
+    final List<Node> statements = node.getStatements();
+
+    for(int i = 0; i < statements.size(); i++) {
+      Node statement = optimize(statements.get(i));
+      statements.set(i, statement);
+
+      //Uses after the only declaration of a program constant see its value.
+      if(node == root && statement instanceof VarAssignNode) {
+        VarAssignNode vNode = (VarAssignNode) statement;
+        String id = vNode.getName().getValue();
+
+        if(vNode.isConstant() && vNode.getExpr() instanceof ConstNode && bound.get(id) == 1) {
+          constants.put(id, ((ConstNode) vNode.getExpr()).getValue());
+        }
+      }
+    }
+
+    return node;
+  }
+
+  private static Node optimizeReturnNode(Node _node) {
+    final ReturnNode node = (ReturnNode) _node;
+
+    Node expr = optimize(node.getExpression());
+    ReturnNode result = expr == node.getExpression() ? node : new ReturnNode(expr);
+
+    /*
+     * Loops still have work to do once their expression returns, such as
+     * removing an iterator, so only calls outside of them are in tail
+     * position.
+     */
+    result.setTailCall(depth > 0 && loops == 0 && expr instanceof CallNode);
+    return result;
+  }
+
+  private static Node optimizeArrayNode(Node _node) {
+    final ArrayNode node = (ArrayNode) _node;
+
+    if(node.getValues() != null) {
+      optimizeAll(node.getValues());
+    }
+
+    return node;
+  }
+
+  private static Node optimizeCastNode(Node _node) {
+    final CastNode node = (CastNode) _node;
+
+    Node expr = optimize(node.getExpression());
+    Node unfolded = expr == node.getExpression() ? node : new CastNode(node.getCast(), expr);
+
+    if(!(expr instanceof ConstNode)) {
+      return unfolded;
+    }
+
+    ValType cast = ValType.fromName(node.getCast().getValue());
+    if(cast == null) {
+      return unfolded;
+    }
+
+    Val result = ((ConstNode) expr).getValue().castTo(cast);
+    return isFoldable(result) ? new ConstNode(result, node.getStart(), node.getEnd()) : unfolded;
+  }
+
+  private static Node optimizeIfNode(Node _node) {
+    final IfNode node = (IfNode) _node;
+
+    optimizeAll(node.getConditions());
+    optimizeAll(node.getExpressions());
+    if(node.getElseCase() != null) {
+      optimize(node.getElseCase());
+    }
+
+    return node;
+  }
+
+  private static Node optimizeWhileNode(Node _node) {
+    final WhileNode node = (WhileNode) _node;
+
+    Node cond = optimize(node.getCondition());
+    loops++;
+    optimize(node.getExpression());
+    loops--;
+
+    return cond == node.getCondition() ? node : new WhileNode(cond, node.getExpression());
+  }
+
+  private static Node optimizeForNode(Node _node) {
+    final ForNode node = (ForNode) _node;
+
+    Node iter = optimize(node.getIterator());
+    Node cond = optimize(node.getCondition());
+    Node step = node.getStep() != null ? optimize(node.getStep()) : null;
+    loops++;
+    optimize(node.getExpression());
+    loops--;
+
+    ForNode result = node;
+    if(iter != node.getIterator() || cond != node.getCondition() || step != node.getStep()) {
+      result = new ForNode(iter, cond, step, node.getExpression());
+    }
+
+    markCounted(result);
+    return result;
+  }
+
+  /*
+   * A loop counts when its step is a constant Number, its condition
+   * compares the iterator to something, and nothing in it can assign
+   * the iterator. Such loops can keep their iterator as a double.
+   */
+  private static void markCounted(ForNode node) {
+    final String id = ((VarAssignNode) node.getIterator()).getName().getValue();
+    final Node step = node.getStep();
+
+    if(step != null && !(step instanceof ConstNode && ((ConstNode) step).getValue() instanceof Num)) {
+      return;
+    }
+
+    if(!(node.getCondition() instanceof BinOpNode)) {return;}
+    BinOpNode cond = (BinOpNode) node.getCondition();
+
+    boolean compares = cond.getOp().isType(Type.LT, Type.GT, Type.LTE, Type.GTE, Type.EE, Type.NE);
+    if(!compares || !(cond.getLeftNode() instanceof VarAccessNode)) {return;}
+    if(!((VarAccessNode) cond.getLeftNode()).getName().hasValue(id)) {return;}
+
+    if(assigns(cond.getRightNode(), id) || assigns(node.getExpression(), id)) {return;}
+
+    node.setCounted(true, reads(cond.getRightNode(), id) || reads(node.getExpression(), id));
+  }
+}
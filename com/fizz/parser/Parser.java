@@ -3,9 +3,11 @@ package com.fizz.parser;
 import java.util.List;
 import java.util.ArrayList;
 
+import com.fizz.lexer.Lexer;
 import com.fizz.lexer.token.*;
 import com.fizz.parser.node.*;
 import com.fizz.util.Position;
+import com.fizz.util.error.Failure;
 import com.fizz.util.error.InvalidSyntaxError;
 import com.fizz.util.result.ParseResult;
 import com.fizz.util.function.PFunc;
@@ -13,497 +15,516 @@ import com.fizz.util.function.PFunc;
 /**
  * Used for the creation of Abstract Syntax Trees, which are passed to the
  * Interpreter.
+ * <p>
+ * The Parser takes {@link com.fizz.lexer.token.TokenBuffer}s from the
+ * {@link com.fizz.lexer.Lexer} a batch at a time as it needs them, and
+ * only creates a {@link com.fizz.lexer.token.Token} for the Tokens kept
+ * by Nodes or reported in Errors.
  * @author Noah James Rathman
  */
 public final class Parser {
-  private static List<Token> tokens;
-  private static Token curTok, lastTok;
+  private static final PFunc FACTOR = Parser::factor, TERM = Parser::term;
+  private static final PFunc ARITH = Parser::arith, COMP = Parser::comp;
+  private static final Type[] TERM_OPS = {Type.MUL, Type.DIV};
+  private static final Type[] ARITH_OPS = {Type.ADD, Type.SUB};
+  private static final Type[] COMP_OPS = {
+    Type.EE, Type.NE,
+    Type.LT, Type.GT,
+    Type.LTE, Type.GTE
+  };
+  private static final Type[] EXPR_OPS = {Type.AND, Type.OR};
+
+  private static TokenBuffer tokens;
+  private static Type curType, lastType;
   private static int pos;
 
   //Parser should never be instanced.
   private Parser() {}
 
   /**
-   * Restarts the Parser and prepares it to create a new Abstract Syntax Tree.
-   * @param _tokens New Token List
+   * Restarts the Parser and prepares it to create a new Abstract Syntax Tree
+   * from the Tokens of the {@link com.fizz.lexer.Lexer}, which has to be
+   * initialized first.
    */
-  public static void init(List<Token> _tokens) {
-    tokens = _tokens;
-    curTok = null;
+  public static void init() {
+    tokens = null;
+    curType = null;
+    lastType = null;
     pos = -1;
-
-    advance();
   }
 
+  //The Parser never moves past the final EOF Token.
   private static void advance() {
-    pos++;
-    lastTok = curTok;
-    curTok = (pos < tokens.size() ? tokens.get(pos) : null);
+    lastType = curType;
+
+    if(tokens != null && pos < tokens.size() - 1) {
+      pos++;
+    } else if(curType != Type.EOF) {
+      tokens = Lexer.nextTokens();
+      pos = 0;
+
+      //Only an Error stops the Lexer before the EOF Token.
+      if(tokens.size() == 0) {
+        throw new Failure(Lexer.getError());
+      }
+    }
+
+    curType = tokens.getType(pos);
+  }
+
+  private static boolean isType(Type type) {
+    return curType == type;
+  }
+
+  private static boolean isType(Type[] types) {
+    for(Type type : types) {
+      if(type == curType) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static boolean hasValue(String value) {
+    return value.equals(tokens.getValue(pos));
+  }
+
+  private static Token token() {
+    return tokens.getToken(pos);
   }
 
   /**
-   * Parses the List of Tokens into an Abstract Syntax Tree.
+   * Parses the Tokens of the Lexer into an Abstract Syntax Tree. Parsing
+   * methods return their Nodes directly and leave through a Failure on
+   * invalid syntax or an Error from the Lexer, which is only caught here.
    * @return Result of parsing
+   * @throws java.io.UncheckedIOException If the Lexer can't read its code
    */
   public static ParseResult parse() {
-    ParseResult res = statement();
+    ParseResult res = new ParseResult();
 
-    if(!res.hasError() && !curTok.isType(Type.EOF)) {
-      return res.failure(new InvalidSyntaxError(
-        "Parser exited due to unexpected token: \"" + curTok + "\".",
-        curTok.getStart(), curTok.getEnd()
-      ));
-    }
+    try {
+      advance();
+      Node ast = statement();
 
-    return res;
-  }
+      if(!isType(Type.EOF)) {
+        return res.failure(new InvalidSyntaxError(
+          "Parser exited due to unexpected token: \"" + token() + "\".",
+          tokens.getStart(pos), tokens.getEnd(pos)
+        ));
+      }
 
-  private static ParseResult factor() {
-    ParseResult res = new ParseResult();
-    Token cur = curTok;
+      return res.success(ast);
+    } catch(Failure f) {
+      return res.failure(f.getError());
+    }
+  }
 
-    if(curTok.isType(Type.SUB, Type.NOT)) {
+  private static Node factor() {
+    if(isType(Type.SUB) || isType(Type.NOT)) {
+      Token cur = token();
       advance();
 
-      Node node = res.register(factor());
-      if(res.hasError()) {return res;}
+      Node node = factor();
 
-      return res.success(new UnaryOpNode(cur, node));
-    } else if(curTok.isType(Type.INT, Type.FLOAT, Type.STR)) {
+      return new UnaryOpNode(cur, node);
+    } else if(isType(Type.INT) || isType(Type.FLOAT) || isType(Type.STR)) {
+      Token cur = token();
       advance();
-      return res.success(new ValueNode(cur));
-    } else if(curTok.isType(Type.LPAREN)) {
+      return new ValueNode(cur);
+    } else if(isType(Type.LPAREN)) {
       advance();
 
-      Node node = res.register(expr());
-      if(res.hasError()) {return res;}
+      Node node = expr();
 
-      if(!curTok.isType(Type.RPAREN)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RPAREN));
+      if(!isType(Type.RPAREN)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RPAREN));
       }
 
       advance();
-      return res.success(node);
-    } else if(curTok.isType(Type.ID)) {
+      return node;
+    } else if(isType(Type.ID)) {
+      Token cur = token();
       advance();
 
-      if(curTok.isType(Type.LPAREN)) {
+      if(isType(Type.LPAREN)) {
         List<Node> argValues = new ArrayList<Node>();
         advance();
 
-        while(!curTok.isType(Type.RPAREN)) {
-          Node argVal = res.register(expr());
-          if(res.hasError()) {return res;}
+        while(!isType(Type.RPAREN)) {
+          Node argVal = expr();
 
           argValues.add(argVal);
-          if(curTok.isType(Type.COMMA)) {advance();}
-          else if(!curTok.isType(Type.RPAREN)) {
-            return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.COMMA, Type.RPAREN));
+          if(isType(Type.COMMA)) {advance();}
+          else if(!isType(Type.RPAREN)) {
+            throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.COMMA, Type.RPAREN));
           }
         }
 
         advance();
-        return res.success(new CallNode(cur, argValues));
-      } else if(curTok.isType(Type.EQ)) {
+        return new CallNode(cur, argValues);
+      } else if(isType(Type.EQ)) {
         advance();
 
-        Node value = res.register(expr());
-        if(res.hasError()) {return res;}
+        Node value = expr();
 
-        return res.success(new VarAssignNode(cur, value, false, (byte) 1));
+        return new VarAssignNode(cur, value, false, (byte) 1);
       }
 
-      return res.success(new VarAccessNode(cur));
-    } else if(curTok.isType(Type.LSQUARE)) {
-      Position start = curTok.getStart();
+      return new VarAccessNode(cur);
+    } else if(isType(Type.LSQUARE)) {
+      Position start = tokens.getStart(pos);
       List<Node> values = new ArrayList<Node>();
 
       advance();
       Node node = null;
-      while(!curTok.isType(Type.RSQUARE)) {
-        node = res.register(expr());
-        if(res.hasError()) {return res;}
+      while(!isType(Type.RSQUARE)) {
+        node = expr();
 
         values.add(node);
-        if(curTok.isType(Type.COMMA)) {
+        if(isType(Type.COMMA)) {
           advance();
-        } else if(!curTok.isType(Type.RSQUARE)) {
-          return res.failure(
-            InvalidSyntaxError.expectedTokenType(curTok, Type.COMMA, Type.RSQUARE)
+        } else if(!isType(Type.RSQUARE)) {
+          throw new Failure(
+            InvalidSyntaxError.expectedTokenType(token(), Type.COMMA, Type.RSQUARE)
           );
         }
       }
 
-      Position end = curTok.getEnd();
+      Position end = tokens.getEnd(pos);
       advance();
 
       Node result = values.size() > 0 ? new ArrayNode(values) : new ArrayNode(start, end);
-      return res.success(result);
-    } else if(curTok.isType(Type.KEY) && curTok.hasValue("cast")) {
+      return result;
+    } else if(isType(Type.KEY) && hasValue("cast")) {
       advance();
 
-      if(!curTok.isType(Type.ID)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.ID));
+      if(!isType(Type.ID)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.ID));
       }
 
-      Token cast = curTok;
+      Token cast = token();
       advance();
 
-      Node expr = res.register(expr());
-      if(res.hasError()) {return res;}
+      Node expr = expr();
 
-      return res.success(new CastNode(cast, expr));
+      return new CastNode(cast, expr);
     }
 
     Type[] expt = {Type.INT, Type.FLOAT, Type.SUB, Type.LPAREN, Type.LSQUARE, Type.ID};
-    return res.failure(InvalidSyntaxError.expectedTokenType(curTok, expt));
+    throw new Failure(InvalidSyntaxError.expectedTokenType(token(), expt));
   }
 
-  private static ParseResult term() {
-    PFunc func = Parser::factor;
-    Type[] ops = {Type.MUL, Type.DIV};
-
-    return binOp(func, func, ops);
+  private static Node term() {
+    return binOp(FACTOR, FACTOR, TERM_OPS);
   }
 
-  private static ParseResult arith() {
-    PFunc func = Parser::term;
-    Type[] ops = {Type.ADD, Type.SUB};
-
-    return binOp(func, func, ops);
+  private static Node arith() {
+    return binOp(TERM, TERM, ARITH_OPS);
   }
 
-  private static ParseResult comp() {
-    PFunc func = Parser::arith;
-    Type[] ops = {
-      Type.EE, Type.NE,
-      Type.LT, Type.GT,
-      Type.LTE, Type.GTE
-    };
-
-    return binOp(func, func, ops);
+  private static Node comp() {
+    return binOp(ARITH, ARITH, COMP_OPS);
   }
 
-  private static ParseResult expr() {
-    PFunc func = Parser::comp;
-    Type[] ops = {Type.AND, Type.OR};
-
-    return binOp(func, func, ops);
+  private static Node expr() {
+    return binOp(COMP, COMP, EXPR_OPS);
   }
 
-  private static ParseResult varCmd() {
-    ParseResult res = new ParseResult();
+  private static Node varCmd() {
     Token name = null;
     Node expr = null;
-    boolean constant = curTok.hasValue("const");
+    boolean constant = hasValue("const");
 
     advance();
-    if(!curTok.isType(Type.ID)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.ID));
+    if(!isType(Type.ID)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.ID));
     }
 
-    name = curTok;
+    name = token();
     advance();
 
-    if(!curTok.isType(Type.EQ)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.EQ));
+    if(!isType(Type.EQ)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.EQ));
     }
 
     advance();
-    expr = res.register(expr());
-    if(res.hasError()) {return res;}
+    expr = expr();
 
-    return res.success(new VarAssignNode(name, expr, constant, (byte) 0));
+    return new VarAssignNode(name, expr, constant, (byte) 0);
   }
 
-  private static ParseResult funcCmd() {
-    ParseResult res = new ParseResult();
+  private static Node funcCmd() {
     Token name = null;
     List<String> argNames = new ArrayList<String>();
     Node statement = null;
 
     advance();
-    if(!curTok.isType(Type.ID)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.ID));
+    if(!isType(Type.ID)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.ID));
     }
 
-    name = curTok;
+    name = token();
     advance();
-    if(!curTok.isType(Type.LPAREN)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LPAREN));
+    if(!isType(Type.LPAREN)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LPAREN));
     }
 
     advance();
     String aName;
-    while(curTok.isType(Type.ID)) {
-      aName = curTok.getValue();
+    while(isType(Type.ID)) {
+      aName = tokens.getValue(pos);
       argNames.add(aName);
 
       advance();
-      if(curTok.isType(Type.COMMA)) {
+      if(isType(Type.COMMA)) {
         advance();
 
-        if(!curTok.isType(Type.ID)) {
-          return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.ID));
+        if(!isType(Type.ID)) {
+          throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.ID));
         }
-      } else if(!curTok.isType(Type.RPAREN)) {
-        return res.failure(
-          InvalidSyntaxError.expectedTokenType(curTok, Type.COMMA, Type.RPAREN)
+      } else if(!isType(Type.RPAREN)) {
+        throw new Failure(
+          InvalidSyntaxError.expectedTokenType(token(), Type.COMMA, Type.RPAREN)
         );
       }
     }
 
     advance();
-    if(!curTok.isType(Type.LBRACE)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LBRACE));
+    if(!isType(Type.LBRACE)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LBRACE));
     }
 
     advance();
-    statement = res.register(statement());
-    if(res.hasError()) {return res;}
+    statement = statement();
 
-    if(!curTok.isType(Type.RBRACE)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RBRACE));
+    if(!isType(Type.RBRACE)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RBRACE));
     }
 
     advance();
-    return res.success(new FuncDefNode(name, argNames, statement));
+    return new FuncDefNode(name, argNames, statement);
   }
 
-  private static ParseResult ifCmd() {
-    ParseResult res = new ParseResult();
+  private static Node ifCmd() {
     List<Node> conds = new ArrayList<Node>();
     List<Node> exprs = new ArrayList<Node>();
     Node elseCase = null;
 
     do {
       advance();
-      if(!curTok.isType(Type.LPAREN)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LPAREN));
+      if(!isType(Type.LPAREN)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LPAREN));
       }
 
       advance();
-      Node cond = res.register(expr());
-      if(res.hasError()) {return res;}
+      Node cond = expr();
 
-      if(!curTok.isType(Type.RPAREN)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RPAREN));
+      if(!isType(Type.RPAREN)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RPAREN));
       }
 
       advance();
-      if(!curTok.isType(Type.LBRACE)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LBRACE));
+      if(!isType(Type.LBRACE)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LBRACE));
       }
 
       advance();
-      Node expr = res.register(statement());
-      if(res.hasError()) {return res;}
+      Node expr = statement();
 
-      if(!curTok.isType(Type.RBRACE)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RBRACE));
+      if(!isType(Type.RBRACE)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RBRACE));
       }
 
       advance();
       conds.add(cond);
       exprs.add(expr);
-    } while(curTok.isType(Type.KEY) && curTok.hasValue("elif"));
+    } while(isType(Type.KEY) && hasValue("elif"));
 
-    if(curTok.isType(Type.KEY) && curTok.hasValue("else")) {
+    if(isType(Type.KEY) && hasValue("else")) {
       advance();
 
-      if(!curTok.isType(Type.LBRACE)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LBRACE));
+      if(!isType(Type.LBRACE)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LBRACE));
       }
 
       advance();
-      elseCase = res.register(statement());
-      if(res.hasError()) {return res;}
+      elseCase = statement();
 
-      if(!curTok.isType(Type.RBRACE)) {
-        return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RBRACE));
+      if(!isType(Type.RBRACE)) {
+        throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RBRACE));
       }
 
       advance();
     }
 
-    return res.success(new IfNode(conds, exprs, elseCase));
+    return new IfNode(conds, exprs, elseCase);
   }
 
-  private static ParseResult whileCmd() {
-    ParseResult res = new ParseResult();
+  private static Node whileCmd() {
     advance();
 
-    if(!curTok.isType(Type.LPAREN)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LPAREN));
+    if(!isType(Type.LPAREN)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LPAREN));
     }
 
     advance();
-    Node cond = res.register(expr());
-    if(res.hasError()) {return res;}
+    Node cond = expr();
 
-    if(!curTok.isType(Type.RPAREN)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RPAREN));
+    if(!isType(Type.RPAREN)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RPAREN));
     }
 
     advance();
-    if(!curTok.isType(Type.LBRACE)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.LBRACE));
+    if(!isType(Type.LBRACE)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.LBRACE));
     }
 
     advance();
-    Node expr = res.register(statement());
-    if(res.hasError()) {return res;}
+    Node expr = statement();
 
-    if(!curTok.isType(Type.RBRACE)) {
-      return res.failure(InvalidSyntaxError.expectedTokenType(curTok, Type.RBRACE));
+    if(!isType(Type.RBRACE)) {
+      throw new Failure(InvalidSyntaxError.expectedTokenType(token(), Type.RBRACE));
     }
 
     advance();
-    return res.success(new WhileNode(cond, expr));
+    return new WhileNode(cond, expr);
   }
 
-  private static ParseResult forCmd() {
-    ParseResult res = new ParseResult();
+  private static Node forCmd() {
     Node iter, cond, step = null, expr;
 
     advance();
-    if(!curTok.isType(Type.LPAREN)) {
-      return res.failure(
-        InvalidSyntaxError.expectedTokenType(curTok, Type.LPAREN)
+    if(!isType(Type.LPAREN)) {
+      throw new Failure(
+        InvalidSyntaxError.expectedTokenType(token(), Type.LPAREN)
       );
     }
 
     advance();
-    if(!curTok.hasValue("var")) {
-      return res.failure(
-        InvalidSyntaxError.expectedToken(curTok, new Token(Type.KEY, "var"))
+    if(!hasValue("var")) {
+      throw new Failure(
+        InvalidSyntaxError.expectedToken(token(), new Token(Type.KEY, "var"))
       );
     }
 
-    iter = res.register(varCmd());
-    if(res.hasError()) {return res;}
+    iter = varCmd();
 
-    if(!curTok.isType(Type.EOL)) {
-      return res.failure(
-        InvalidSyntaxError.expectedTokenType(curTok, Type.EOL)
+    if(!isType(Type.EOL)) {
+      throw new Failure(
+        InvalidSyntaxError.expectedTokenType(token(), Type.EOL)
       );
     }
 
     advance();
-    cond = res.register(expr());
-    if(res.hasError()) {return res;}
+    cond = expr();
 
-    if(curTok.isType(Type.EOL)) {
+    if(isType(Type.EOL)) {
       advance();
 
-      step = res.register(expr());
-      if(res.hasError()) {return res;}
+      step = expr();
     }
 
-    if(!curTok.isType(Type.RPAREN)) {
-      return res.failure(
-        InvalidSyntaxError.expectedTokenType(curTok, Type.RPAREN)
+    if(!isType(Type.RPAREN)) {
+      throw new Failure(
+        InvalidSyntaxError.expectedTokenType(token(), Type.RPAREN)
       );
     }
 
     advance();
-    if(!curTok.isType(Type.LBRACE)) {
-      return res.failure(
-        InvalidSyntaxError.expectedTokenType(curTok, Type.LBRACE)
+    if(!isType(Type.LBRACE)) {
+      throw new Failure(
+        InvalidSyntaxError.expectedTokenType(token(), Type.LBRACE)
       );
     }
 
     advance();
-    expr = res.register(statement());
-    if(res.hasError()) {return res;}
+    expr = statement();
 
-    if(!curTok.isType(Type.RBRACE)) {
-      return res.failure(
-        InvalidSyntaxError.expectedTokenType(curTok, Type.RBRACE)
+    if(!isType(Type.RBRACE)) {
+      throw new Failure(
+        InvalidSyntaxError.expectedTokenType(token(), Type.RBRACE)
       );
     }
 
     advance();
-    return res.success(new ForNode(iter, cond, step, expr));
+    return new ForNode(iter, cond, step, expr);
   }
 
-  private static ParseResult command() {
-    ParseResult res = new ParseResult();
-
-    if(curTok.isType(Type.KEY)) {
+  private static Node command() {
+    if(isType(Type.KEY)) {
       Node result = null;
 
-      if(curTok.hasValue("var", "const")) {
-        result = res.register(varCmd());
-      } else if(curTok.hasValue("return")) {
-        advance();
-        result = res.register(expr());
-        if(!res.hasError()) {
-          result = new ReturnNode(result);
-        }
-      } else if(curTok.hasValue("func")) {
-        result = res.register(funcCmd());
-      } else if(curTok.hasValue("if")) {
-        result = res.register(ifCmd());
-      } else if(curTok.hasValue("while")) {
-        result = res.register(whileCmd());
-      } else if(curTok.hasValue("break", "continue")) {
-        Token cur = curTok;
-        advance();
-
-        result = new ControlNode(cur.getValue(), cur.getStart(), cur.getEnd());
-      } else if(curTok.hasValue("for")) {
-        result = res.register(forCmd());
+      switch(tokens.getValue(pos)) {
+        case "var":
+        case "const":
+          result = varCmd();
+          break;
+        case "return":
+          advance();
+          result = new ReturnNode(expr());
+          break;
+        case "func":
+          result = funcCmd();
+          break;
+        case "if":
+          result = ifCmd();
+          break;
+        case "while":
+          result = whileCmd();
+          break;
+        case "break":
+        case "continue":
+          result = new ControlNode(tokens.getValue(pos), tokens.getStart(pos), tokens.getEnd(pos));
+          advance();
+          break;
+        case "for":
+          result = forCmd();
+          break;
       }
 
-      if(res.hasError()) {return res;}
-      return res.success(result);
+      return result;
     }
 
     return expr();
   }
 
-  private static ParseResult statement() {
-    ParseResult res = new ParseResult();
+  private static Node statement() {
     List<Node> statements = new ArrayList<Node>();
     Node node;
 
     do {
-      node = res.register(command());
-      if(res.hasError()) {return res;}
+      node = command();
 
       statements.add(node);
-      if(lastTok.isType(Type.RBRACE)) {continue;}
-      if(!curTok.isType(Type.EOL)) {
-        return res.failure(
-          InvalidSyntaxError.expectedTokenType(curTok, Type.EOL)
+      if(lastType == Type.RBRACE) {continue;}
+      if(!isType(Type.EOL)) {
+        throw new Failure(
+          InvalidSyntaxError.expectedTokenType(token(), Type.EOL)
         );
       }
 
       advance();
-    } while(!curTok.isType(Type.RBRACE, Type.EOF));
+    } while(!isType(Type.RBRACE) && !isType(Type.EOF));
 
-    return res.success(new StatementNode(statements));
+    return new StatementNode(statements);
   }
 
-  private static ParseResult binOp(PFunc lFunc, PFunc rFunc, Type[] ops) {
-    ParseResult res = new ParseResult();
-
-    Node left = res.register(lFunc.run());
-    if(res.hasError()) {return res;}
+  private static Node binOp(PFunc lFunc, PFunc rFunc, Type[] ops) {
+    Node left = lFunc.run();
 
     Token op = null;
     Node right = null;
-    while(curTok.isType(ops)) {
-      op = curTok;
+    while(isType(ops)) {
+      op = token();
       advance();
 
-      right = res.register(rFunc.run());
-      if(res.hasError()) {return res;}
+      right = rFunc.run();
 
       left = new BinOpNode(left, op, right);
     }
 
-    return res.success(left);
+    return left;
   }
 }
@@ -0,0 +1,531 @@
+package com.fizz.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+import com.fizz.lexer.token.*;
+import com.fizz.parser.node.*;
+import com.fizz.util.Position;
+import com.fizz.util.Source;
+import com.fizz.util.function.WFunc;
+
+/**
+ * Writes parsed Abstract Syntax Trees to precompiled {@code .fizzc}
+ * files, and reads them back without the Lexer or Parser.
+ * <p>
+ * A file starts with a header holding {@link #MAGIC}, {@link #VERSION},
+ * the last modification time and size of its source, and a CRC-32 of
+ * the rest of the file. It's only read while all of them match. The
+ * header is followed by a table of every String in the tree, then the
+ * tree itself, each Node written as its tag followed by its fields.
+ * Positions are written as their index, and share one
+ * {@link com.fizz.util.Source} when read.
+ * <p>
+ * Every count is checked against the bytes left before anything is
+ * made from it, and trees nested deeper than {@link #MAX_DEPTH} are
+ * never written or read, so a damaged file is only ever treated as
+ * missing.
+ * @author Noah James Rathman
+ */
+public final class TreeFile {
+  /** Extension of precompiled files, which sit next to their source. */
+  public static final String EXTENSION = ".fizzc";
+  /** First int of every precompiled file, spelling "FIZC". */
+  public static final int MAGIC = 0x46495A43;
+  /** Format of precompiled files, changed whenever a Node or Type changes. */
+  public static final int VERSION = 3;
+  /** Deepest nesting of Nodes a precompiled file can hold. */
+  public static final int MAX_DEPTH = 1000;
+
+  private static final String[] TAGS = {
+    "ValueNode", "UnaryOpNode", "BinOpNode", "VarAccessNode", "VarAssignNode",
+    "CallNode", "FuncDefNode", "StatementNode", "ReturnNode", "ArrayNode",
+    "CastNode", "IfNode", "WhileNode", "ControlNode", "ForNode"
+  };
+  private static final byte NONE = -1;
+
+  private static Map<String, WFunc> FUNCTIONS;
+  private static Map<String, Byte> tags;
+
+  //Writer
+  private static ByteBuffer out;
+  private static Map<String, Integer> strings;
+  private static List<String> table;
+  private static int depth;
+  private static boolean tooDeep;
+
+  //Reader
+  private static ByteBuffer in;
+  private static String[] names;
+  private static Source source;
+  private static Type[] types;
+
+  //TreeFile should never be instanced.
+  private TreeFile() {}
+
+  /**
+   * Initializes the TreeFile by putting all write methods into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, WFunc>();
+
+    FUNCTIONS.put("ValueNode",          TreeFile::writeValueNode);
+    FUNCTIONS.put("UnaryOpNode",        TreeFile::writeUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          TreeFile::writeBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      TreeFile::writeVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      TreeFile::writeVarAssignNode);
+    FUNCTIONS.put("CallNode",           TreeFile::writeCallNode);
+    FUNCTIONS.put("FuncDefNode",        TreeFile::writeFuncDefNode);
+    FUNCTIONS.put("StatementNode",      TreeFile::writeStatementNode);
+    FUNCTIONS.put("ReturnNode",         TreeFile::writeReturnNode);
+    FUNCTIONS.put("ArrayNode",          TreeFile::writeArrayNode);
+    FUNCTIONS.put("CastNode",           TreeFile::writeCastNode);
+    FUNCTIONS.put("IfNode",             TreeFile::writeIfNode);
+    FUNCTIONS.put("WhileNode",          TreeFile::writeWhileNode);
+    FUNCTIONS.put("ControlNode",        TreeFile::writeControlNode);
+    FUNCTIONS.put("ForNode",            TreeFile::writeForNode);
+
+    tags = new HashMap<String, Byte>();
+    for(byte i = 0; i < TAGS.length; i++) {
+      tags.put(TAGS[i], i);
+    }
+    types = Type.values();
+  }
+
+  /**
+   * Returns the precompiled file of the passed source file.
+   * @param source Fizz file
+   * @return File the source's tree is precompiled to
+   */
+  public static File of(File source) {
+    String path = source.getPath();
+    return new File(path.substring(0, path.length() - ".fizz".length()) + EXTENSION);
+  }
+
+  /**
+   * Writes the passed tree to a precompiled file. Only trees straight
+   * from the Parser can be written, as optimized Nodes hold values, and
+   * trees nested deeper than {@link #MAX_DEPTH} are left unwritten.
+   * <p>
+   * The tree is written to a temporary file next to the precompiled
+   * one, which is then moved over it in one step. Other runs reading
+   * the same file, even through a mapping, only ever see a whole file.
+   * @param ast Root Node of the parsed tree
+   * @param file Precompiled file
+   * @param modified Time the source was last modified
+   * @param size Size of the source in bytes
+   * @throws IOException If the file can't be written
+   */
+  public static void write(Node ast, File file, long modified, long size) throws IOException {
+    out = ByteBuffer.allocate(1 << 12);
+    strings = new HashMap<String, Integer>();
+    table = new ArrayList<String>();
+    depth = 0;
+    tooDeep = false;
+
+    try {
+      write(ast);
+      if(tooDeep) {return;}
+
+      ByteBuffer body = out;
+      body.flip();
+
+      out = ByteBuffer.allocate(1 << 10);
+      putInt(table.size());
+      for(String s : table) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        putInt(bytes.length);
+        reserve(bytes.length);
+        out.put(bytes);
+      }
+      out.flip();
+
+      CRC32 crc = new CRC32();
+      crc.update(out.duplicate());
+      crc.update(body.duplicate());
+
+      ByteBuffer header = ByteBuffer.allocate(28);
+      header.putInt(MAGIC).putInt(VERSION).putLong(modified).putLong(size).putInt((int) crc.getValue());
+      header.flip();
+
+      Path target = file.getAbsoluteFile().toPath();
+      Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+
+      try {
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+          while(header.hasRemaining()) {
+            channel.write(header);
+          }
+          while(out.hasRemaining()) {
+            channel.write(out);
+          }
+          while(body.hasRemaining()) {
+            channel.write(body);
+          }
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } finally {
+      out = null;
+      strings = null;
+      table = null;
+    }
+  }
+
+  /**
+   * Reads the tree of a precompiled file, as long as it was written
+   * from the current version of its source.
+   * @param file Precompiled file
+   * @param _source Source of the tree
+   * @param modified Time the source was last modified
+   * @param size Size of the source in bytes
+   * @return Root Node of the tree, or null if the file is stale,
+   * written in another format or damaged
+   * @throws IOException If the file can't be read
+   */
+  public static Node read(File file, Source _source, long modified, long size) throws IOException {
+    try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      source = _source;
+
+      if(in.remaining() < 28 || in.getInt() != MAGIC || in.getInt() != VERSION
+          || in.getLong() != modified || in.getLong() != size) {
+        return null;
+      }
+
+      int expected = in.getInt();
+      CRC32 crc = new CRC32();
+      crc.update(in.duplicate());
+      if((int) crc.getValue() != expected) {
+        return null;
+      }
+
+      names = new String[getCount()];
+      for(int i = 0; i < names.length; i++) {
+        byte[] bytes = new byte[getCount()];
+        in.get(bytes);
+        names[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      depth = 0;
+      Node ast = read();
+      return in.hasRemaining() ? null : ast;
+    } catch(RuntimeException e) {
+      //A damaged file is treated the same as a stale one.
+      return null;
+    } finally {
+      in = null;
+      names = null;
+      source = null;
+    }
+  }
+
+  //Writer
+  private static void write(Node node) {
+    if(node == null) {
+      putByte(NONE);
+      return;
+    }
+
+    if(depth == MAX_DEPTH || tooDeep) {
+      tooDeep = true;
+      return;
+    }
+
+    final String className = node.getClass().getSimpleName();
+    WFunc func = FUNCTIONS.get(className);
+    if(func == null) {
+      throw new IllegalArgumentException("No write method defined for \"" + className + "\".");
+    }
+
+    putByte(tags.get(className));
+    depth++;
+    func.run(node);
+    depth--;
+  }
+
+  private static void writeList(List<Node> nodes) {
+    putInt(nodes.size());
+    for(Node node : nodes) {
+      write(node);
+    }
+  }
+
+  //Strings are written as their index in the table plus one, leaving 0 for null.
+  private static void writeString(String s) {
+    if(s == null) {
+      putInt(0);
+      return;
+    }
+
+    Integer idx = strings.get(s);
+    if(idx == null) {
+      idx = table.size();
+      strings.put(s, idx);
+      table.add(s);
+    }
+
+    putInt(idx + 1);
+  }
+
+  private static void writePosition(Position pos) {
+    putInt(pos.getIndex());
+  }
+
+  private static void writeToken(Token token) {
+    putByte((byte) token.getType().ordinal());
+    writeString(token.getValue());
+    writePosition(token.getStart());
+    writePosition(token.getEnd());
+  }
+
+  private static void writeValueNode(Node _node) {
+    writeToken(((ValueNode) _node).getValue());
+  }
+
+  private static void writeUnaryOpNode(Node _node) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+
+    writeToken(node.getOp());
+    write(node.getNode());
+  }
+
+  private static void writeBinOpNode(Node _node) {
+    final BinOpNode node = (BinOpNode) _node;
+
+    write(node.getLeftNode());
+    writeToken(node.getOp());
+    write(node.getRightNode());
+  }
+
+  private static void writeVarAccessNode(Node _node) {
+    writeToken(((VarAccessNode) _node).getName());
+  }
+
+  private static void writeVarAssignNode(Node _node) {
+    final VarAssignNode node = (VarAssignNode) _node;
+
+    writeToken(node.getName());
+    write(node.getExpr());
+    putByte((byte) (node.isConstant() ? 1 : 0));
+    putByte(node.getType());
+  }
+
+  private static void writeCallNode(Node _node) {
+    final CallNode node = (CallNode) _node;
+
+    writeToken(node.getName());
+    writeList(node.getArgValues());
+  }
+
+  private static void writeFuncDefNode(Node _node) {
+    final FuncDefNode node = (FuncDefNode) _node;
+
+    writeToken(node.getNameToken());
+    putInt(node.getArgNames().size());
+    for(String arg : node.getArgNames()) {
+      writeString(arg);
+    }
+    write(node.getStatement());
+  }
+
+  private static void writeStatementNode(Node _node) {
+    writeList(((StatementNode) _node).getStatements());
+  }
+
+  private static void writeReturnNode(Node _node) {
+    write(((ReturnNode) _node).getExpression());
+  }
+
+  private static void writeArrayNode(Node _node) {
+    final ArrayNode node = (ArrayNode) _node;
+
+    //An empty Array has no values to take its Positions from.
+    if(node.getValues() == null) {
+      putInt(0);
+      writePosition(node.getStart());
+      writePosition(node.getEnd());
+    } else {
+      writeList(node.getValues());
+    }
+  }
+
+  private static void writeCastNode(Node _node) {
+    final CastNode node = (CastNode) _node;
+
+    writeToken(node.getCast());
+    write(node.getExpression());
+  }
+
+  private static void writeIfNode(Node _node) {
+    final IfNode node = (IfNode) _node;
+
+    writeList(node.getConditions());
+    writeList(node.getExpressions());
+    write(node.getElseCase());
+  }
+
+  private static void writeWhileNode(Node _node) {
+    final WhileNode node = (WhileNode) _node;
+
+    write(node.getCondition());
+    write(node.getExpression());
+  }
+
+  private static void writeControlNode(Node _node) {
+    final ControlNode node = (ControlNode) _node;
+
+    writeString(node.getType());
+    writePosition(node.getStart());
+    writePosition(node.getEnd());
+  }
+
+  private static void writeForNode(Node _node) {
+    final ForNode node = (ForNode) _node;
+
+    write(node.getIterator());
+    write(node.getCondition());
+    write(node.getStep());
+    write(node.getExpression());
+  }
+
+  private static void reserve(int bytes) {
+    if(out.remaining() < bytes) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+      out.flip();
+      out = grown.put(out);
+    }
+  }
+
+  private static void putByte(byte b) {
+    reserve(1);
+    out.put(b);
+  }
+
+  //Ints are written 7 bits at a time, so the small values most of a tree holds take a byte or two.
+  private static void putInt(int i) {
+    reserve(5);
+
+    while((i & ~0x7F) != 0) {
+      out.put((byte) ((i & 0x7F) | 0x80));
+      i >>>= 7;
+    }
+    out.put((byte) i);
+  }
+
+  //Reader
+  private static Node read() {
+    if(depth == MAX_DEPTH) {
+      throw new IllegalArgumentException("Tree is nested too deeply.");
+    }
+
+    depth++;
+    Node node = readNode(in.get());
+    depth--;
+
+    return node;
+  }
+
+  private static Node readNode(byte tag) {
+    switch(tag) {
+      case NONE: return null;
+      case 0:  return new ValueNode(readToken());
+      case 1:  return new UnaryOpNode(readToken(), read());
+      case 2:  return new BinOpNode(read(), readToken(), read());
+      case 3:  return new VarAccessNode(readToken());
+      case 4:  return new VarAssignNode(readToken(), read(), in.get() == 1, in.get());
+      case 5:  return new CallNode(readToken(), readList());
+      case 6:  return new FuncDefNode(readToken(), readStrings(), read());
+      case 7:  return new StatementNode(readList());
+      case 8:  return new ReturnNode(read());
+      case 9:  return readArrayNode();
+      case 10: return new CastNode(readToken(), read());
+      case 11: return new IfNode(readList(), readList(), read());
+      case 12: return new WhileNode(read(), read());
+      case 13: return new ControlNode(readString(), readPosition(), readPosition());
+      case 14: return new ForNode(read(), read(), read(), read());
+    }
+
+    throw new IllegalArgumentException("Unknown tag " + tag + ".");
+  }
+
+  private static List<Node> readList() {
+    int size = getCount();
+
+    List<Node> nodes = new ArrayList<Node>(size);
+    for(int i = 0; i < size; i++) {
+      nodes.add(read());
+    }
+
+    return nodes;
+  }
+
+  private static List<String> readStrings() {
+    int size = getCount();
+
+    List<String> values = new ArrayList<String>(size);
+    for(int i = 0; i < size; i++) {
+      values.add(readString());
+    }
+
+    return values;
+  }
+
+  private static String readString() {
+    int idx = getInt();
+    return idx == 0 ? null : names[idx - 1];
+  }
+
+  private static int getInt() {
+    int i = 0;
+
+    for(int shift = 0; shift < 32; shift += 7) {
+      byte b = in.get();
+      i |= (b & 0x7F) << shift;
+
+      if(b >= 0) {return i;}
+    }
+
+    throw new IllegalArgumentException("Int is too long.");
+  }
+
+  //Every counted item takes at least a byte, so a count can't pass the bytes left.
+  private static int getCount() {
+    int count = getInt();
+    if(count < 0 || count > in.remaining()) {
+      throw new IllegalArgumentException("Count " + count + " is out of range.");
+    }
+
+    return count;
+  }
+
+  private static Position readPosition() {
+    return new Position(source, getInt());
+  }
+
+  private static Token readToken() {
+    return new Token(types[in.get()], readString(), readPosition(), readPosition());
+  }
+
+  private static Node readArrayNode() {
+    List<Node> values = readList();
+
+    return values.size() > 0 ? new ArrayNode(values) : new ArrayNode(readPosition(), readPosition());
+  }
+}
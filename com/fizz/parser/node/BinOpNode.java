@@ -1,6 +1,7 @@
 package com.fizz.parser.node;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.util.function.VFunc;
 
 /**
  * Represents an operation between two Nodes.
@@ -9,6 +10,7 @@ import com.fizz.lexer.token.Token;
 public final class BinOpNode extends Node {
   private Node left, right;
   private Token op;
+  private VFunc specialization;
 
   /**
    * Creates a new BinOpNode with the passed operation and nodes.
@@ -47,6 +49,25 @@ public final class BinOpNode extends Node {
     return right;
   }
 
+  /**
+   * Sets the operation this Node has specialized to, given by the
+   * {@link com.fizz.interpreter.Interpreter} once it has seen the types
+   * of its values. A specialized operation returns null when the values
+   * aren't of the types it was made for.
+   * @param specialization Specialized operation
+   */
+  public void setSpecialization(VFunc specialization) {
+    this.specialization = specialization;
+  }
+
+  /**
+   * Returns the operation this Node has specialized to.
+   * @return Specialized operation, or null if this Node hasn't run yet
+   */
+  public VFunc getSpecialization() {
+    return specialization;
+  }
+
   public String toString() {
     return "(" + left + " " + op + " " + right + ")";
   }
@@ -3,6 +3,8 @@ package com.fizz.parser.node;
 import java.util.List;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.resolver.Address;
+import com.fizz.util.context.Symbol;
 
 /**
  * Represents a call to a function.
@@ -11,6 +13,9 @@ import com.fizz.lexer.token.Token;
 public class CallNode extends Node {
   private Token name;
   private List<Node> argValues;
+  private Address address;
+  private Symbol cache;
+  private int version;
 
   /**
    * Creates a new CallNode with the passed name and argument values.
@@ -38,4 +43,48 @@ public class CallNode extends Node {
   public List<Node> getArgValues() {
     return argValues;
   }
+
+  /**
+   * Sets the Address of the called function, given by the
+   * {@link com.fizz.resolver.Resolver}.
+   * @param address Resolved Address
+   */
+  public void setAddress(Address address) {
+    this.address = address;
+  }
+
+  /**
+   * Returns the Address of the called function.
+   * @return Resolved Address, or null if this Node hasn't been resolved
+   */
+  public Address getAddress() {
+    return address;
+  }
+
+  /**
+   * Caches the global Symbol holding the called function.
+   * @param cache Symbol of function, or null to clear the cache
+   * @param version {@link com.fizz.util.context.SymbolTable} version
+   * the Symbol was found at
+   */
+  public void setCache(Symbol cache, int version) {
+    this.cache = cache;
+    this.version = version;
+  }
+
+  /**
+   * Returns the cached Symbol of the called function.
+   * @return Cached Symbol, or null if nothing is cached
+   */
+  public Symbol getCache() {
+    return cache;
+  }
+
+  /**
+   * Returns the SymbolTable version the cached Symbol was found at.
+   * @return Version of cache
+   */
+  public int getCacheVersion() {
+    return version;
+  }
 }
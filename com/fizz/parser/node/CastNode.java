@@ -1,6 +1,7 @@
 package com.fizz.parser.node;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.interpreter.value.ValType;
 
 /**
  * Represents a cast from one value to another.
@@ -9,6 +10,8 @@ import com.fizz.lexer.token.Token;
 public class CastNode extends Node {
   private Token cast;
   private Node expr;
+  private ValType target;
+  private boolean identity;
 
   /**
    * Creates a new CastNode with the passed cast and expression.
@@ -36,4 +39,38 @@ public class CastNode extends Node {
   public Node getExpression() {
     return expr;
   }
+
+  /**
+   * Sets the type named by this Node's cast, found by the
+   * {@link com.fizz.interpreter.Interpreter} the first time it runs.
+   * @param target Type to cast to
+   */
+  public void setTarget(ValType target) {
+    this.target = target;
+  }
+
+  /**
+   * Returns the type named by this Node's cast.
+   * @return Type to cast to, or null if it hasn't been found yet
+   */
+  public ValType getTarget() {
+    return target;
+  }
+
+  /**
+   * Marks this Node as having cast a value to its own type, which
+   * gives back the same value.
+   * @param identity Identity state of Node
+   */
+  public void setIdentity(boolean identity) {
+    this.identity = identity;
+  }
+
+  /**
+   * Returns if this Node has cast a value to its own type.
+   * @return Identity state of Node
+   */
+  public boolean isIdentity() {
+    return identity;
+  }
 }
@@ -0,0 +1,38 @@
+package com.fizz.parser.node;
+
+import com.fizz.interpreter.value.Val;
+import com.fizz.util.Position;
+
+/**
+ * Holds a value known before the program runs, such as a literal or
+ * an expression made only of literals. ConstNodes are never made by
+ * the Parser, only by the {@link com.fizz.optimizer.Optimizer}.
+ * @author Noah James Rathman
+ */
+public final class ConstNode extends Node {
+  private Val value;
+
+  /**
+   * Creates a new ConstNode with the passed value, covering the
+   * Positions of the Nodes it replaces.
+   * @param value Constant value
+   * @param start Start of Node
+   * @param end End of Node
+   */
+  public ConstNode(Val value, Position start, Position end) {
+    super(start, end);
+    this.value = value;
+  }
+
+  /**
+   * Returns the value of this Node.
+   * @return Node value
+   */
+  public Val getValue() {
+    return value;
+  }
+
+  public String toString() {
+    return value.toString();
+  }
+}
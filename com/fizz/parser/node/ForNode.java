@@ -6,6 +6,7 @@ package com.fizz.parser.node;
  */
 public class ForNode extends Node {
   private Node iter, cond, step, expr;
+  private boolean counted, iterRead;
 
   /**
    * Creates a new ForNode with the passed iterator, condition,
@@ -54,4 +55,34 @@ public class ForNode extends Node {
   public Node getExpression() {
     return expr;
   }
+
+  /**
+   * Marks this loop as only counting, given by the
+   * {@link com.fizz.optimizer.Optimizer}. A counting loop has a constant
+   * step, and nothing in it ever assigns its iterator.
+   * @param counted Counting state of Node
+   * @param iterRead True if the iterator may be read by the condition's
+   * right side or the expression
+   */
+  public void setCounted(boolean counted, boolean iterRead) {
+    this.counted = counted;
+    this.iterRead = iterRead;
+  }
+
+  /**
+   * Returns if this loop only counts.
+   * @return Counting state of Node
+   */
+  public boolean isCounted() {
+    return counted;
+  }
+
+  /**
+   * Returns if the iterator of this counting loop may be read by
+   * anything other than the left side of its condition.
+   * @return True if the iterator may be read
+   */
+  public boolean isIteratorRead() {
+    return iterRead;
+  }
 }
@@ -3,6 +3,8 @@ package com.fizz.parser.node;
 import java.util.List;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.resolver.Address;
+import com.fizz.resolver.Scope;
 
 /**
  * Represents the definition of a function.
@@ -12,6 +14,8 @@ public class FuncDefNode extends Node {
   private Token name;
   private List<String> argNames;
   private Node statement;
+  private Address address;
+  private Scope scope;
 
   /**
    * Creates a new FuncDefNode with the passed name, argument names
@@ -35,6 +39,14 @@ public class FuncDefNode extends Node {
     return name.getValue();
   }
 
+  /**
+   * Returns the Token holding the function's name.
+   * @return Function's defined name Token
+   */
+  public Token getNameToken() {
+    return name;
+  }
+
   /**
    * Returns the function's argument names.
    * @return Function's defined argument names
@@ -50,4 +62,38 @@ public class FuncDefNode extends Node {
   public Node getStatement() {
     return statement;
   }
+
+  /**
+   * Sets the Address of the defined function, given by the
+   * {@link com.fizz.resolver.Resolver}.
+   * @param address Resolved Address
+   */
+  public void setAddress(Address address) {
+    this.address = address;
+  }
+
+  /**
+   * Returns the Address of the defined function.
+   * @return Resolved Address, or null if this Node hasn't been resolved
+   */
+  public Address getAddress() {
+    return address;
+  }
+
+  /**
+   * Sets the Scope of the function's statement, given by the
+   * {@link com.fizz.resolver.Resolver}.
+   * @param scope Resolved Scope
+   */
+  public void setScope(Scope scope) {
+    this.scope = scope;
+  }
+
+  /**
+   * Returns the Scope of the function's statement.
+   * @return Resolved Scope, or null if this Node hasn't been resolved
+   */
+  public Scope getScope() {
+    return scope;
+  }
 }
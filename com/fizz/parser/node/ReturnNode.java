@@ -6,6 +6,7 @@ package com.fizz.parser.node;
  */
 public class ReturnNode extends Node {
   private Node expr;
+  private boolean tailCall;
 
   /**
    * Creates a new ReturnNode with the passed expression.
@@ -23,4 +24,22 @@ public class ReturnNode extends Node {
   public Node getExpression() {
     return expr;
   }
+
+  /**
+   * Marks this Node as returning a call made in tail position, given by
+   * the {@link com.fizz.optimizer.Optimizer}. Nothing is left for the
+   * function to do after such a call.
+   * @param tailCall Tail call state of Node
+   */
+  public void setTailCall(boolean tailCall) {
+    this.tailCall = tailCall;
+  }
+
+  /**
+   * Returns if this Node returns a call made in tail position.
+   * @return Tail call state of Node
+   */
+  public boolean isTailCall() {
+    return tailCall;
+  }
 }
@@ -1,6 +1,7 @@
 package com.fizz.parser.node;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.interpreter.value.ValType;
 import com.fizz.util.Position;
 
 /**
@@ -10,6 +11,7 @@ import com.fizz.util.Position;
 public class UnaryOpNode extends Node {
   private Token op;
   private Node node;
+  private ValType specialization;
 
   /**
    * Creates a new UnaryOpNode with the passed operation and Node.
@@ -38,6 +40,23 @@ public class UnaryOpNode extends Node {
      return node;
    }
 
+   /**
+    * Sets the type of value this Node has specialized to, given by the
+    * {@link com.fizz.interpreter.Interpreter} once it has run.
+    * @param specialization Type of operand
+    */
+   public void setSpecialization(ValType specialization) {
+     this.specialization = specialization;
+   }
+
+   /**
+    * Returns the type of value this Node has specialized to.
+    * @return Type of operand, or null if this Node hasn't run yet
+    */
+   public ValType getSpecialization() {
+     return specialization;
+   }
+
    public String toString() {
      return "(" + op + node + ")";
    }
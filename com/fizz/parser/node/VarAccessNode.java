@@ -1,6 +1,7 @@
 package com.fizz.parser.node;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.resolver.Address;
 
 /**
  * Holds an identifier which is used to access Symbols in the SymbolTable.
@@ -8,6 +9,7 @@ import com.fizz.lexer.token.Token;
  */
 public class VarAccessNode extends Node {
   private Token name;
+  private Address address;
 
   /**
    * Creates a new VarAccessNode with the passed name.
@@ -25,4 +27,21 @@ public class VarAccessNode extends Node {
   public Token getName() {
     return name;
   }
+
+  /**
+   * Sets the Address of the accessed variable, given by the
+   * {@link com.fizz.resolver.Resolver}.
+   * @param address Resolved Address
+   */
+  public void setAddress(Address address) {
+    this.address = address;
+  }
+
+  /**
+   * Returns the Address of the accessed variable.
+   * @return Resolved Address, or null if this Node hasn't been resolved
+   */
+  public Address getAddress() {
+    return address;
+  }
 }
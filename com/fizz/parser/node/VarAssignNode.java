@@ -1,6 +1,7 @@
 package com.fizz.parser.node;
 
 import com.fizz.lexer.token.Token;
+import com.fizz.resolver.Address;
 
 /**
  * Holds an identifier and expression for assignment to a SymbolTable.
@@ -11,6 +12,7 @@ public class VarAssignNode extends Node {
   private Node expr;
   private boolean constant;
   private byte type;
+  private Address address;
 
   /**
    * Creates a new VarAssignNode with the passed name, expression
@@ -60,4 +62,21 @@ public class VarAssignNode extends Node {
   public byte getType() {
     return type;
   }
+
+  /**
+   * Sets the Address of the assigned variable, given by the
+   * {@link com.fizz.resolver.Resolver}.
+   * @param address Resolved Address
+   */
+  public void setAddress(Address address) {
+    this.address = address;
+  }
+
+  /**
+   * Returns the Address of the assigned variable.
+   * @return Resolved Address, or null if this Node hasn't been resolved
+   */
+  public Address getAddress() {
+    return address;
+  }
 }
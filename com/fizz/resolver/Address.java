@@ -0,0 +1,107 @@
+package com.fizz.resolver;
+
+/**
+ * Describes where a name can be found at runtime. A name is first looked
+ * for in the slot of the Scope that owns this Address, and then through
+ * the Frames of the functions which called it, ending at the program's
+ * SymbolTable.
+ * @author Noah James Rathman
+ */
+public final class Address {
+  private String name;
+  private int slot;
+  private boolean constant, fixed;
+  private Address outer;
+
+  /**
+   * Creates a new Address with no slot.
+   * @param name Name being addressed
+   * @param outer Address of the same name in the enclosing Scope, or
+   * null if this Address belongs to the program
+   */
+  Address(String name, Address outer) {
+    this.name = name;
+    this.outer = outer;
+    slot = -1;
+    constant = false;
+    fixed = false;
+  }
+
+  /**
+   * Returns the name of this Address.
+   * @return Addressed name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns if this Address points into the program's SymbolTable.
+   * @return True if this Address belongs to the program
+   */
+  public boolean isGlobal() {
+    return outer == null;
+  }
+
+  /**
+   * Returns the slot of this Address in its own Scope.
+   * @return Slot of name, or -1 if the name isn't declared in this
+   * Address's Scope
+   */
+  public int getSlot() {
+    return slot;
+  }
+
+  /**
+   * Returns the Address of the same name in the enclosing Scope.
+   * @return Outer Address, or null for program Addresses
+   */
+  public Address getOuter() {
+    return outer;
+  }
+
+  /**
+   * Returns if the name is declared constant in this Address's Scope.
+   * @return True if a constant declaration was resolved here
+   */
+  public boolean isConstant() {
+    return constant;
+  }
+
+  /**
+   * Returns if any Scope this Address can reach may hold a constant
+   * with its name. If not, assignments don't need to check.
+   * @return True if a constant may be found through this Address
+   */
+  public boolean mayBeConstant() {
+    for(Address a = this; a != null; a = a.outer) {
+      if(a.constant) {return true;}
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns if the name was already constant in the program's
+   * SymbolTable when it was resolved, meaning it can never be assigned.
+   * @return True if the name is fixed
+   */
+  public boolean isFixed() {
+    return fixed;
+  }
+
+  void declare(int slot) {
+    if(this.slot == -1) {
+      this.slot = slot;
+    }
+  }
+
+  void setConstant() {
+    constant = true;
+  }
+
+  void setFixed() {
+    fixed = true;
+    constant = true;
+  }
+}
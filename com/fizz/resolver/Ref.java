@@ -0,0 +1,122 @@
+package com.fizz.resolver;
+
+import com.fizz.interpreter.value.Val;
+import com.fizz.util.context.*;
+
+/**
+ * Reads and writes a name through its resolved {@link Address}. A name
+ * declared by the current function is read straight from its slot.
+ * Otherwise it's looked for through the Frames which called the
+ * function and then the program's SymbolTable, although the callers are
+ * skipped when the mask of the current {@link Frame} shows none of them
+ * can hold it.
+ * @author Noah James Rathman
+ */
+public final class Ref {
+  private String name;
+  private long bit;
+  private SymbolTable globals;
+  private int local, global;
+
+  /**
+   * Creates a new Ref for the passed Address.
+   * @param address Resolved Address
+   * @param globals SymbolTable of the program
+   */
+  public Ref(Address address, SymbolTable globals) {
+    this.name = address.getName();
+    this.globals = globals;
+
+    bit = Frame.bitOf(name);
+    local = address.getSlot();
+    global = globals.slotOf(name);
+  }
+
+  /**
+   * Returns if assignments through this Ref write to the current Frame
+   * rather than the program's SymbolTable.
+   * @return True if the name is declared by the current function
+   */
+  public boolean isLocal() {
+    return local != -1;
+  }
+
+  /**
+   * Returns the value of the name.
+   * @param frame Current Frame
+   * @return Value of name, or null if it's undefined
+   */
+  public Val get(Frame frame) {
+    if(local != -1) {
+      Val value = frame.get(local);
+      if(value != null) {return value;}
+    }
+
+    //A calling function can hide the program's value.
+    if(frame.mayHold(bit)) {
+      Val value = frame.find(name);
+      if(value != null) {return value;}
+    }
+
+    Symbol sym = globals.getSlot(global);
+    return sym != null ? sym.getValue() : null;
+  }
+
+  /**
+   * Returns if the value found by {@link #get} is constant.
+   * @param frame Current Frame
+   * @return True if the value of the name is constant
+   */
+  public boolean isConstant(Frame frame) {
+    if(local != -1 && frame.get(local) != null) {
+      return frame.isConstant(local);
+    }
+
+    if(frame.mayHold(bit) && frame.find(name) != null) {
+      return frame.mayHoldConstant(bit) && frame.isConstant(name);
+    }
+
+    Symbol sym = globals.getSlot(global);
+    return sym != null && sym.isConstant();
+  }
+
+  /**
+   * Returns if the value written by {@link #set} would replace a constant.
+   * @param frame Current Frame
+   * @return True if the written slot holds a constant
+   */
+  public boolean isTargetConstant(Frame frame) {
+    if(isLocal()) {
+      return frame.isConstant(local);
+    }
+
+    Symbol sym = globals.getSlot(global);
+    return sym != null && sym.isConstant();
+  }
+
+  /**
+   * Assigns the passed value to the name.
+   * @param frame Current Frame
+   * @param value New value
+   * @param constant Determines if the value is constant
+   */
+  public void set(Frame frame, Val value, boolean constant) {
+    if(isLocal()) {
+      frame.set(local, value, constant);
+    } else {
+      globals.setSlot(global, value, constant);
+    }
+  }
+
+  /**
+   * Removes the value assigned by {@link #set}.
+   * @param frame Current Frame
+   */
+  public void clear(Frame frame) {
+    if(isLocal()) {
+      frame.clear(local);
+    } else {
+      globals.clearSlot(global);
+    }
+  }
+}
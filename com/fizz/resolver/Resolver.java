@@ -0,0 +1,213 @@
+package com.fizz.resolver;
+
+import java.util.Map;
+import java.util.HashMap;
+
+import com.fizz.parser.node.*;
+import com.fizz.util.context.Symbol;
+import com.fizz.util.context.SymbolTable;
+import com.fizz.util.function.RFunc;
+
+/**
+ * Runs between the Parser and execution, giving every name in the
+ * Abstract Syntax Tree an {@link Address} so it can be found without
+ * walking SymbolTables at runtime.
+ * <p>
+ * Names declared in a function are given slots in that function's
+ * {@link Scope}, while names declared by the program stay in its
+ * SymbolTable. Names are still scoped dynamically, as in the
+ * Interpreter: a name a function doesn't hold is looked for in the
+ * functions which called it before the program.
+ * @author Noah James Rathman
+ */
+public final class Resolver {
+  private static Map<String, RFunc> FUNCTIONS;
+  private static Scope scope;
+  private static SymbolTable globals;
+
+  //Resolver should never be instanced.
+  private Resolver() {}
+
+  /**
+   * Initializes the Resolver by putting all resolve methods
+   * into a Map.
+   */
+  public static void init() {
+    FUNCTIONS = new HashMap<String, RFunc>();
+
+    FUNCTIONS.put("UnaryOpNode",        Resolver::resolveUnaryOpNode);
+    FUNCTIONS.put("BinOpNode",          Resolver::resolveBinOpNode);
+    FUNCTIONS.put("VarAccessNode",      Resolver::resolveVarAccessNode);
+    FUNCTIONS.put("VarAssignNode",      Resolver::resolveVarAssignNode);
+    FUNCTIONS.put("CallNode",           Resolver::resolveCallNode);
+    FUNCTIONS.put("FuncDefNode",        Resolver::resolveFuncDefNode);
+    FUNCTIONS.put("StatementNode",      Resolver::resolveStatementNode);
+    FUNCTIONS.put("ReturnNode",         Resolver::resolveReturnNode);
+    FUNCTIONS.put("ArrayNode",          Resolver::resolveArrayNode);
+    FUNCTIONS.put("CastNode",           Resolver::resolveCastNode);
+    FUNCTIONS.put("IfNode",             Resolver::resolveIfNode);
+    FUNCTIONS.put("WhileNode",          Resolver::resolveWhileNode);
+    FUNCTIONS.put("ForNode",            Resolver::resolveForNode);
+  }
+
+  /**
+   * Resolves every name in the passed Abstract Syntax Tree.
+   * @param node Root Node of the tree
+   * @param _globals SymbolTable of the program the tree will run in
+   */
+  public static void resolve(Node node, SymbolTable _globals) {
+    scope = new Scope(null);
+    globals = _globals;
+
+    visit(node);
+  }
+
+  private static void visit(Node node) {
+    RFunc func = FUNCTIONS.get(node.getClass().getSimpleName());
+
+    //Nodes without a resolve method hold no names.
+    if(func != null) {
+      func.run(node);
+    }
+  }
+
+  private static Address lookup(String name) {
+    return checkGlobal(scope.lookup(name));
+  }
+
+  private static Address declare(String name, boolean constant) {
+    return checkGlobal(scope.declare(name, constant));
+  }
+
+  //Constants already in the program's SymbolTable can never be assigned again.
+  private static Address checkGlobal(Address addr) {
+    Address global = addr;
+    while(!global.isGlobal()) {
+      global = global.getOuter();
+    }
+
+    if(!global.isFixed()) {
+      Symbol sym = globals.get(global.getName());
+
+      if(sym != null && sym.isConstant()) {
+        global.setFixed();
+      }
+    }
+
+    return addr;
+  }
+
+  private static void resolveUnaryOpNode(Node _node) {
+    final UnaryOpNode node = (UnaryOpNode) _node;
+    visit(node.getNode());
+  }
+
+  private static void resolveBinOpNode(Node _node) {
+    final BinOpNode node = (BinOpNode) _node;
+
+    visit(node.getLeftNode());
+    visit(node.getRightNode());
+  }
+
+  private static void resolveVarAccessNode(Node _node) {
+    final VarAccessNode node = (VarAccessNode) _node;
+    node.setAddress(lookup(node.getName().getValue()));
+  }
+
+  private static void resolveVarAssignNode(Node _node) {
+    final VarAssignNode node = (VarAssignNode) _node;
+
+    visit(node.getExpr());
+    node.setAddress(declare(node.getName().getValue(), node.isConstant()));
+  }
+
+  private static void resolveCallNode(Node _node) {
+    final CallNode node = (CallNode) _node;
+
+    for(Node arg : node.getArgValues()) {
+      visit(arg);
+    }
+
+    node.setAddress(lookup(node.getName().getValue()));
+  }
+
+  private static void resolveFuncDefNode(Node _node) {
+    final FuncDefNode node = (FuncDefNode) _node;
+
+    //Functions are always constant.
+    node.setAddress(declare(node.getName(), true));
+
+    Scope outer = scope;
+    scope = new Scope(outer);
+
+    for(String argName : node.getArgNames()) {
+      scope.declare(argName, false);
+    }
+
+    visit(node.getStatement());
+    node.setScope(scope);
+    scope = outer;
+  }
+
+  private static void resolveStatementNode(Node _node) {
+    final StatementNode node = (StatementNode) _node;
+
+    for(Node n : node.getStatements()) {
+      visit(n);
+    }
+  }
+
+  private static void resolveReturnNode(Node _node) {
+    final ReturnNode node = (ReturnNode) _node;
+    visit(node.getExpression());
+  }
+
+  private static void resolveArrayNode(Node _node) {
+    final ArrayNode node = (ArrayNode) _node;
+
+    if(node.getValues() != null) {
+      for(Node n : node.getValues()) {
+        visit(n);
+      }
+    }
+  }
+
+  private static void resolveCastNode(Node _node) {
+    final CastNode node = (CastNode) _node;
+    visit(node.getExpression());
+  }
+
+  private static void resolveIfNode(Node _node) {
+    final IfNode node = (IfNode) _node;
+
+    for(Node n : node.getConditions()) {
+      visit(n);
+    }
+
+    for(Node n : node.getExpressions()) {
+      visit(n);
+    }
+
+    if(node.getElseCase() != null) {
+      visit(node.getElseCase());
+    }
+  }
+
+  private static void resolveWhileNode(Node _node) {
+    final WhileNode node = (WhileNode) _node;
+
+    visit(node.getCondition());
+    visit(node.getExpression());
+  }
+
+  private static void resolveForNode(Node _node) {
+    final ForNode node = (ForNode) _node;
+
+    visit(node.getIterator());
+    visit(node.getCondition());
+    if(node.getStep() != null) {
+      visit(node.getStep());
+    }
+    visit(node.getExpression());
+  }
+}
@@ -0,0 +1,111 @@
+package com.fizz.resolver;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Holds the names declared by a single function, each of which is given
+ * a slot in the Frames of that function. The program is represented by
+ * a Scope with no parent, whose names are kept in its SymbolTable instead.
+ * @author Noah James Rathman
+ */
+public final class Scope {
+  private Scope parent;
+  private Map<String, Address> addresses;
+  private List<String> names;
+  private boolean constants;
+
+  /**
+   * Creates a new Scope inside of the passed Scope.
+   * @param parent Enclosing Scope, or null for the program
+   */
+  Scope(Scope parent) {
+    this.parent = parent;
+    addresses = new HashMap<String, Address>();
+    names = new ArrayList<String>();
+    constants = false;
+  }
+
+  /**
+   * Returns the Address of the passed name as seen from this Scope.
+   * @param name Name to look up
+   * @return Address of name
+   */
+  Address lookup(String name) {
+    Address addr = addresses.get(name);
+
+    if(addr == null) {
+      addr = new Address(name, parent != null ? parent.lookup(name) : null);
+      addresses.put(name, addr);
+    }
+
+    return addr;
+  }
+
+  /**
+   * Declares the passed name inside of this Scope.
+   * @param name Name to declare
+   * @param constant Determines if the declaration is constant
+   * @return Address of name
+   */
+  Address declare(String name, boolean constant) {
+    Address addr = lookup(name);
+
+    if(parent != null && addr.getSlot() == -1) {
+      addr.declare(names.size());
+      names.add(name);
+    }
+
+    if(constant) {
+      addr.setConstant();
+      constants = true;
+    }
+
+    return addr;
+  }
+
+  /**
+   * Returns the slot of the passed name in this Scope.
+   * @param name Declared name
+   * @return Slot of name, or -1 if it isn't declared in this Scope
+   */
+  public int getSlot(String name) {
+    Address addr = addresses.get(name);
+    return addr != null ? addr.getSlot() : -1;
+  }
+
+  /**
+   * Returns if this Scope belongs to the program.
+   * @return True if this Scope has no parent
+   */
+  public boolean isProgram() {
+    return parent == null;
+  }
+
+  /**
+   * Returns the number of slots needed by Frames of this Scope.
+   * @return Frame size
+   */
+  public int getSize() {
+    return names.size();
+  }
+
+  /**
+   * Returns the names of every slot in this Scope.
+   * @return Slot names
+   */
+  public String[] getNames() {
+    return names.toArray(new String[0]);
+  }
+
+  /**
+   * Returns if any constant is declared in this Scope, meaning its
+   * Frames have to track which slots are constant.
+   * @return True if this Scope declares a constant
+   */
+  public boolean hasConstants() {
+    return constants;
+  }
+}
@@ -1,7 +1,17 @@
 package com.fizz.util;
 
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Arrays;
+
 import com.fizz.interpreter.Interpreter;
+import com.fizz.interpreter.closure.ClosureCompiler;
+import com.fizz.interpreter.vm.BytecodeCompiler;
+import com.fizz.interpreter.jit.JitCompiler;
 import com.fizz.interpreter.value.*;
+import com.fizz.optimizer.Optimizer;
+import com.fizz.parser.TreeFile;
+import com.fizz.resolver.Resolver;
 import com.fizz.util.context.Context;
 import com.fizz.util.context.SymbolTable;
 
@@ -20,6 +30,7 @@ public final class Constants {
     "if", "elif", "else", "while", "break",
     "continue", "for"
   };
+  private static final Set<String> KEY_SET = new HashSet<String>(Arrays.asList(KEYWORDS));
 
   /** The base Context of all Fizz programs. */
   public static Context PROGRAM;
@@ -33,7 +44,13 @@ public final class Constants {
   }
 
   private static void initClassConstants() {
+    TreeFile.init();
     Interpreter.init();
+    ClosureCompiler.init();
+    Resolver.init();
+    Optimizer.init();
+    BytecodeCompiler.init();
+    JitCompiler.init();
     Num.init();
     Str.init();
     Bool.init();
@@ -48,13 +65,7 @@ public final class Constants {
    * of {@link #KEYWORDS}, false otherwise
    */
   public static boolean isKey(String id) {
-    for(String key : KEYWORDS) {
-      if(key.equals(id)) {
-        return true;
-      }
-    }
-
-    return false;
+    return KEY_SET.contains(id);
   }
 
   //Constants should never be instanced.
@@ -0,0 +1,147 @@
+package com.fizz.util;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Holds everything Fizz programs print until it's flushed to the
+ * target, which is the console unless another is set. Text is flushed
+ * once the buffer fills, once the flush interval has passed since the
+ * last flush, and whenever {@link #flush} is called, such as at the
+ * end of each run.
+ * <p>
+ * The interval is checked whenever something is printed, and at the
+ * safe points of each engine, being loops and calls, through
+ * {@link #poll}. Code which reaches neither can still hold output past
+ * the interval: a long running System Function, or a function compiled
+ * by the {@link com.fizz.interpreter.jit.JitCompiler}, which can't
+ * print but may run for a long time.
+ * <p>
+ * Like {@link System#out}, a failed write doesn't throw, and is
+ * reported by {@link #hasError} instead.
+ * @author Noah James Rathman
+ */
+public final class Output {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final WritableByteChannel CONSOLE = new FileOutputStream(FileDescriptor.out).getChannel();
+
+  private static StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+  private static WritableByteChannel target = CONSOLE;
+  private static Charset charset = Charset.defaultCharset();
+  private static long interval = 100_000_000L, lastFlush = System.nanoTime();
+  private static boolean error = false;
+
+  //Output should never be instanced.
+  private Output() {}
+
+  /**
+   * Sends all output to the passed channel, such as a
+   * {@link java.nio.channels.FileChannel}. Output held for the
+   * previous target is flushed first.
+   * @param channel Target of output, or null for the console
+   */
+  public static void setTarget(WritableByteChannel channel) {
+    flush();
+    target = channel != null ? channel : CONSOLE;
+  }
+
+  /**
+   * Sends all output to the passed stream, such as a
+   * {@link java.io.ByteArrayOutputStream} capturing it in memory.
+   * Output held for the previous target is flushed first.
+   * @param stream Target of output, or null for the console
+   */
+  public static void setTarget(OutputStream stream) {
+    setTarget(stream != null ? Channels.newChannel(stream) : null);
+  }
+
+  /**
+   * Sets the Charset text is encoded with when flushed.
+   * @param _charset Charset of output
+   */
+  public static void setCharset(Charset _charset) {
+    flush();
+    charset = _charset;
+  }
+
+  /**
+   * Sets the longest time output is held before being flushed. Every
+   * print and {@link #poll} checks the time, so output never waits much
+   * longer than this while a program keeps running.
+   * @param millis Flush interval in milliseconds. If 0, every print is
+   * flushed, and if negative, output is only flushed when the buffer
+   * fills or {@link #flush} is called.
+   */
+  public static void setFlushInterval(long millis) {
+    interval = millis < 0 ? Long.MAX_VALUE : millis * 1_000_000L;
+  }
+
+  /**
+   * Adds the passed text to the output.
+   * @param text Text to print
+   */
+  public static void print(String text) {
+    buffer.append(text);
+
+    if(buffer.length() >= BUFFER_SIZE || System.nanoTime() - lastFlush >= interval) {
+      flush();
+    }
+  }
+
+  /**
+   * Flushes held output if the flush interval has passed since the last
+   * flush. This is cheap while nothing is held, so the engines call it
+   * on every loop and call.
+   */
+  public static void poll() {
+    if(buffer.length() != 0 && System.nanoTime() - lastFlush >= interval) {
+      flush();
+    }
+  }
+
+  /**
+   * Adds the passed text followed by a line separator to the output.
+   * @param text Text to print
+   */
+  public static void println(String text) {
+    print(text + System.lineSeparator());
+  }
+
+  /**
+   * Writes all held output to the target.
+   */
+  public static void flush() {
+    lastFlush = System.nanoTime();
+    if(buffer.length() == 0) {return;}
+
+    //Anything printed to System.out beforehand has to come first.
+    if(target == CONSOLE) {
+      System.out.flush();
+    }
+
+    ByteBuffer bytes = charset.encode(buffer.toString());
+    buffer.setLength(0);
+
+    try {
+      while(bytes.hasRemaining()) {
+        target.write(bytes);
+      }
+    } catch(IOException e) {
+      error = true;
+    }
+  }
+
+  /**
+   * Returns if writing to a target has ever failed.
+   * @return True if a write has failed
+   */
+  public static boolean hasError() {
+    return error;
+  }
+}
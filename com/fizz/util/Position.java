@@ -1,54 +1,31 @@
 package com.fizz.util;
 
 /**
- * Used to identify positions in Fizz files.
+ * Used to identify positions in Fizz files. A Position only holds its
+ * index and {@link Source}, which works out its line and column when
+ * they're asked for.
  * @author Noah James Rathman
  */
 public final class Position {
-  private String fName, fText;
-  private int idx, ln, col;
+  private Source source;
+  private int idx;
 
   /**
-   * Creates a Position at the start of a file.
-   * @param fName File name
-   * @param fText File text
+   * Creates a Position at the passed index of a file.
+   * @param source Source of Position
+   * @param idx Index of Position
    */
-  public Position(String fName, String fText) {
-    this.fName = fName;
-    this.fText = fText;
-    idx = -1;
-    ln = 1;
-    col = 0;
-  }
-
-  private Position(String fName, String fText, int idx, int ln, int col) {
-    this.fName = fName;
-    this.fText = fText;
+  public Position(Source source, int idx) {
+    this.source = source;
     this.idx = idx;
-    this.ln = ln;
-    this.col = col;
   }
 
   /**
-   * Advances the Position to the next character.
-   * @param curChar Current character
+   * Returns the Source of this Position.
+   * @return Position source
    */
-  public void advance(char curChar) {
-    idx++;
-    col++;
-
-    if(curChar == '\n') {
-      col = 1;
-      ln++;
-    }
-  }
-
-  /**
-   * Returns a copy of this Position.
-   * @return Position copy
-   */
-  public Position copy() {
-    return new Position(fName, fText, idx, ln, col);
+  public Source getSource() {
+    return source;
   }
 
   /**
@@ -56,7 +33,7 @@ public final class Position {
    * @return Position file text
    */
   public String getFileText() {
-    return fText;
+    return source.getText();
   }
 
   /**
@@ -67,15 +44,23 @@ public final class Position {
     return idx;
   }
 
+  /**
+   * Returns the line of this Position.
+   * @return Position line
+   */
+  public int getLine() {
+    return source.getLine(idx);
+  }
+
   /**
    * Returns the column of this Position.
    * @return Position column
    */
   public int getColumn() {
-    return col;
+    return source.getColumn(idx);
   }
 
   public String toString() {
-    return "File " + fName + " at " + ln + ":" + col;
+    return "File " + source.getName() + " at " + getLine() + ":" + getColumn();
   }
 }
@@ -0,0 +1,198 @@
+package com.fizz.util;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fizz.parser.node.Node;
+import com.fizz.util.context.SymbolTable;
+
+/**
+ * Holds the optimized trees of recently compiled programs, so running
+ * the same code again can skip the Lexer, Parser and Optimizer. Once
+ * full, the least recently used program is evicted.
+ * <p>
+ * A tree is only reused with the global SymbolTable it was optimized
+ * for, unless it can run with any of them. That SymbolTable is only
+ * weakly held, so the cache never keeps a finished program's globals
+ * alive, and code passed as text is keyed by a digest rather than
+ * held itself.
+ * @author Noah James Rathman
+ */
+public final class ScriptCache {
+  private static int capacity = 64;
+  private static long hits = 0, misses = 0, evictions = 0;
+  private static MessageDigest digest;
+
+  private static final Map<List<Object>, Entry> ENTRIES = new LinkedHashMap<List<Object>, Entry>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<List<Object>, Entry> eldest) {
+      if(size() > capacity) {
+        evictions++;
+        return true;
+      }
+
+      return false;
+    }
+  };
+
+  //ScriptCache should never be instanced.
+  private ScriptCache() {}
+
+  /**
+   * Returns the key of code passed as text, made of its name and the
+   * SHA-256 digest of its text.
+   * @param fName Name of code
+   * @param fText Text of code
+   * @return Key of code
+   */
+  public static List<Object> textKey(String fName, String fText) {
+    if(digest == null) {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch(NoSuchAlgorithmException e) {
+        //Every Java platform is required to support SHA-256.
+        throw new IllegalStateException(e);
+      }
+    }
+
+    byte[] hash = digest.digest(fText.getBytes(StandardCharsets.UTF_8));
+    return Arrays.asList(fName, Base64.getEncoder().encodeToString(hash));
+  }
+
+  /**
+   * Returns the key of a file, which changes whenever the file is
+   * modified.
+   * @param path Absolute path of file
+   * @param modified Time the file was last modified
+   * @param size Size of file in bytes
+   * @return Key of file
+   */
+  public static List<Object> fileKey(String path, long modified, long size) {
+    return Arrays.asList(path, modified, size);
+  }
+
+  /**
+   * Returns the cached tree of the passed key, if it can be used
+   * with the passed SymbolTable. A tree whose SymbolTable has been
+   * collected is dropped.
+   * @param key Key of code
+   * @param globals SymbolTable the tree will run in
+   * @return Cached root Node, or null if nothing usable is cached
+   */
+  public static Node get(List<Object> key, SymbolTable globals) {
+    Entry entry = ENTRIES.get(key);
+
+    if(entry != null) {
+      SymbolTable owner = entry.globals.get();
+
+      if(entry.portable || owner == globals) {
+        hits++;
+        return entry.ast;
+      } else if(owner == null) {
+        ENTRIES.remove(key);
+      }
+    }
+
+    misses++;
+    return null;
+  }
+
+  /**
+   * Caches the passed tree under the passed key.
+   * @param key Key of code
+   * @param ast Optimized root Node
+   * @param globals SymbolTable the tree was optimized for
+   * @param portable Determines if the tree can run with any global SymbolTable
+   */
+  public static void put(List<Object> key, Node ast, SymbolTable globals, boolean portable) {
+    if(capacity > 0) {
+      ENTRIES.put(key, new Entry(ast, portable ? null : globals, portable));
+    }
+  }
+
+  /**
+   * Sets how many programs can be cached, evicting the least recently
+   * used programs past it.
+   * @param _capacity Maximum number of programs, where 0 disables
+   * the cache
+   */
+  public static void setCapacity(int _capacity) {
+    capacity = _capacity;
+
+    while(ENTRIES.size() > capacity) {
+      ENTRIES.remove(ENTRIES.keySet().iterator().next());
+      evictions++;
+    }
+  }
+
+  /**
+   * Returns how many programs can be cached.
+   * @return Maximum number of programs
+   */
+  public static int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns how many programs are cached.
+   * @return Number of programs
+   */
+  public static int getSize() {
+    return ENTRIES.size();
+  }
+
+  /**
+   * Returns how many runs used a cached program.
+   * @return Number of hits
+   */
+  public static long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns how many runs had to compile their program.
+   * @return Number of misses
+   */
+  public static long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns how many programs were evicted to make room for others.
+   * @return Number of evictions
+   */
+  public static long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Removes every cached program and sets all counts back to 0.
+   */
+  public static void clear() {
+    ENTRIES.clear();
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  private static final class Entry {
+    private final Node ast;
+    private final WeakReference<SymbolTable> globals;
+    private final boolean portable;
+
+    private Entry(Node ast, SymbolTable globals, boolean portable) {
+      this.ast = ast;
+      this.globals = new WeakReference<SymbolTable>(globals);
+      this.portable = portable;
+    }
+  }
+}
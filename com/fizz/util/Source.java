@@ -0,0 +1,188 @@
+package com.fizz.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Holds the name and text of a Fizz file, shared by every
+ * {@link Position} in it. The text of a Source made from a file is
+ * only read when it's asked for, as the Lexer reads its code through
+ * {@link #open} instead. Either way, carriage returns are left out.
+ * <p>
+ * Positions only keep their index, and are turned into lines and
+ * columns through a table of where each line starts. The table is
+ * only built the first time it's needed, which is usually when an
+ * Error is displayed, and is then searched in logarithmic time.
+ * @author Noah James Rathman
+ */
+public final class Source {
+  private String fName, fText;
+  private File file;
+  private boolean loaded;
+  private int[] lines;
+  private int lineCount;
+
+  /**
+   * Creates a Source from a file name and text.
+   * @param fName File name
+   * @param fText File text
+   */
+  public Source(String fName, String fText) {
+    this.fName = fName;
+    this.fText = fText;
+    file = null;
+    loaded = false;
+    lines = null;
+    lineCount = 0;
+  }
+
+  /**
+   * Creates a Source from a file name and a UTF-8 file.
+   * @param fName File name
+   * @param file File of code
+   */
+  public Source(String fName, File file) {
+    this.fName = fName;
+    this.file = file;
+    fText = null;
+    loaded = false;
+    lines = null;
+    lineCount = 0;
+  }
+
+  /**
+   * Opens a Reader of the code in this Source. A file is decoded as it's
+   * read, and malformed UTF-8 is reported by the Reader with a
+   * {@link java.nio.charset.CharacterCodingException}.
+   * @return Reader of code
+   * @throws IOException If the file can't be opened
+   */
+  public Reader open() throws IOException {
+    if(file == null) {
+      return new StringReader(fText);
+    }
+
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    return Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1);
+  }
+
+  /**
+   * Returns the name of this Source.
+   * @return Source file name
+   */
+  public String getName() {
+    return fName;
+  }
+
+  /**
+   * Returns the text of this Source.
+   * @return Source file text
+   */
+  public String getText() {
+    if(!loaded) {
+      if(file != null) {
+        try {
+          fText = load(file);
+        } catch(IOException e) {
+          //A file which can no longer be read is shown as empty.
+          fText = "";
+        }
+      }
+
+      if(fText.indexOf('\r') != -1) {
+        fText = fText.replace("\r", "");
+      }
+
+      loaded = true;
+    }
+
+    return fText;
+  }
+
+  /**
+   * Returns the line holding the passed index, starting from 1.
+   * @param idx Index in the text
+   * @return Line of index
+   */
+  public int getLine(int idx) {
+    return lineOf(idx) + 1;
+  }
+
+  /**
+   * Returns the column of the passed index in its line, starting from 1.
+   * @param idx Index in the text
+   * @return Column of index
+   */
+  public int getColumn(int idx) {
+    return idx - lines[lineOf(idx)] + 1;
+  }
+
+  /**
+   * Returns the text of the line holding the passed index, without its
+   * line break.
+   * @param idx Index in the text
+   * @return Text of line
+   */
+  public String getLineText(int idx) {
+    int line = lineOf(idx);
+    int end = line + 1 < lineCount ? lines[line + 1] - 1 : getText().length();
+
+    return getText().substring(lines[line], end);
+  }
+
+  private int lineOf(int idx) {
+    if(lines == null) {
+      createLines();
+    }
+
+    int low = 0, high = lineCount - 1;
+
+    //Finds the last line starting at or before the index.
+    while(low < high) {
+      int mid = (low + high + 1) >>> 1;
+
+      if(lines[mid] <= idx) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    return low;
+  }
+
+  private void createLines() {
+    final String TEXT = getText();
+    lines = new int[16];
+    lineCount = 1;
+
+    for(int i = TEXT.indexOf('\n'); i != -1; i = TEXT.indexOf('\n', i + 1)) {
+      if(lineCount == lines.length) {
+        lines = Arrays.copyOf(lines, lineCount * 2);
+      }
+
+      lines[lineCount++] = i + 1;
+    }
+  }
+
+  /*
+   * Reads the passed file as UTF-8 in one pass. The file is mapped into
+   * memory and decoded straight from there, rather than copied into an
+   * array first.
+   */
+  private static String load(File file) throws IOException {
+    try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      return StandardCharsets.UTF_8.newDecoder().decode(bytes).toString();
+    }
+  }
+}
@@ -1,16 +1,43 @@
 package com.fizz.util.context;
 
+import com.fizz.interpreter.value.BaseFunc;
 import com.fizz.util.Position;
 
 /**
- * Contains extra information for specific positions in code.
+ * Contains extra information for specific positions in code. The
+ * Context of a call is its frame, holding the called function, the
+ * SymbolTable of its arguments, the Position it returns to and the
+ * Context it was called from.
  * @author Noah James Rathman
  */
 public class Context {
+  private static int maxDepth = 10000;
+
+  /**
+   * Sets the deepest a Context can be nested. Calls which would nest
+   * deeper fail instead, so runaway recursion ends in an Error. Each
+   * program is given enough Java stack for this depth on its Engine.
+   * @param _maxDepth Maximum depth
+   */
+  public static void setMaxDepth(int _maxDepth) {
+    maxDepth = _maxDepth;
+  }
+
+  /**
+   * Returns the deepest a Context can be nested.
+   * @return Maximum depth
+   */
+  public static int getMaxDepth() {
+    return maxDepth;
+  }
+
+  //Class
   private Context parent;
   private Position entry;
   private SymbolTable table;
+  private BaseFunc function;
   private String name;
+  private int depth, tailCalls;
 
   /**
    * Creates a new Context without a parent.
@@ -36,6 +63,23 @@ public class Context {
     this.table = table;
     this.parent = parent;
     this.entry = entry;
+    depth = parent.depth + 1;
+  }
+
+  /**
+   * Creates the Context of a call to the passed function. Its name
+   * is only built when asked for, which for most calls is never.
+   * @param function Called function
+   * @param table SymbolTable of call
+   * @param parent Context of the caller
+   * @param entry Position of the call
+   */
+  public Context(BaseFunc function, SymbolTable table, Context parent, Position entry) {
+    this.function = function;
+    this.table = table;
+    this.parent = parent;
+    this.entry = entry;
+    depth = parent.depth + 1;
   }
 
   /**
@@ -43,9 +87,21 @@ public class Context {
    * @return Name of Context
    */
   public String getName() {
+    if(name == null && function != null) {
+      name = "<Function " + function.getName() + ">";
+    }
+
     return name;
   }
 
+  /**
+   * Returns the function this Context was called for.
+   * @return Called function, or null if this Context isn't a call
+   */
+  public BaseFunc getFunction() {
+    return function;
+  }
+
   /**
    * Returns the SymbolTable of this Context.
    * @return SymbolTable of Context
@@ -62,6 +118,40 @@ public class Context {
     return parent;
   }
 
+  /**
+   * Returns how many parents this Context has.
+   * @return Depth of Context
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Counts calls in tail position which ran in place of this Context's
+   * call, so a stack trace can mention the calls it no longer shows.
+   * @param count Number of calls
+   */
+  public void countTailCalls(int count) {
+    tailCalls += count;
+  }
+
+  /**
+   * Returns how many calls in tail position ran in place of this
+   * Context's call.
+   * @return Number of calls
+   */
+  public int getTailCalls() {
+    return tailCalls;
+  }
+
+  /**
+   * Returns if this Context is nested deeper than allowed.
+   * @return True if the depth is over {@link #getMaxDepth}
+   */
+  public boolean isTooDeep() {
+    return depth > maxDepth;
+  }
+
   /**
    * Returns the entry Position of this Context's parent.
    * @return Entry point of parent
@@ -71,6 +161,6 @@ public class Context {
   }
 
   public String toString() {
-    return entry + " in " + name;
+    return entry + " in " + getName();
   }
 }
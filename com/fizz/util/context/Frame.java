@@ -0,0 +1,208 @@
+package com.fizz.util.context;
+
+import com.fizz.interpreter.value.Val;
+import com.fizz.util.result.Completion;
+
+/**
+ * Holds the values of a single function call in slots given out by the
+ * {@link com.fizz.resolver.Resolver}. Values of the program itself stay in
+ * the SymbolTable of its Context, so a program Frame has no slots.
+ * <p>
+ * Each Frame also keeps a mask with a bit for every name declared by it
+ * or the Frames which called it. A name whose bit isn't set can't be
+ * held by any of them, so it's looked for in the program straight away.
+ * @author Noah James Rathman
+ */
+public final class Frame {
+  private static final Val[] NO_SLOTS = new Val[0];
+
+  private Val[] slots;
+  private boolean[] consts;
+  private String[] names;
+  private Frame caller;
+  private long mask, constMask;
+  private Context context;
+  private Completion completion;
+
+  /**
+   * Creates a new Frame for a program run with the passed Context.
+   * @param context Base Context of program
+   */
+  public Frame(Context context) {
+    this.context = context;
+    slots = NO_SLOTS;
+    consts = null;
+    names = null;
+    caller = null;
+    mask = 0;
+    constMask = 0;
+    completion = Completion.NORMAL;
+  }
+
+  /**
+   * Creates a new Frame for a function call.
+   * @param names Names of every slot
+   * @param trackConstants Determines if constant slots need to be tracked
+   * @param caller Frame the function was called from
+   * @param context Context of the call
+   */
+  public Frame(String[] names, boolean trackConstants, Frame caller, Context context) {
+    this.names = names;
+    this.caller = caller;
+    this.context = context;
+    slots = new Val[names.length];
+    consts = trackConstants ? new boolean[names.length] : null;
+    completion = Completion.NORMAL;
+
+    long own = 0;
+    for(String name : names) {
+      own |= bitOf(name);
+    }
+
+    mask = caller.mask | own;
+    constMask = caller.constMask | (trackConstants ? own : 0);
+  }
+
+  /**
+   * Returns the bit standing for the passed name in the masks of Frames.
+   * @param name Name of value
+   * @return Bit of name
+   */
+  public static long bitOf(String name) {
+    return 1L << (name.hashCode() & 63);
+  }
+
+  /**
+   * Returns the value held in the passed slot.
+   * @param slot Slot of value
+   * @return Value in slot, or null if the slot is empty
+   */
+  public Val get(int slot) {
+    return slots[slot];
+  }
+
+  /**
+   * Assigns the passed value to the passed slot.
+   * @param slot Slot of value
+   * @param value New value
+   * @param constant Determines if the slot is constant, only kept when
+   * this Frame tracks constants
+   */
+  public void set(int slot, Val value, boolean constant) {
+    slots[slot] = value;
+
+    if(consts != null) {
+      consts[slot] = constant;
+    }
+  }
+
+  /**
+   * Empties the passed slot.
+   * @param slot Slot of value
+   */
+  public void clear(int slot) {
+    slots[slot] = null;
+  }
+
+  /**
+   * Returns if the passed slot holds a constant.
+   * @param slot Slot of value
+   * @return True if the slot holds a constant value
+   */
+  public boolean isConstant(int slot) {
+    return consts != null && slots[slot] != null && consts[slot];
+  }
+
+  /**
+   * Returns if this Frame or a Frame which called it may hold a value
+   * whose name has a bit in the passed mask.
+   * @param bits Bits of names
+   * @return False if none of the names can be found through this Frame
+   */
+  public boolean mayHold(long bits) {
+    return (mask & bits) != 0;
+  }
+
+  /**
+   * Returns if this Frame or a Frame which called it may hold a constant
+   * whose name has a bit in the passed mask.
+   * @param bits Bits of names
+   * @return False if none of the names can be a constant in these Frames
+   */
+  public boolean mayHoldConstant(long bits) {
+    return (constMask & bits) != 0;
+  }
+
+  /**
+   * Looks for a value by name through this Frame and the Frames which
+   * called it.
+   * @param name Name of value
+   * @return Value with the passed name, or null if none is found
+   */
+  public Val find(String name) {
+    for(Frame f = this; f != null; f = f.caller) {
+      if(f.names == null) {continue;}
+
+      for(int i = 0; i < f.names.length; i++) {
+        if(f.slots[i] != null && f.names[i].equals(name)) {
+          return f.slots[i];
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns if the value found by {@link #find} is constant.
+   * @param name Name of value
+   * @return True if a constant with the passed name is found
+   */
+  public boolean isConstant(String name) {
+    for(Frame f = this; f != null; f = f.caller) {
+      if(f.names == null) {continue;}
+
+      for(int i = 0; i < f.names.length; i++) {
+        if(f.slots[i] != null && f.names[i].equals(name)) {
+          return f.consts != null && f.consts[i];
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the Frame this Frame's function was called from.
+   * @return Calling Frame
+   */
+  public Frame getCaller() {
+    return caller;
+  }
+
+  /**
+   * Sets how the statement last run in this Frame finished. Compiled
+   * statements return their values directly, so a "return", "break" or
+   * "continue" is marked here for the statements around it to see.
+   * @param completion How the statement finished
+   */
+  public void setCompletion(Completion completion) {
+    this.completion = completion;
+  }
+
+  /**
+   * Returns how the statement last run in this Frame finished.
+   * @return Frame Completion
+   */
+  public Completion getCompletion() {
+    return completion;
+  }
+
+  /**
+   * Returns the Context of this Frame.
+   * @return Frame Context
+   */
+  public Context getContext() {
+    return context;
+  }
+}
@@ -21,6 +21,23 @@ public class Symbol {
     this.constant = constant;
   }
 
+  /**
+   * Sets the value of this Symbol. Only the owning SymbolTable
+   * should change a Symbol, so this method is package-private.
+   * @param value New value held by Symbol
+   */
+  void setValue(Val value) {
+    this.value = value;
+  }
+
+  /**
+   * Sets if this Symbol is constant or not.
+   * @param constant Determines if the Symbol can be changed or not
+   */
+  void setConstant(boolean constant) {
+    this.constant = constant;
+  }
+
   /**
    * Returns the value of this Symbol.
    * @return Value held by Symbol
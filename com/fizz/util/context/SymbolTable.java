@@ -2,47 +2,87 @@ package com.fizz.util.context;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
 import java.util.Collections;
 
 import com.fizz.interpreter.value.*;
 
 /**
- * Holds a Map of Symbols for a specific Context as well as
- * it's parent.
+ * Holds the Symbols for a specific Context as well as it's parent.
+ * Every identifier is given a slot the first time it's seen, so
+ * resolved code can skip hashing the identifier on each access.
+ * <p>
+ * Call sites may cache the global Symbol of the function they call.
+ * Such a cache holds until the version changes, which happens
+ * whenever a watched id gains a Symbol outside of the global
+ * SymbolTable, shadowing it, a watched id loses a Symbol, or a new
+ * global SymbolTable is created.
  * @author Noah James Rathman
  */
 public class SymbolTable {
+  private static final Set<String> watched = new HashSet<String>();
+  private static int version = 0;
+
   /**
    * Creates a new instance of the Global Symbol Table.
    * @return Global Symbol Table
    */
   public static SymbolTable createGST() {
     SymbolTable sym = new SymbolTable();
-    sym.set("null",           Val.createNull(null, null, null), true);
-    sym.set("true",           new Bool(true), true);
-    sym.set("false",          new Bool(false), true);
-    sym.set("print",          SysFunc.getFunction("print"), true);
-    sym.set("println",        SysFunc.getFunction("println"), true);
-    sym.set("input",          SysFunc.getFunction("input"), true);
-    sym.set("typeOf",         SysFunc.getFunction("typeOf"), true);
-    sym.set("length",         SysFunc.getFunction("length"), true);
-    sym.set("run",            SysFunc.getFunction("run"), true);
+    sym.set("null",           Val.NULL, true);
+    sym.set("true",           Bool.TRUE, true);
+    sym.set("false",          Bool.FALSE, true);
+
+    for(SysFunc func : SysFunc.getFunctions()) {
+      sym.set(func.getName(), func, true);
+    }
 
     return sym;
   }
 
+  /**
+   * Returns if the passed id names one of the constants every global
+   * SymbolTable is created with.
+   * @param id Name to check
+   * @return True if the id is "null", "true" or "false"
+   */
+  public static boolean isBuiltInConstant(String id) {
+    return id.equals("null") || id.equals("true") || id.equals("false");
+  }
+
+  /**
+   * Watches the passed id, so that shadowing or removing it changes
+   * the version.
+   * @param id Name of a Symbol cached by a call site
+   */
+  public static void watch(String id) {
+    watched.add(id);
+  }
+
+  /**
+   * Returns the current version of every SymbolTable's shape.
+   * @return Version
+   */
+  public static int getVersion() {
+    return version;
+  }
+
   //Class
   private SymbolTable parent;
-  private Map<String, Symbol> symbols;
+  private Map<String, Integer> slots;
+  private String[] ids;
+  private Symbol[] symbols;
+  private boolean constants, shared;
 
   /**
    * Creates a new SymbolTable with no parent.
    */
   public SymbolTable() {
-    parent = null;
-    symbols = new HashMap<String, Symbol>();
+    this(null);
   }
 
   /**
@@ -51,8 +91,98 @@ public class SymbolTable {
    * Vals from
    */
   public SymbolTable(SymbolTable parent) {
+    //Call sites may have cached Symbols of another program.
+    if(parent == null) {version++;}
+
     this.parent = parent;
-    symbols = new HashMap<String, Symbol>();
+    slots = new HashMap<String, Integer>();
+    ids = new String[4];
+    symbols = new Symbol[4];
+  }
+
+  /**
+   * Creates a new SymbolTable with the assigned parent whose first
+   * slots hold the passed ids. The slots are shared with every other
+   * SymbolTable created from them until this one gains an id of its own.
+   * @param parent Other SymbolTable of which this one can pull
+   * Vals from
+   * @param slots Slot of each id
+   * @param ids Id of each slot
+   */
+  public SymbolTable(SymbolTable parent, Map<String, Integer> slots, String[] ids) {
+    this.parent = parent;
+    this.slots = slots;
+    this.ids = ids;
+    symbols = new Symbol[Math.max(ids.length, 4)];
+    shared = true;
+  }
+
+  /**
+   * Returns the slot of the passed id in this SymbolTable, creating
+   * an empty slot if the id hasn't been seen before.
+   * @param id Name used to identify Symbol
+   * @return Slot of id
+   */
+  public int slotOf(String id) {
+    Integer slot = slots.get(id);
+
+    if(slot == null) {
+      if(shared) {
+        slots = new HashMap<String, Integer>(slots);
+        ids = Arrays.copyOf(ids, symbols.length);
+        shared = false;
+      }
+
+      slot = slots.size();
+      slots.put(id, slot);
+
+      if(slot == symbols.length) {
+        ids = Arrays.copyOf(ids, slot * 2);
+        symbols = Arrays.copyOf(symbols, slot * 2);
+      }
+      ids[slot] = id;
+    }
+
+    return slot;
+  }
+
+  /**
+   * Returns the Symbol held in the passed slot. Unlike {@link #get},
+   * this never looks through the parent SymbolTable.
+   * @param slot Slot created by {@link #slotOf}
+   * @return Symbol in slot, or null if the slot is empty
+   */
+  public Symbol getSlot(int slot) {
+    return symbols[slot];
+  }
+
+  /**
+   * Assigns a Symbol to the passed slot regardless of if it's constant.
+   * @param slot Slot created by {@link #slotOf}
+   * @param value Value assigned to Symbol
+   * @param constant Determines if Symbol is assigned constant
+   */
+  public void setSlot(int slot, Val value, boolean constant) {
+    Symbol sym = symbols[slot];
+    constants |= constant;
+
+    if(sym == null) {
+      if(parent != null && watched.contains(ids[slot])) {version++;}
+      symbols[slot] = new Symbol(value, constant);
+    } else {
+      sym.setValue(value);
+      sym.setConstant(constant);
+    }
+  }
+
+  /**
+   * Empties the passed slot.
+   * @param slot Slot created by {@link #slotOf}
+   */
+  public void clearSlot(int slot) {
+    //Only call sites can hold a Symbol, and each watches the id it holds.
+    if(symbols[slot] != null && watched.contains(ids[slot])) {version++;}
+    symbols[slot] = null;
   }
 
   /**
@@ -64,10 +194,11 @@ public class SymbolTable {
    * successfully assigned, otherwise false
    */
   public boolean set(String id, Val value, boolean constant) {
-    Symbol sym = symbols.get(id);
+    int slot = slotOf(id);
+    Symbol sym = symbols[slot];
 
     if(sym == null || !sym.isConstant()) {
-      symbols.put(id, new Symbol(value, constant));
+      setSlot(slot, value, constant);
       return true;
     }
 
@@ -82,7 +213,7 @@ public class SymbolTable {
    * @param constant Determines if Symbol is assigned constant
    */
   public void setIgnoreConstant(String id, Val value, boolean constant) {
-    symbols.put(id, new Symbol(value, constant));
+    setSlot(slotOf(id), value, constant);
   }
 
   /**
@@ -92,7 +223,8 @@ public class SymbolTable {
    * id. If no Symbol exists, this method returns null
    */
   public Symbol get(String id) {
-    Symbol sym = symbols.get(id);
+    Integer slot = slots.get(id);
+    Symbol sym = slot != null ? symbols[slot] : null;
 
     if(sym == null && parent != null) {
       sym = parent.get(id);
@@ -106,7 +238,34 @@ public class SymbolTable {
    * @param id Target Symbol id
    */
   public void remove(String id) {
-    symbols.remove(id);
+    Integer slot = slots.get(id);
+
+    if(slot != null) {
+      clearSlot(slot);
+    }
+  }
+
+  /**
+   * Returns the SymbolTable with no parent this one extends from.
+   * @return Global SymbolTable, which may be this one
+   */
+  public SymbolTable getRoot() {
+    SymbolTable root = this;
+
+    while(root.parent != null) {
+      root = root.parent;
+    }
+
+    return root;
+  }
+
+  /**
+   * Returns if a constant Symbol has ever been assigned in this
+   * SymbolTable, not counting its parent.
+   * @return True if this SymbolTable may hold a constant
+   */
+  public boolean holdsConstants() {
+    return constants;
   }
 
   /**
@@ -115,13 +274,13 @@ public class SymbolTable {
    * @return List of Symbol displays
    */
   public List<String> getDisplayList() {
-    List<Symbol> syms = new ArrayList<Symbol>(symbols.values());
-    List<String> ids = new ArrayList<String>(symbols.keySet());
     List<String> displays = new ArrayList<String>();
 
-    for(int i = 0; i < syms.size(); i++) {
-      Symbol sym = syms.get(i);
-      String id = "ID: " + ids.get(i);
+    for(Map.Entry<String, Integer> entry : slots.entrySet()) {
+      Symbol sym = symbols[entry.getValue()];
+      if(sym == null) {continue;}
+
+      String id = "ID: " + entry.getKey();
       String disp = id + "\n|  Type: " + sym.getValue().getType() + "\n|  Value: " + sym.getValue();
       displays.add(disp);
     }
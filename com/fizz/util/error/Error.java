@@ -40,28 +40,12 @@ public class Error {
     this.end = end;
   }
 
-  private String getLine() {
-    final String FULL = start.getFileText();
-    int sIdx = start.getIndex();
-    int eIdx = start.getIndex();
-
-    while(sIdx > 0 && FULL.charAt(sIdx - 1) != '\n') {
-      sIdx--;
-    }
-
-    while(eIdx < FULL.length() && FULL.charAt(eIdx) != '\n') {
-      eIdx++;
-    }
-
-    return FULL.substring(sIdx, eIdx);
-  }
-
   /**
    * Creates a display of where the Error is located in the file.
    * @return Display of Error
    */
   protected String createDisplay() {
-    final String LINE = getLine();
+    final String LINE = start.getSource().getLineText(start.getIndex());
     String arrows = "";
     int sIdx = start.getColumn() - 1, eIdx = end.getColumn() - 1;
 
@@ -0,0 +1,34 @@
+package com.fizz.util.error;
+
+/**
+ * Carries an Error out of the Parser or an execution engine, so that
+ * successful steps can return their Node or value directly instead of
+ * wrapping it in a Result. Only the outermost call catches it, turning
+ * the Error back into a failed Result.
+ * <p>
+ * No stack trace is filled in, so throwing it costs little more than
+ * returning.
+ * @author Noah James Rathman
+ */
+public final class Failure extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final Error error;
+
+  /**
+   * Creates a new Failure carrying the passed Error.
+   * @param error Error which caused the Failure
+   */
+  public Failure(Error error) {
+    super(null, null, false, false);
+    this.error = error;
+  }
+
+  /**
+   * Returns the Error carried by this Failure.
+   * @return Failure Error
+   */
+  public Error getError() {
+    return error;
+  }
+}
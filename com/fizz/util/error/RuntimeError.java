@@ -15,13 +15,16 @@ public class RuntimeError extends Error {
    * Called when a value operation is called with an unexpected value type.
    * @param expt Expected value type
    * @param cause Cause of Error
+   * @param start Start of Error
+   * @param end End of Error
+   * @param context Context of Error
    * @return Unexpected Type Error
    */
-  public static RuntimeError unexpectedType(String expt, Val cause) {
+  public static RuntimeError unexpectedType(String expt, Val cause, Position start, Position end, Context context) {
     return new RuntimeError(
       "Unexpected Value Type",
       "Expected " + expt + ", instead got " + cause.getType() + ".",
-      cause.getStart(), cause.getEnd(), cause.getContext()
+      start, end, context
     );
   }
 
@@ -44,13 +47,16 @@ public class RuntimeError extends Error {
    * Called when a value is used in an operation it shouldn't.
    * @param opName Illegal operation name
    * @param cause Cause of Error
+   * @param start Start of Error
+   * @param end End of Error
+   * @param context Context of Error
    * @return Illegal Operation Error
    */
-  public static RuntimeError illegalOperation(String opName, Val cause) {
+  public static RuntimeError illegalOperation(String opName, Val cause, Position start, Position end, Context context) {
     return new RuntimeError(
       "Illegal Operation",
       cause.getType() + " can not be used in a " + opName + " operation.",
-      cause.getStart(), cause.getEnd(), cause.getContext()
+      start, end, context
     );
   }
 
@@ -102,21 +108,6 @@ public class RuntimeError extends Error {
     );
   }
 
-  /**
-   * Called when a function fails to create its SymbolTable.
-   * @param start Start of Error
-   * @param end End of Error
-   * @param context Context of Error
-   * @return Table Creation Error
-   */
-  public static RuntimeError tableCreation(Position start, Position end, Context context) {
-    return new RuntimeError(
-      "Function Call",
-      "Failed to create SymbolTable for function execution.",
-      start, end, context
-    );
-  }
-
   /**
    * Called when a function attempts to use void as a value.
    * @param cause Cause of Error
@@ -136,14 +127,48 @@ public class RuntimeError extends Error {
    * list of values.
    * @param idx Indexed position
    * @param size Length of value list
-   * @param cause Cause of Error
+   * @param start Start of Error
+   * @param end End of Error
+   * @param context Context of Error
    * @return Index out of Bounds Error
    */
-  public static RuntimeError indexOutOfBounds(int idx, int size, Val cause) {
+  public static RuntimeError indexOutOfBounds(int idx, int size, Position start, Position end, Context context) {
     return new RuntimeError(
       "Index out of Bounds",
       "Index " + idx + " is out of bounds for length " + size + ".",
-      cause.getStart(), cause.getEnd(), cause.getContext()
+      start, end, context
+    );
+  }
+
+  /**
+   * Called when a call would nest deeper than the maximum depth.
+   * @param max Maximum call depth
+   * @param start Start of Error
+   * @param end End of Error
+   * @param context Context of Error
+   * @return Call Depth Error
+   */
+  public static RuntimeError callDepth(int max, Position start, Position end, Context context) {
+    return new RuntimeError(
+      "Call Depth",
+      "Maximum call depth of " + max + " exceeded.",
+      start, end, context
+    );
+  }
+
+  /**
+   * Called when the Java stack runs out before the maximum call
+   * depth is reached.
+   * @param start Start of Error
+   * @param end End of Error
+   * @param context Context of Error
+   * @return Call Depth Error
+   */
+  public static RuntimeError stackSpace(Position start, Position end, Context context) {
+    return new RuntimeError(
+      "Call Depth",
+      "Ran out of stack space at a call depth of " + context.getDepth() + ".",
+      start, end, context
     );
   }
 
@@ -163,18 +188,48 @@ public class RuntimeError extends Error {
     this.context = context;
   }
 
+  //Runs of the same call, left by recursion, are cut short after a few lines.
   private String createStackTrace() {
-    String trace = "|  Stack Trace (Most recent call last):\n";
+    StringBuilder trace = new StringBuilder("|  Stack Trace (Most recent call last):\n");
     Context con = context;
+    String last = null;
+    int repeats = 0;
 
     while(con.getParent() != null) {
-      trace = trace + "|    " + con + "\n";
+      String line = con.toString();
+
+      if(line.equals(last)) {
+        repeats++;
+      } else {
+        appendRepeats(trace, repeats);
+        last = line;
+        repeats = 0;
+      }
+
+      if(repeats < 3) {
+        trace.append("|    ").append(line).append("\n");
+      }
+
+      //Calls in tail position leave no Context of their own.
+      if(con.getTailCalls() > 0) {
+        appendRepeats(trace, repeats);
+        trace.append("|    [").append(con.getTailCalls()).append(con.getTailCalls() == 1 ? " tail call" : " tail calls").append(" omitted]\n");
+        last = null;
+        repeats = 0;
+      }
       con = con.getParent();
     }
+    appendRepeats(trace, repeats);
 
     return trace + "|    " + start + " in " + con.getName();
   }
 
+  private static void appendRepeats(StringBuilder trace, int repeats) {
+    if(repeats >= 3) {
+      trace.append("|    [Previous line repeated ").append(repeats - 2).append(" more times]\n");
+    }
+  }
+
   public String toString() {
     String error = "|  Runtime Error: " + name;
     error += "\n" + createStackTrace();
@@ -0,0 +1,18 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the
+ * {@link com.fizz.interpreter.vm.BytecodeCompiler}.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface BFunc {
+  /**
+   * Calls the assigned compile method.
+   * @param _node Node to be compiled
+   * @param keep Determines if the value of the Node is left on the stack
+   */
+  void run(Node _node, boolean keep);
+}
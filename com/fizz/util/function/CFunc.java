@@ -0,0 +1,18 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the
+ * {@link com.fizz.interpreter.closure.ClosureCompiler}.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface CFunc {
+  /**
+   * Calls the assigned compile method.
+   * @param _node Node to be compiled
+   * @return Compiled Node
+   */
+  EFunc run(Node _node);
+}
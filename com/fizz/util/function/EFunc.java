@@ -0,0 +1,20 @@
+package com.fizz.util.function;
+
+import com.fizz.interpreter.value.Val;
+import com.fizz.util.context.Frame;
+
+/**
+ * Represents a Node which has already been compiled by the
+ * {@link com.fizz.interpreter.closure.ClosureCompiler}.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface EFunc {
+  /**
+   * Executes the compiled Node.
+   * @param frame Current Frame of execution
+   * @return Resulting value
+   * @throws com.fizz.util.error.Failure If the Node fails
+   */
+  Val run(Frame frame);
+}
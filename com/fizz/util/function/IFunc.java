@@ -1,8 +1,8 @@
 package com.fizz.util.function;
 
 import com.fizz.parser.node.Node;
+import com.fizz.interpreter.value.Val;
 import com.fizz.util.context.Context;
-import com.fizz.util.result.RuntimeResult;
 
 /**
  * Used for the passing and calling of methods in the Interpreter.
@@ -14,7 +14,8 @@ public interface IFunc {
    * Calls the assigned Interpreter method.
    * @param _node Node to be interpreter
    * @param context Current Context of Interpreter
-   * @return Result of method execution
+   * @return Resulting value
+   * @throws com.fizz.util.error.Failure If the Node fails
    */
-  RuntimeResult run(Node _node, Context context);
+  Val run(Node _node, Context context);
 }
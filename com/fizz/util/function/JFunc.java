@@ -0,0 +1,19 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the
+ * {@link com.fizz.interpreter.jit.JitCompiler}.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface JFunc {
+  /**
+   * Calls the assigned compile method.
+   * @param _node Node to be compiled
+   * @param keep Determines if the value of the Node is left on the stack
+   * @return Type of the value left on the stack
+   */
+  int run(Node _node, boolean keep);
+}
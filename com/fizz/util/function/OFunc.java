@@ -0,0 +1,17 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the Optimizer.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface OFunc {
+  /**
+   * Calls the assigned Optimizer method.
+   * @param _node Node to be optimized
+   * @return Node to use in place of the passed Node
+   */
+  Node run(Node _node);
+}
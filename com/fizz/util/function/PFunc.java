@@ -1,6 +1,6 @@
 package com.fizz.util.function;
 
-import com.fizz.util.result.ParseResult;
+import com.fizz.parser.node.Node;
 
 /**
  * Used for the passing and calling of methods in the Parser.
@@ -10,7 +10,8 @@ import com.fizz.util.result.ParseResult;
 public interface PFunc {
   /**
    * Calls the assigned Parser method.
-   * @return Result of method execution
+   * @return Parsed Node
+   * @throws com.fizz.util.error.Failure If the Tokens have invalid syntax
    */
-  ParseResult run();
+  Node run();
 }
@@ -0,0 +1,16 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the Resolver.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface RFunc {
+  /**
+   * Calls the assigned Resolver method.
+   * @param _node Node to be resolved
+   */
+  void run(Node _node);
+}
@@ -1,8 +1,8 @@
 package com.fizz.util.function;
 
 import com.fizz.util.Position;
-import com.fizz.util.result.RuntimeResult;
 import com.fizz.util.context.Context;
+import com.fizz.interpreter.value.Val;
 
 /**
  * Represents functions called inside of
@@ -13,9 +13,12 @@ import com.fizz.util.context.Context;
 public interface SFunc {
   /**
    * Runs the assigned function.
-   * @param entry Position of entry into function
-   * @param context Context to be used in function
-   * @return Result of function execution
+   * @param args Values of arguments, one for each argument name
+   * @param start Start of call into function
+   * @param end End of call into function
+   * @param context Context of the call
+   * @return Returned value, or void if the function returns nothing
+   * @throws com.fizz.util.error.Failure If the function fails
    */
-  RuntimeResult run(Position entry, Context context);
+  Val run(Val[] args, Position start, Position end, Context context);
 }
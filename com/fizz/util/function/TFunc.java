@@ -0,0 +1,19 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Supplies the parsed tree of a Fizz program, which is only asked for
+ * when the program isn't cached.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface TFunc {
+  /**
+   * Supplies the assigned tree.
+   * @return Root Node of the parsed tree, or null if the program has
+   * an Error, which has already been displayed
+   * @throws com.fizz.util.error.Failure If the tree can't be supplied
+   */
+  Node run();
+}
@@ -1,6 +1,7 @@
 package com.fizz.util.function;
 
-import com.fizz.util.result.RuntimeResult;
+import com.fizz.util.Position;
+import com.fizz.util.context.Context;
 import com.fizz.interpreter.value.Val;
 
 /**
@@ -13,7 +14,11 @@ public interface VFunc {
    * Calls the assigned value method.
    * @param self Value which called this function
    * @param other Value being operated on self
-   * @return Result of method execution
+   * @param start Start of other, used if it causes an Error
+   * @param end End of other, used if it causes an Error
+   * @param context Context of operation
+   * @return Resulting value
+   * @throws com.fizz.util.error.Failure If the operation fails
    */
-  RuntimeResult run(Val self, Val other);
+  Val run(Val self, Val other, Position start, Position end, Context context);
 }
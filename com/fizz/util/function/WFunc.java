@@ -0,0 +1,17 @@
+package com.fizz.util.function;
+
+import com.fizz.parser.node.Node;
+
+/**
+ * Used for the passing and calling of methods in the
+ * {@link com.fizz.parser.TreeFile} writer.
+ * @author Noah James Rathman
+ */
+@FunctionalInterface
+public interface WFunc {
+  /**
+   * Calls the assigned write method.
+   * @param _node Node to be written
+   */
+  void run(Node _node);
+}
@@ -0,0 +1,17 @@
+package com.fizz.util.result;
+
+/**
+ * Identifies how a statement finished running, telling the statements
+ * around it whether to carry on or to leave early.
+ * @author Noah James Rathman
+ */
+public enum Completion {
+  /** The statement finished normally. */
+  NORMAL,
+  /** A "return" was reached, and the value should leave the function. */
+  RETURN,
+  /** A "break" was reached, and the loop should end. */
+  BREAK,
+  /** A "continue" was reached, and the loop should go to its next run. */
+  CONTINUE
+}